@@ -1,26 +1,45 @@
 package ad.freiburg.pdfparser;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import ad.freiburg.pdfparser.exception.PdfParserException;
 import ad.freiburg.pdfparser.exception.PdfSerializerException;
-import ad.freiburg.pdfparser.model.PdfDocument;
 import ad.freiburg.pdfparser.model.PdfElementType;
+import ad.freiburg.pdfparser.model.Rectangle;
 import ad.freiburg.pdfparser.model.SerializationFormat;
+import ad.freiburg.pdfparser.parser.PdfPageListener;
+import ad.freiburg.pdfparser.parser.PdfPageSelection;
 import ad.freiburg.pdfparser.parser.PdfParser;
 import ad.freiburg.pdfparser.serializer.PdfJsonSerializer;
 import ad.freiburg.pdfparser.serializer.PdfSerializer;
 import ad.freiburg.pdfparser.serializer.PdfXmlSerializer;
+import ad.freiburg.pdfparser.utils.PathUtils;
 import net.sourceforge.argparse4j.ArgumentParserBuilder;
 import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.annotation.Arg;
 import net.sourceforge.argparse4j.helper.HelpScreenException;
 import net.sourceforge.argparse4j.inf.Argument;
@@ -39,13 +58,43 @@ public class PdfParserMain {
   protected static final Logger LOG = LogManager.getFormatterLogger(PdfParserMain.class);
 
   /**
-   * The path to the PDF file to process.
+   * The characters that indicate that an input is a glob pattern.
+   */
+  protected static final String GLOB_CHARS = "*?[{";
+
+  /**
+   * The memory mode in which PdfBox keeps all scratch buffers in main memory.
+   */
+  protected static final String MEMORY_MODE_MAIN_MEMORY = "main-memory";
+
+  /**
+   * The memory mode in which PdfBox keeps the scratch buffers in main memory up to a limit and in a
+   * temporary file beyond.
+   */
+  protected static final String MEMORY_MODE_MIXED = "mixed";
+
+  /**
+   * The memory mode in which PdfBox keeps all scratch buffers in a temporary file.
+   */
+  protected static final String MEMORY_MODE_TEMP_FILE = "temp-file";
+
+  /**
+   * The available memory modes.
+   */
+  protected static final List<String> MEMORY_MODES = List.of(MEMORY_MODE_MAIN_MEMORY,
+          MEMORY_MODE_MIXED, MEMORY_MODE_TEMP_FILE);
+
+  /**
+   * The path to the PDF file to process (in batch mode: a directory, a glob pattern, a file
+   * containing a list of PDF files, or "-" to read the list of PDF files from stdin).
    */
   @Arg(dest = "inputFile")
   protected String inputFile;
 
   /**
-   * The path to the output file (if set to null, the output is written to stdout).
+   * The path to the output file (if set to null, the output is written to stdout). In batch mode:
+   * the path to the output directory (if set to null, each output file is written to the directory
+   * of the respective PDF file).
    */
   @Arg(dest = "outputFile")
   protected String outputFile = null;
@@ -62,6 +111,108 @@ public class PdfParserMain {
   @Arg(dest = "elementTypes")
   protected List<String> elementTypes = new ArrayList<>(PdfElementType.getNames());
 
+  /**
+   * The selection of the pages to process (see {@link PdfPageSelection}), or null to process all
+   * pages.
+   */
+  @Arg(dest = "pages")
+  protected String pages = null;
+
+  /**
+   * The regions of interest, each given as "[<page>:]<minX>,<minY>,<maxX>,<maxY>" (null to
+   * extract all elements).
+   */
+  @Arg(dest = "regions")
+  protected List<String> regions = null;
+
+  /**
+   * The number of pages to process concurrently.
+   */
+  @Arg(dest = "numPageWorkers")
+  protected int numPageWorkers = 1;
+
+  /**
+   * A flag indicating whether the output should be compact (without any indentation).
+   */
+  @Arg(dest = "compact")
+  protected boolean compact = false;
+
+  /**
+   * A flag indicating whether the images should not be decoded (in which case all images are
+   * considered as figures, even if they consist of a single color).
+   */
+  @Arg(dest = "skipImageDecoding")
+  protected boolean skipImageDecoding = false;
+
+  /**
+   * A flag indicating whether the elements of form XObjects drawn multiple times should be replayed
+   * instead of parsing the forms again.
+   */
+  @Arg(dest = "replayForms")
+  protected boolean replayForms = false;
+
+  /**
+   * A flag indicating whether the segments of a subpath and touching collinear rulings should be
+   * coalesced into single shapes.
+   */
+  @Arg(dest = "coalesceShapes")
+  protected boolean coalesceShapes = false;
+
+  /**
+   * The memory mode of PdfBox on loading a PDF file (main-memory, mixed or temp-file).
+   */
+  @Arg(dest = "memoryMode")
+  protected String memoryMode = MEMORY_MODE_MAIN_MEMORY;
+
+  /**
+   * The maximum number of bytes PdfBox may use for the scratch buffers of a PDF file in the
+   * selected memory mode (-1 for no limit).
+   */
+  @Arg(dest = "maxMemoryBytes")
+  protected long maxMemoryBytes = -1;
+
+  /**
+   * The directory in which PdfBox creates its temporary files (null for the default directory).
+   */
+  @Arg(dest = "tempDir")
+  protected String tempDir = null;
+
+  /**
+   * A flag indicating whether multiple PDF files should be processed in a single run.
+   */
+  @Arg(dest = "batch")
+  protected boolean batch = false;
+
+  /**
+   * The number of PDF files to process concurrently in batch mode.
+   */
+  @Arg(dest = "numFileWorkers")
+  protected int numFileWorkers = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * A flag indicating whether the PDF parser should run as a server.
+   */
+  @Arg(dest = "server")
+  protected boolean server = false;
+
+  /**
+   * The port on which the server listens.
+   */
+  @Arg(dest = "port")
+  protected int port = 8080;
+
+  /**
+   * The maximum number of requests waiting for a worker in server mode.
+   */
+  @Arg(dest = "queueSize")
+  protected int queueSize = 64;
+
+  /**
+   * The maximum time in seconds to process a single request in server mode (0 for no limit).
+   */
+  @Arg(dest = "timeout")
+  protected int timeout = 60;
+
   // ==============================================================================================
 
   /**
@@ -73,21 +224,289 @@ public class PdfParserMain {
     // Parse the command line arguments.
     parseCommandLineArguments(args);
 
+    if (this.server) {
+      runServer();
+      return;
+    }
+
+    if (this.batch) {
+      runBatch();
+      return;
+    }
+
     Path inputFile = Paths.get(this.inputFile);
     Path outputFile = this.outputFile != null ? Paths.get(this.outputFile) : null;
     SerializationFormat outputFormat = SerializationFormat.fromString(this.outputFormat);
     Set<PdfElementType> elementTypes = PdfElementType.fromStrings(this.elementTypes);
 
     try {
-      // Parse the PDF.
-      PdfDocument pdf = parsePdf(inputFile);
-      // Serialize the PDF.
-      serializePdf(pdf, outputFile, outputFormat, elementTypes);
+      if (outputFile != null) {
+        // Write the serialization to file.
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(outputFile))) {
+          processPdf(inputFile, os, outputFormat, elementTypes);
+        } catch (IOException e) {
+          throw new PdfSerializerException("Couldn't write the serialization to file.", e);
+        }
+      } else {
+        // Write the serialization to stdout.
+        processPdf(inputFile, System.out, outputFormat, elementTypes);
+      }
     } catch (PdfParserException | PdfSerializerException e) {
       LOG.error("An error occurred on parsing '{}'.", inputFile, e);
     }
   }
 
+  /**
+   * Runs the PDF parser as a server, which parses PDF files on request. The server runs until the
+   * JVM is terminated.
+   */
+  protected void runServer() {
+    PdfParserServer server = new PdfParserServer(this, this.port, this.numFileWorkers,
+            this.queueSize, this.timeout);
+    try {
+      server.start();
+    } catch (IOException e) {
+      LOG.error("Couldn't start the server on port %d.", this.port, e);
+      return;
+    }
+    Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+  }
+
+  /**
+   * Runs the PDF parser in batch mode, that is: parses all PDF files given by the input argument
+   * within a single run, by using a pool of worker threads. Each PDF file is written to its own
+   * output file. An error on processing a PDF file doesn't affect the processing of the other
+   * files.
+   */
+  protected void runBatch() {
+    Path outputDir = this.outputFile != null ? Paths.get(this.outputFile) : null;
+    SerializationFormat outputFormat = SerializationFormat.fromString(this.outputFormat);
+    Set<PdfElementType> elementTypes = PdfElementType.fromStrings(this.elementTypes);
+
+    List<Path> inputFiles;
+    Path inputDir;
+    try {
+      inputDir = getBatchBaseDirectory(this.inputFile);
+      inputFiles = collectBatchInputFiles(this.inputFile);
+      if (outputDir != null) {
+        Files.createDirectories(outputDir);
+      }
+    } catch (IOException e) {
+      LOG.error("Couldn't read the input files given by '%s'.", this.inputFile, e);
+      return;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, this.numFileWorkers));
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (Path inputFile : inputFiles) {
+        Path outputFile = getBatchOutputFile(inputFile, inputDir, outputDir);
+        results.add(executor.submit(
+                () -> processBatchFile(inputFile, outputFile, outputFormat, elementTypes)));
+      }
+
+      int numFailed = 0;
+      for (Future<Boolean> result : results) {
+        try {
+          if (!result.get()) {
+            numFailed++;
+          }
+        } catch (ExecutionException e) {
+          numFailed++;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          LOG.error("The batch was interrupted.");
+          return;
+        }
+      }
+      LOG.info("Processed %d PDF file(s), %d failed.", inputFiles.size(), numFailed);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Parses the given PDF file and writes the serialization to the given output file. Any error is
+   * logged and not propagated, so that a single bad PDF file doesn't abort the whole batch. If the
+   * processing fails, the (partially written) output file is deleted.
+   * 
+   * @param pdfFile    The PDF file to process.
+   * @param outputFile The output file.
+   * @param format     The serialization format.
+   * @param types      The types of elements to serialize.
+   * 
+   * @return True, if the PDF file was processed successfully; false otherwise.
+   */
+  protected boolean processBatchFile(Path pdfFile, Path outputFile, SerializationFormat format,
+          Set<PdfElementType> types) {
+    try {
+      try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(outputFile))) {
+        processPdf(pdfFile, os, format, types);
+      }
+      LOG.debug("Processed '%s'.", pdfFile);
+      return true;
+    } catch (Exception e) {
+      LOG.error("An error occurred on parsing '%s'.", pdfFile, e);
+      try {
+        Files.deleteIfExists(outputFile);
+      } catch (IOException e2) {
+        LOG.warn("Couldn't delete the output file '%s'.", outputFile, e2);
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Collects the PDF files given by the input argument of the batch mode. The input can be:
+   * (1) "-", to read the paths to the PDF files line by line from stdin; (2) a directory, to
+   * process all PDF files in the directory and its subdirectories; (3) a glob pattern (like
+   * "pdfs/**&#47;*.pdf"), to process all files matching the pattern; (4) a file that contains the
+   * paths to the PDF files line by line; or (5) a single PDF file.
+   * 
+   * @param input The input argument.
+   * 
+   * @return The list of PDF files to process.
+   * 
+   * @throws IOException If reading the directory or the list of PDF files failed.
+   */
+  protected List<Path> collectBatchInputFiles(String input) throws IOException {
+    if ("-".equals(input)) {
+      BufferedReader reader = new BufferedReader(
+              new InputStreamReader(System.in, StandardCharsets.UTF_8));
+      return readPathList(reader.lines());
+    }
+
+    if (isGlobPattern(input)) {
+      Path baseDir = getBatchBaseDirectory(input);
+      PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + input);
+      try (Stream<Path> paths = Files.walk(baseDir)) {
+        return paths.filter(Files::isRegularFile).filter(matcher::matches).sorted()
+                .collect(Collectors.toList());
+      }
+    }
+
+    Path path = Paths.get(input);
+    if (Files.isDirectory(path)) {
+      try (Stream<Path> paths = Files.walk(path)) {
+        return paths.filter(Files::isRegularFile).filter(PdfParserMain::isPdfFile).sorted()
+                .collect(Collectors.toList());
+      }
+    }
+
+    if (!isPdfFile(path)) {
+      try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
+        return readPathList(lines);
+      }
+    }
+
+    List<Path> result = new ArrayList<>();
+    result.add(path);
+    return result;
+  }
+
+  /**
+   * Reads the paths of PDF files from the given lines (one path per line). Empty lines and lines
+   * starting with '#' are ignored.
+   * 
+   * @param lines The lines to read.
+   * 
+   * @return The list of paths.
+   */
+  protected List<Path> readPathList(Stream<String> lines) {
+    return lines.map(String::trim).filter(l -> !l.isEmpty() && !l.startsWith("#"))
+            .map(Paths::get).collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the base directory of the given input argument of the batch mode, that is: the
+   * directory relative to which the directory structure of the input files is reproduced in the
+   * output directory.
+   * 
+   * @param input The input argument.
+   * 
+   * @return The base directory, or null if the input doesn't have a base directory (for example,
+   *         because it is a list of PDF files).
+   */
+  protected Path getBatchBaseDirectory(String input) {
+    if (isGlobPattern(input)) {
+      // The base directory of a glob pattern is the longest prefix without any glob characters.
+      Path baseDir = Paths.get("");
+      for (Path segment : Paths.get(input)) {
+        if (isGlobPattern(segment.toString())) {
+          break;
+        }
+        baseDir = baseDir.resolve(segment);
+      }
+      if (Paths.get(input).isAbsolute()) {
+        baseDir = Paths.get(input).getRoot().resolve(baseDir);
+      }
+      return baseDir;
+    }
+
+    Path path = Paths.get(input);
+    return Files.isDirectory(path) ? path : null;
+  }
+
+  /**
+   * Returns the output file for the given PDF file in batch mode. The output file has the basename
+   * of the PDF file and the extension of the output format. If an output directory is given, the
+   * output file is placed in the output directory (in the same subdirectory as the PDF file is
+   * placed in the base directory), otherwise it is placed in the directory of the PDF file.
+   * 
+   * @param pdfFile   The PDF file.
+   * @param baseDir   The base directory of the PDF files (may be null).
+   * @param outputDir The output directory (may be null).
+   * 
+   * @return The output file.
+   */
+  protected Path getBatchOutputFile(Path pdfFile, Path baseDir, Path outputDir) {
+    String fileName = PathUtils.getBasename(pdfFile) + "." + this.outputFormat;
+
+    if (outputDir == null) {
+      return pdfFile.resolveSibling(fileName);
+    }
+
+    Path dir = outputDir;
+    if (baseDir != null && pdfFile.getParent() != null && pdfFile.startsWith(baseDir)) {
+      dir = outputDir.resolve(baseDir.relativize(pdfFile.getParent()));
+      try {
+        Files.createDirectories(dir);
+      } catch (IOException e) {
+        LOG.warn("Couldn't create the output directory '%s'.", dir, e);
+        dir = outputDir;
+      }
+    }
+    return dir.resolve(fileName);
+  }
+
+  /**
+   * Returns true, if the given string contains any glob characters.
+   * 
+   * @param input The string to check.
+   * 
+   * @return True, if the given string contains any glob characters; false otherwise.
+   */
+  protected static boolean isGlobPattern(String input) {
+    for (int i = 0; i < input.length(); i++) {
+      if (GLOB_CHARS.indexOf(input.charAt(i)) >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns true, if the given file has the extension ".pdf" (case-insensitive).
+   * 
+   * @param file The file to check.
+   * 
+   * @return True, if the given file has the extension ".pdf"; false otherwise.
+   */
+  protected static boolean isPdfFile(Path file) {
+    Path fileName = file.getFileName();
+    return fileName != null && fileName.toString().toLowerCase().endsWith(".pdf");
+  }
+
   /**
    * Parses the given command line arguments.
    * 
@@ -105,14 +524,18 @@ public class PdfParserMain {
 
     // Add an argument to define the PDF file to process.
     Argument arg = parser.addArgument("inputFile");
-    arg.help("The PDF file to process.");
+    arg.help("The PDF file to process. In batch mode: a directory, a glob pattern, a file "
+            + "containing the paths to PDF files (one per line), or '-' to read the paths from "
+            + "stdin.");
     arg.dest("inputFile");
-    arg.required(true);
+    arg.nargs("?");
     arg.metavar("<pdf>");
 
     // Add an argument to define the output file.
     arg = parser.addArgument("outputFile");
-    arg.help("The output file. If not specified, the output will be written to stdout.");
+    arg.help("The output file. If not specified, the output will be written to stdout. In batch "
+            + "mode: the output directory. If not specified, each output file will be written "
+            + "next to the respective PDF file.");
     arg.dest("outputFile");
     arg.nargs("?");
     arg.setDefault(outputFile);
@@ -138,9 +561,171 @@ public class PdfParserMain {
     arg.setDefault(elementTypes);
     arg.metavar("<type>", "<type>");
 
+    // Add an argument to define the pages to process.
+    arg = parser.addArgument("--pages");
+    arg.help("The pages to process, as a comma-separated list of page numbers (e.g., '5'), ranges "
+            + "(e.g., '3-7' or '3-'), 'first:<n>' or 'last:<n>' for the first or last n pages, or "
+            + "'*' for all pages. Each item can be followed by '/<n>' to select only every n-th "
+            + "page, e.g., '*/10'. If not specified, all pages are processed.");
+    arg.dest("pages");
+    arg.metavar("<pages>");
+
+    // Add an argument to define the regions of interest.
+    arg = parser.addArgument("--region");
+    arg.help("A region of interest, given as '<page>:<minX>,<minY>,<maxX>,<maxY>' (in pt, relative "
+            + "to the lower left corner of the page). If the page number is omitted, the region "
+            + "applies to all pages. Can be specified multiple times. If there are regions for a "
+            + "page, only the elements overlapping any of the regions are extracted from the "
+            + "page.");
+    arg.dest("regions");
+    arg.action(Arguments.append());
+    arg.metavar("<region>");
+
+    // Add an argument to define the number of pages to process concurrently.
+    arg = parser.addArgument("-p", "--page-workers");
+    arg.help("The number of pages to process concurrently. If set to 1, the pages are processed "
+            + "sequentially.");
+    arg.dest("numPageWorkers");
+    arg.type(Integer.class);
+    arg.setDefault(numPageWorkers);
+    arg.metavar("<num>");
+
+    // Add an argument to define whether the output should be compact.
+    arg = parser.addArgument("--compact");
+    arg.help("Write the JSON output without any indentation and line breaks.");
+    arg.dest("compact");
+    arg.action(Arguments.storeTrue());
+
+    // Add an argument to define whether the images should be decoded.
+    arg = parser.addArgument("--skip-image-decoding");
+    arg.help("Don't decode the images to check whether they consist of a single color (in which "
+            + "case they are extracted as shapes). All images are extracted as figures.");
+    arg.dest("skipImageDecoding");
+    arg.action(Arguments.storeTrue());
+
+    // Add an argument to define whether the elements of forms should be replayed.
+    arg = parser.addArgument("--replay-forms");
+    arg.help("Replay the elements of forms drawn multiple times (like running headers or footers) "
+            + "instead of parsing the forms again. The coordinates of replayed elements may differ "
+            + "in the last digits.");
+    arg.dest("replayForms");
+    arg.action(Arguments.storeTrue());
+
+    // Add an argument to define whether the shapes should be coalesced.
+    arg = parser.addArgument("--coalesce-shapes");
+    arg.help("Extract a single shape per subpath of a painted path (e.g., per rectangle) instead "
+            + "of one shape per path segment, and merge touching collinear rulings of the same "
+            + "color (like the lines of a table drawn cell by cell) into a single shape.");
+    arg.dest("coalesceShapes");
+    arg.action(Arguments.storeTrue());
+
+    // Add an argument to define the memory mode of PdfBox.
+    String modesStr = "[" + String.join(", ", MEMORY_MODES) + "]";
+    arg = parser.addArgument("--memory-mode");
+    arg.help("Where PdfBox keeps the scratch buffers of a PDF file: in main memory only, in main "
+            + "memory up to the limit given by --max-memory and in a temporary file beyond "
+            + "(mixed), or in a temporary file only. Choose from: " + modesStr + ".");
+    arg.dest("memoryMode");
+    arg.choices(MEMORY_MODES);
+    arg.setDefault(memoryMode);
+    arg.metavar("<mode>");
+
+    // Add an argument to define the memory budget of PdfBox.
+    arg = parser.addArgument("--max-memory");
+    arg.help("The maximum number of bytes of the scratch buffers of a PDF file: the main memory in "
+            + "modes main-memory and mixed, the temporary file storage in mode temp-file. Loading "
+            + "a file exceeding the limit fails instead of running out of heap space. Set to -1 "
+            + "for no limit.");
+    arg.dest("maxMemoryBytes");
+    arg.type(Long.class);
+    arg.setDefault(maxMemoryBytes);
+    arg.metavar("<bytes>");
+
+    // Add an argument to define the directory of the temporary files.
+    arg = parser.addArgument("--temp-dir");
+    arg.help("The directory in which PdfBox creates its temporary files in modes mixed and "
+            + "temp-file. If not specified, the default temporary directory is used.");
+    arg.dest("tempDir");
+    arg.metavar("<dir>");
+
+    // Add an argument to enable the batch mode.
+    arg = parser.addArgument("-b", "--batch");
+    arg.help("Process multiple PDF files in a single run, one output file per PDF file.");
+    arg.dest("batch");
+    arg.action(Arguments.storeTrue());
+
+    // Add an argument to define the number of PDF files to process concurrently.
+    arg = parser.addArgument("-w", "--workers");
+    arg.help("The number of PDF files to process concurrently in batch or server mode.");
+    arg.dest("numFileWorkers");
+    arg.type(Integer.class);
+    arg.setDefault(numFileWorkers);
+    arg.metavar("<num>");
+
+    // Add an argument to enable the server mode.
+    arg = parser.addArgument("--server");
+    arg.help("Run as a server that parses PDF files on request (POST /parse with the PDF file as "
+            + "the request body, or GET /parse?path=<pdf>). Optional request parameters: "
+            + "format=<format> and types=<type>,<type>,...");
+    arg.dest("server");
+    arg.action(Arguments.storeTrue());
+
+    // Add an argument to define the port of the server.
+    arg = parser.addArgument("--port");
+    arg.help("The port on which the server listens (on the loopback interface).");
+    arg.dest("port");
+    arg.type(Integer.class);
+    arg.setDefault(port);
+    arg.metavar("<port>");
+
+    // Add an argument to define the size of the request queue of the server.
+    arg = parser.addArgument("--queue-size");
+    arg.help("The maximum number of requests waiting for a worker in server mode. Further "
+            + "requests are rejected.");
+    arg.dest("queueSize");
+    arg.type(Integer.class);
+    arg.setDefault(queueSize);
+    arg.metavar("<num>");
+
+    // Add an argument to define the timeout of a request.
+    arg = parser.addArgument("--timeout");
+    arg.help("The maximum time in seconds to process a single request in server mode (0 for no "
+            + "limit).");
+    arg.dest("timeout");
+    arg.type(Integer.class);
+    arg.setDefault(timeout);
+    arg.metavar("<seconds>");
+
     try {
       // Parse the command line arguments.
       parser.parseArgs(args, this);
+
+      if (this.inputFile == null && !this.server) {
+        throw new ArgumentParserException("argument <pdf> is required", parser);
+      }
+
+      if (this.memoryMode.equals(MEMORY_MODE_MIXED) && this.maxMemoryBytes < 0) {
+        throw new ArgumentParserException("argument --max-memory is required in mode mixed",
+                parser);
+      }
+
+      if (this.pages != null) {
+        try {
+          PdfPageSelection.parse(this.pages);
+        } catch (IllegalArgumentException e) {
+          throw new ArgumentParserException("argument --pages: " + e.getMessage(), parser);
+        }
+      }
+
+      if (this.regions != null) {
+        for (String region : this.regions) {
+          try {
+            parseRegionOfInterest(region);
+          } catch (IllegalArgumentException e) {
+            throw new ArgumentParserException("argument --region: " + e.getMessage(), parser);
+          }
+        }
+      }
     } catch (HelpScreenException e) {
       // The help screen was requested, so print the help screen.
       System.out.println(parser.formatHelp());
@@ -156,58 +741,148 @@ public class PdfParserMain {
   // ==============================================================================================
 
   /**
-   * Parses the given PDF file.
+   * Parses the given PDF file and writes the serialization of the elements with the given types in
+   * the given format to the given output stream. The pages are serialized while they are parsed, so
+   * that only a single page needs to be kept in memory.
+   * 
+   * @param pdfFile The PDF file to process.
+   * @param out     The output stream to write the serialization to.
+   * @param format  The serialization format.
+   * @param types   The types of elements to serialize.
+   * 
+   * @throws PdfParserException     If something went wrong on parsing the PDF file.
+   * @throws PdfSerializerException If something went wrong on serializing the PDF document.
+   */
+  protected void processPdf(Path pdfFile, OutputStream out, SerializationFormat format,
+          Set<PdfElementType> types) throws PdfParserException, PdfSerializerException {
+    PdfSerializer serializer = createSerializer(format);
+
+    // Extract only the elements of the given types.
+    PdfParser parser = createPdfParser();
+    parser.setElementTypes(types);
+
+    // Serialize the pages while they are parsed.
+    PdfPageListener listener = serializer.createPageListener(types, out);
+    parser.parse(pdfFile, listener);
+  }
+
+  /**
+   * Creates the PDF parser, configured by the command line arguments.
    * 
-   * @param path The PDF file to parse.
+   * @return The created PDF parser.
+   */
+  protected PdfParser createPdfParser() {
+    PdfParser parser = new PdfParser();
+    parser.setNumPageWorkers(this.numPageWorkers);
+    parser.setDecodeImages(!this.skipImageDecoding);
+    parser.setReplayForms(this.replayForms);
+    parser.setCoalesceShapes(this.coalesceShapes);
+    if (this.pages != null) {
+      parser.setPageSelection(PdfPageSelection.parse(this.pages));
+    }
+    parser.setMemoryUsageSetting(createMemoryUsageSetting());
+    if (this.regions != null) {
+      for (String region : this.regions) {
+        addRegionOfInterest(parser, region);
+      }
+    }
+    return parser;
+  }
+
+  /**
+   * Parses the given region of interest and adds it to the given parser.
    * 
-   * @return The parsed PDF document.
+   * @param parser The parser to which the region should be added.
+   * @param region The region, given as "[<page>:]<minX>,<minY>,<maxX>,<maxY>".
    * 
-   * @throws PdfParserException If something went wrong on parsing the PDF file.
+   * @throws IllegalArgumentException If the region isn't valid.
    */
-  protected PdfDocument parsePdf(Path pdf) throws PdfParserException {
-    return new PdfParser().parse(pdf);
+  protected static void addRegionOfInterest(PdfParser parser, String region) {
+    Map.Entry<Integer, Rectangle> entry = parseRegionOfInterest(region);
+    parser.addRegionOfInterest(entry.getKey(), entry.getValue());
   }
 
   /**
-   * Serializes the given PDF file to the given output file in the given format.
+   * Parses the given region of interest.
    * 
-   * @param pdf        The PDF document to serialize.
-   * @param outputFile The file to write the serialization to.
-   * @param format     The serialization format.
-   * @param types      The types of elements to serialize.
+   * @param region The region, given as "[<page>:]<minX>,<minY>,<maxX>,<maxY>".
    * 
-   * @throws PdfParserException If something went wrong on serializing the PDF document.
+   * @return The parsed region, as a pair of the (1-based) page number (or
+   *         {@link PdfParser#ALL_PAGES} if no page is given) and the rectangle.
+   * 
+   * @throws IllegalArgumentException If the region isn't valid.
    */
-  protected void serializePdf(PdfDocument pdf, Path outputFile, SerializationFormat format,
-          Set<PdfElementType> types) throws PdfSerializerException {
-    // Choose the correct serializer.
-    PdfSerializer serializer;
-    switch (format) {
-      case XML:
-        serializer = new PdfXmlSerializer();
+  protected static Map.Entry<Integer, Rectangle> parseRegionOfInterest(String region) {
+    try {
+      int pageNumber = PdfParser.ALL_PAGES;
+      String coordinatesStr = region;
+      int colonIndex = region.indexOf(':');
+      if (colonIndex >= 0) {
+        pageNumber = Integer.parseInt(region.substring(0, colonIndex).trim());
+        coordinatesStr = region.substring(colonIndex + 1);
+        if (pageNumber < 1) {
+          throw new IllegalArgumentException("Invalid page number in region '" + region + "'.");
+        }
+      }
+
+      String[] coordinates = coordinatesStr.split(",");
+      if (coordinates.length != 4) {
+        throw new IllegalArgumentException("Invalid region: '" + region + "' (expected four "
+                + "coordinates).");
+      }
+      float minX = Float.parseFloat(coordinates[0].trim());
+      float minY = Float.parseFloat(coordinates[1].trim());
+      float maxX = Float.parseFloat(coordinates[2].trim());
+      float maxY = Float.parseFloat(coordinates[3].trim());
+      if (minX > maxX || minY > maxY) {
+        throw new IllegalArgumentException("Invalid region: '" + region + "' (the minimum "
+                + "coordinates must not exceed the maximum coordinates).");
+      }
+      return Map.entry(pageNumber, new Rectangle(minX, minY, maxX, maxY));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid region: '" + region + "'.", e);
+    }
+  }
+
+  /**
+   * Creates the memory usage setting of PdfBox, configured by the command line arguments.
+   * 
+   * @return The created memory usage setting.
+   */
+  protected MemoryUsageSetting createMemoryUsageSetting() {
+    MemoryUsageSetting setting;
+    switch (this.memoryMode) {
+      case MEMORY_MODE_MIXED:
+        setting = MemoryUsageSetting.setupMixed(this.maxMemoryBytes);
         break;
-      case JSON:
+      case MEMORY_MODE_TEMP_FILE:
+        setting = MemoryUsageSetting.setupTempFileOnly(this.maxMemoryBytes);
+        break;
+      case MEMORY_MODE_MAIN_MEMORY:
       default:
-        serializer = new PdfJsonSerializer();
+        setting = MemoryUsageSetting.setupMainMemoryOnly(this.maxMemoryBytes);
         break;
     }
+    if (this.tempDir != null) {
+      setting.setTempDir(new File(this.tempDir));
+    }
+    return setting;
+  }
 
-    // Serialize the PDF document.
-    byte[] serialization = serializer.serialize(pdf, types);
-
-    // Write the serialized PDF document to file (or stdout).
-    if (outputFile != null) {
-      try (OutputStream os = Files.newOutputStream(outputFile)) {
-        os.write(serialization);
-      } catch (IOException e) {
-        throw new PdfSerializerException("Couldn't write the serialization to file.", e);
-      }
-    } else {
-      try {
-        System.out.write(serialization);
-      } catch (IOException e) {
-        throw new PdfSerializerException("Couldn't write the serialization to stdout.", e);
-      }
+  /**
+   * Creates the serializer for the given serialization format.
+   * 
+   * @param format The serialization format.
+   * 
+   * @return The created serializer.
+   */
+  protected PdfSerializer createSerializer(SerializationFormat format) {
+    switch (format) {
+      case XML:
+        return new PdfXmlSerializer();
+      case JSON:
+      default:
+        return new PdfJsonSerializer(this.compact);
     }
   }
 
@@ -0,0 +1,326 @@
+package ad.freiburg.pdfparser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ad.freiburg.pdfparser.model.PdfElementType;
+import ad.freiburg.pdfparser.model.SerializationFormat;
+
+/**
+ * A long-running server that parses PDF files on request, so that the startup costs of the JVM
+ * (class loading, static initializations, JIT warm-up) are paid only once.
+ *
+ * <p>
+ * The server listens on the loopback interface and accepts requests of the form
+ * <code>POST /parse?format=json&amp;types=characters,figures</code>, with the bytes of the PDF
+ * file as the request body, or <code>GET /parse?path=/path/to/file.pdf</code>, to parse a PDF file
+ * from the local file system. The format and types parameters are optional. The response contains
+ * the serialization of the PDF file.
+ * </p>
+ *
+ * <p>
+ * The number of PDF files parsed concurrently is bounded by the number of workers. Requests that
+ * arrive while all workers are busy are queued; if the queue is full, the request is rejected with
+ * status 503 (Service Unavailable). If a request isn't processed within the timeout, the request is
+ * answered with status 504 (Gateway Timeout) and the parsing is aborted, so that the worker is
+ * released.
+ * </p>
+ *
+ * @author Claudius Korzen
+ */
+public class PdfParserServer {
+  /**
+   * The logger.
+   */
+  protected static final Logger LOG = LogManager.getFormatterLogger(PdfParserServer.class);
+
+  /**
+   * The path of the endpoint to parse PDF files.
+   */
+  protected static final String PARSE_PATH = "/parse";
+
+  /**
+   * The main class, used to parse and serialize the PDF files.
+   */
+  protected PdfParserMain main;
+
+  /**
+   * The port to listen on.
+   */
+  protected int port;
+
+  /**
+   * The number of PDF files to parse concurrently.
+   */
+  protected int numWorkers;
+
+  /**
+   * The maximum number of requests waiting for a worker.
+   */
+  protected int queueSize;
+
+  /**
+   * The maximum time in seconds to process a single request.
+   */
+  protected int timeout;
+
+  /**
+   * The HTTP server.
+   */
+  protected HttpServer server;
+
+  /**
+   * The executor that handles the HTTP exchanges.
+   */
+  protected ExecutorService requestExecutor;
+
+  /**
+   * The executor that parses the PDF files, with a bounded queue.
+   */
+  protected ThreadPoolExecutor parseExecutor;
+
+  // ==============================================================================================
+  // Constructors.
+
+  /**
+   * Creates a new PDF parser server.
+   *
+   * @param main       The main class, used to parse and serialize the PDF files.
+   * @param port       The port to listen on.
+   * @param numWorkers The number of PDF files to parse concurrently.
+   * @param queueSize  The maximum number of requests waiting for a worker.
+   * @param timeout    The maximum time in seconds to process a single request.
+   */
+  public PdfParserServer(PdfParserMain main, int port, int numWorkers, int queueSize,
+          int timeout) {
+    this.main = main;
+    this.port = port;
+    this.numWorkers = Math.max(1, numWorkers);
+    this.queueSize = Math.max(1, queueSize);
+    this.timeout = timeout;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Starts the server.
+   *
+   * @throws IOException If the server couldn't be bound to the port.
+   */
+  public void start() throws IOException {
+    this.parseExecutor = new ThreadPoolExecutor(this.numWorkers, this.numWorkers, 0L,
+            TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(this.queueSize));
+    // The number of exchanges waiting for a result is bounded by the number of workers and the
+    // queue size, since all further exchanges are rejected immediately.
+    this.requestExecutor = Executors.newCachedThreadPool();
+
+    InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), this.port);
+    this.server = HttpServer.create(address, 0);
+    this.server.createContext(PARSE_PATH, this::handleParseRequest);
+    this.server.setExecutor(this.requestExecutor);
+    this.server.start();
+
+    LOG.info("Listening on %s (workers: %d, queue size: %d, timeout: %ds).",
+            this.server.getAddress(), this.numWorkers, this.queueSize, this.timeout);
+  }
+
+  /**
+   * Stops the server. Requests that are currently processed are aborted.
+   */
+  public void stop() {
+    if (this.server != null) {
+      this.server.stop(0);
+    }
+    if (this.parseExecutor != null) {
+      this.parseExecutor.shutdownNow();
+    }
+    if (this.requestExecutor != null) {
+      this.requestExecutor.shutdownNow();
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Handles a request to parse a PDF file.
+   *
+   * @param exchange The HTTP exchange.
+   *
+   * @throws IOException If reading the request or writing the response failed.
+   */
+  protected void handleParseRequest(HttpExchange exchange) throws IOException {
+    Path tmpFile = null;
+    // The temporary file is deleted by the parse task, since the task may still read the file after
+    // the request was answered (on a timeout). The flag tells whether the task was started; if not,
+    // the file is deleted by this thread. It is set by whichever thread gets first.
+    AtomicBoolean isParseStarted = new AtomicBoolean(false);
+    try {
+      String method = exchange.getRequestMethod();
+      if (!"GET".equals(method) && !"POST".equals(method)) {
+        sendResponse(exchange, 405, "Method not allowed: " + method);
+        return;
+      }
+
+      Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+
+      SerializationFormat format;
+      Set<PdfElementType> types;
+      try {
+        String formatName = params.getOrDefault("format", this.main.outputFormat);
+        format = SerializationFormat.fromString(formatName);
+        String typeNames = params.get("types");
+        types = typeNames != null ? PdfElementType.fromStrings(typeNames.split(","))
+                : PdfElementType.fromStrings(this.main.elementTypes);
+      } catch (IllegalArgumentException e) {
+        sendResponse(exchange, 400, e.getMessage());
+        return;
+      }
+      if (format == null || types == null) {
+        sendResponse(exchange, 400, "Invalid format or types.");
+        return;
+      }
+
+      // Fetch the PDF file: either the given path, or the bytes given by the request body.
+      Path pdfFile;
+      if (params.containsKey("path")) {
+        pdfFile = Paths.get(params.get("path"));
+        if (!Files.isRegularFile(pdfFile)) {
+          sendResponse(exchange, 404, "No such file: " + pdfFile);
+          return;
+        }
+      } else if ("POST".equals(method)) {
+        tmpFile = Files.createTempFile("pdf-parser-", ".pdf");
+        try (InputStream body = exchange.getRequestBody()) {
+          Files.copy(body, tmpFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        pdfFile = tmpFile;
+      } else {
+        sendResponse(exchange, 400, "Neither a path nor a PDF file was given.");
+        return;
+      }
+
+      // Parse the PDF file.
+      Path parseTmpFile = tmpFile;
+      Future<byte[]> future;
+      try {
+        future = this.parseExecutor.submit(() -> {
+          if (!isParseStarted.compareAndSet(false, true)) {
+            return null;
+          }
+          try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            this.main.processPdf(pdfFile, out, format, types);
+            return out.toByteArray();
+          } finally {
+            if (parseTmpFile != null) {
+              Files.deleteIfExists(parseTmpFile);
+            }
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        sendResponse(exchange, 503, "The server is busy. Try again later.");
+        return;
+      }
+
+      byte[] result;
+      try {
+        result = this.timeout > 0 ? future.get(this.timeout, TimeUnit.SECONDS) : future.get();
+      } catch (TimeoutException e) {
+        future.cancel(true);
+        LOG.warn("Parsing '%s' timed out after %ds.", pdfFile, this.timeout);
+        sendResponse(exchange, 504, "Parsing the PDF file timed out.");
+        return;
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        LOG.error(String.format("An error occurred on parsing '%s'.", pdfFile), cause);
+        sendResponse(exchange, 500, "An error occurred on parsing the PDF file.");
+        return;
+      } catch (InterruptedException e) {
+        future.cancel(true);
+        Thread.currentThread().interrupt();
+        sendResponse(exchange, 503, "The server is shutting down.");
+        return;
+      }
+
+      boolean isXml = format == SerializationFormat.XML;
+      String contentType = isXml ? "application/xml" : "application/json";
+      exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+      exchange.sendResponseHeaders(200, result.length);
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(result);
+      }
+    } finally {
+      exchange.close();
+      if (tmpFile != null && isParseStarted.compareAndSet(false, true)) {
+        Files.deleteIfExists(tmpFile);
+      }
+    }
+  }
+
+  /**
+   * Sends a plain text response with the given status code.
+   *
+   * @param exchange The HTTP exchange.
+   * @param status   The status code.
+   * @param message  The message to send.
+   *
+   * @throws IOException If writing the response failed.
+   */
+  protected void sendResponse(HttpExchange exchange, int status, String message)
+          throws IOException {
+    byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(bytes);
+    }
+  }
+
+  /**
+   * Parses the given (raw) query string of an URI into a map of parameters.
+   *
+   * @param query The query string to parse (may be null).
+   *
+   * @return The map of parameters.
+   */
+  protected static Map<String, String> parseQuery(String query) {
+    Map<String, String> params = new HashMap<>();
+    if (query == null || query.isEmpty()) {
+      return params;
+    }
+    for (String param : query.split("&")) {
+      int index = param.indexOf('=');
+      String key = index < 0 ? param : param.substring(0, index);
+      String value = index < 0 ? "" : param.substring(index + 1);
+      params.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+              URLDecoder.decode(value, StandardCharsets.UTF_8));
+    }
+    return params;
+  }
+}
@@ -0,0 +1,470 @@
+package ad.freiburg.pdfparser.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import ad.freiburg.pdfparser.utils.PdfTextManager;
+import gnu.trove.list.array.TFloatArrayList;
+import gnu.trove.list.array.TIntArrayList;
+
+/**
+ * A list of the characters of a page that stores the characters column by column, in arrays of
+ * primitives, instead of as a graph of objects per character: the coordinates of the bounding
+ * boxes as floats, the font faces and colors as indexes into a table of the distinct font faces
+ * and colors of the page, the extraction ranks as ints and the texts as UTF-16 units (texts
+ * consisting of more than a single unit, like ligatures, are stored out of line in a table of the
+ * distinct longer texts of the page). This needs only a fraction of the memory of a list of
+ * {@link PdfCharacter} objects.
+ *
+ * <p>
+ * The characters returned by this list are lightweight views that are materialized on demand and
+ * read from and write to the columns of this list. The position returned by a view is a new object
+ * on each call: modifying the rectangle of this position doesn't change the stored character, use
+ * {@link PdfCharacter#setPosition(PdfPosition)} instead. A view refers to an index of the list,
+ * so it must not be used after characters were inserted or removed before this index. The list
+ * isn't thread-safe.
+ * </p>
+ *
+ * @author Claudius Korzen
+ */
+public class PdfColumnarCharacterList extends AbstractList<PdfCharacter> implements RandomAccess {
+  /**
+   * The default initial capacity of a list.
+   */
+  protected static final int DEFAULT_CAPACITY = 256;
+
+  /**
+   * The page to which the characters belong.
+   */
+  protected PdfPage page;
+
+  /**
+   * The minimum x-coordinates of the bounding boxes of the characters (NaN if a character has no
+   * position).
+   */
+  protected TFloatArrayList minXs;
+
+  /**
+   * The minimum y-coordinates of the bounding boxes of the characters.
+   */
+  protected TFloatArrayList minYs;
+
+  /**
+   * The maximum x-coordinates of the bounding boxes of the characters.
+   */
+  protected TFloatArrayList maxXs;
+
+  /**
+   * The maximum y-coordinates of the bounding boxes of the characters.
+   */
+  protected TFloatArrayList maxYs;
+
+  /**
+   * The indexes of the font faces of the characters in {@link #fontFaces} (-1 if a character has
+   * no font face).
+   */
+  protected TIntArrayList fontFaceIndexes;
+
+  /**
+   * The indexes of the colors of the characters in {@link #colors} (-1 if a character has no
+   * color).
+   */
+  protected TIntArrayList colorIndexes;
+
+  /**
+   * The extraction ranks of the characters.
+   */
+  protected TIntArrayList extractionRanks;
+
+  /**
+   * The texts of the characters: the UTF-16 unit of a text consisting of a single unit, -1 if a
+   * character has no text, or -(i + 2) for the i-th text in {@link #longTexts}.
+   */
+  protected TIntArrayList texts;
+
+  /**
+   * The distinct texts of the characters consisting of more than a single UTF-16 unit.
+   */
+  protected List<String> longTexts;
+
+  /**
+   * The indexes of the texts in {@link #longTexts}.
+   */
+  protected Map<String, Integer> longTextIndexMap;
+
+  /**
+   * The distinct font faces of the characters.
+   */
+  protected List<PdfFontFace> fontFaces;
+
+  /**
+   * The indexes of the font faces in {@link #fontFaces}.
+   */
+  protected Map<PdfFontFace, Integer> fontFaceIndexMap;
+
+  /**
+   * The distinct colors of the characters.
+   */
+  protected List<PdfColor> colors;
+
+  /**
+   * The indexes of the colors in {@link #colors}.
+   */
+  protected Map<PdfColor, Integer> colorIndexMap;
+
+  // ==============================================================================================
+  // Constructors.
+
+  /**
+   * Creates a new, empty list.
+   *
+   * @param page The page to which the characters belong.
+   */
+  public PdfColumnarCharacterList(PdfPage page) {
+    this.page = page;
+    this.minXs = new TFloatArrayList(DEFAULT_CAPACITY);
+    this.minYs = new TFloatArrayList(DEFAULT_CAPACITY);
+    this.maxXs = new TFloatArrayList(DEFAULT_CAPACITY);
+    this.maxYs = new TFloatArrayList(DEFAULT_CAPACITY);
+    this.fontFaceIndexes = new TIntArrayList(DEFAULT_CAPACITY);
+    this.colorIndexes = new TIntArrayList(DEFAULT_CAPACITY);
+    this.extractionRanks = new TIntArrayList(DEFAULT_CAPACITY);
+    this.texts = new TIntArrayList(DEFAULT_CAPACITY);
+    this.longTexts = new ArrayList<>();
+    this.longTextIndexMap = new HashMap<>();
+    this.fontFaces = new ArrayList<>();
+    this.fontFaceIndexMap = new IdentityHashMap<>();
+    this.colors = new ArrayList<>();
+    this.colorIndexMap = new IdentityHashMap<>();
+  }
+
+  // ==============================================================================================
+
+  @Override
+  public PdfCharacter get(int index) {
+    checkIndex(index, size());
+    return new View(index);
+  }
+
+  @Override
+  public int size() {
+    return this.extractionRanks.size();
+  }
+
+  @Override
+  public void add(int index, PdfCharacter character) {
+    checkIndex(index, size() + 1);
+    this.minXs.insert(index, 0);
+    this.minYs.insert(index, 0);
+    this.maxXs.insert(index, 0);
+    this.maxYs.insert(index, 0);
+    this.fontFaceIndexes.insert(index, -1);
+    this.colorIndexes.insert(index, -1);
+    this.extractionRanks.insert(index, 0);
+    this.texts.insert(index, -1);
+    store(index, character);
+    this.modCount++;
+  }
+
+  @Override
+  public PdfCharacter set(int index, PdfCharacter character) {
+    checkIndex(index, size());
+    PdfCharacter previous = materialize(index);
+    store(index, character);
+    return previous;
+  }
+
+  @Override
+  public PdfCharacter remove(int index) {
+    checkIndex(index, size());
+    PdfCharacter previous = materialize(index);
+    this.minXs.removeAt(index);
+    this.minYs.removeAt(index);
+    this.maxXs.removeAt(index);
+    this.maxYs.removeAt(index);
+    this.fontFaceIndexes.removeAt(index);
+    this.colorIndexes.removeAt(index);
+    this.extractionRanks.removeAt(index);
+    this.texts.removeAt(index);
+    this.modCount++;
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    this.minXs.resetQuick();
+    this.minYs.resetQuick();
+    this.maxXs.resetQuick();
+    this.maxYs.resetQuick();
+    this.fontFaceIndexes.resetQuick();
+    this.colorIndexes.resetQuick();
+    this.extractionRanks.resetQuick();
+    this.texts.resetQuick();
+    this.longTexts.clear();
+    this.longTextIndexMap.clear();
+    this.fontFaces.clear();
+    this.fontFaceIndexMap.clear();
+    this.colors.clear();
+    this.colorIndexMap.clear();
+    this.modCount++;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Stores the properties of the given character at the given index.
+   *
+   * @param index     The index.
+   * @param character The character to store.
+   */
+  protected void store(int index, PdfCharacter character) {
+    setText(index, character.getText());
+    setPosition(index, character.getPosition());
+    setFontFace(index, character.getFontFace());
+    setColor(index, character.getColor());
+    this.extractionRanks.set(index, character.getExtractionRank());
+  }
+
+  /**
+   * Creates a detached copy of the character at the given index (which is, other than a view, not
+   * affected by later modifications of this list).
+   *
+   * @param index The index of the character.
+   *
+   * @return The created character.
+   */
+  protected PdfCharacter materialize(int index) {
+    PdfCharacter character = new PdfCharacter();
+    character.setText(getText(index));
+    character.setPosition(getPosition(index));
+    character.setFontFace(getFontFace(index));
+    character.setColor(getColor(index));
+    character.setExtractionRank(this.extractionRanks.get(index));
+    return character;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the text of the character at the given index.
+   *
+   * @param index The index of the character.
+   *
+   * @return The text of the character.
+   */
+  protected String getText(int index) {
+    int text = this.texts.get(index);
+    if (text == -1) {
+      return null;
+    }
+    if (text < 0) {
+      return this.longTexts.get(-text - 2);
+    }
+    return PdfTextManager.getText((char) text);
+  }
+
+  /**
+   * Sets the text of the character at the given index.
+   *
+   * @param index The index of the character.
+   * @param text  The text to set.
+   */
+  protected void setText(int index, String text) {
+    if (text == null) {
+      this.texts.set(index, -1);
+    } else if (text.length() == 1) {
+      this.texts.set(index, text.charAt(0));
+    } else {
+      int longTextIndex = this.longTextIndexMap.computeIfAbsent(text, t -> {
+        this.longTexts.add(t);
+        return this.longTexts.size() - 1;
+      });
+      this.texts.set(index, -longTextIndex - 2);
+    }
+  }
+
+  /**
+   * Returns the position of the character at the given index.
+   *
+   * @param index The index of the character.
+   *
+   * @return A new position object, or null if the character has no position.
+   */
+  protected PdfPosition getPosition(int index) {
+    float minX = this.minXs.get(index);
+    if (Float.isNaN(minX)) {
+      return null;
+    }
+    Rectangle rect = new Rectangle(minX, this.minYs.get(index), this.maxXs.get(index),
+            this.maxYs.get(index));
+    return new PdfPosition(this.page, rect);
+  }
+
+  /**
+   * Sets the position of the character at the given index.
+   *
+   * @param index    The index of the character.
+   * @param position The position to set.
+   */
+  protected void setPosition(int index, PdfPosition position) {
+    Rectangle rect = position != null ? position.getRectangle() : null;
+    if (rect == null) {
+      this.minXs.set(index, Float.NaN);
+      return;
+    }
+    this.minXs.set(index, rect.getMinX());
+    this.minYs.set(index, rect.getMinY());
+    this.maxXs.set(index, rect.getMaxX());
+    this.maxYs.set(index, rect.getMaxY());
+  }
+
+  /**
+   * Returns the font face of the character at the given index.
+   *
+   * @param index The index of the character.
+   *
+   * @return The font face of the character.
+   */
+  protected PdfFontFace getFontFace(int index) {
+    int fontFaceIndex = this.fontFaceIndexes.get(index);
+    return fontFaceIndex < 0 ? null : this.fontFaces.get(fontFaceIndex);
+  }
+
+  /**
+   * Sets the font face of the character at the given index.
+   *
+   * @param index    The index of the character.
+   * @param fontFace The font face to set.
+   */
+  protected void setFontFace(int index, PdfFontFace fontFace) {
+    int fontFaceIndex = -1;
+    if (fontFace != null) {
+      fontFaceIndex = this.fontFaceIndexMap.computeIfAbsent(fontFace, f -> {
+        this.fontFaces.add(f);
+        return this.fontFaces.size() - 1;
+      });
+    }
+    this.fontFaceIndexes.set(index, fontFaceIndex);
+  }
+
+  /**
+   * Returns the color of the character at the given index.
+   *
+   * @param index The index of the character.
+   *
+   * @return The color of the character.
+   */
+  protected PdfColor getColor(int index) {
+    int colorIndex = this.colorIndexes.get(index);
+    return colorIndex < 0 ? null : this.colors.get(colorIndex);
+  }
+
+  /**
+   * Sets the color of the character at the given index.
+   *
+   * @param index The index of the character.
+   * @param color The color to set.
+   */
+  protected void setColor(int index, PdfColor color) {
+    int colorIndex = -1;
+    if (color != null) {
+      colorIndex = this.colorIndexMap.computeIfAbsent(color, c -> {
+        this.colors.add(c);
+        return this.colors.size() - 1;
+      });
+    }
+    this.colorIndexes.set(index, colorIndex);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Checks if the given index is in the range [0, size).
+   *
+   * @param index The index to check.
+   * @param size  The exclusive upper bound of the range.
+   *
+   * @throws IndexOutOfBoundsException If the index is out of the range.
+   */
+  protected static void checkIndex(int index, int size) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * A view of a character stored in this list, which reads from and writes to the columns of the
+   * list.
+   */
+  protected class View extends PdfCharacter {
+    /**
+     * The index of the character in the list.
+     */
+    protected int index;
+
+    /**
+     * Creates a new view of the character at the given index.
+     *
+     * @param index The index of the character in the list.
+     */
+    protected View(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public String getText() {
+      return PdfColumnarCharacterList.this.getText(this.index);
+    }
+
+    @Override
+    public void setText(String text) {
+      PdfColumnarCharacterList.this.setText(this.index, text);
+    }
+
+    @Override
+    public PdfPosition getPosition() {
+      return PdfColumnarCharacterList.this.getPosition(this.index);
+    }
+
+    @Override
+    public void setPosition(PdfPosition position) {
+      PdfColumnarCharacterList.this.setPosition(this.index, position);
+    }
+
+    @Override
+    public PdfFontFace getFontFace() {
+      return PdfColumnarCharacterList.this.getFontFace(this.index);
+    }
+
+    @Override
+    public void setFontFace(PdfFontFace fontFace) {
+      PdfColumnarCharacterList.this.setFontFace(this.index, fontFace);
+    }
+
+    @Override
+    public PdfColor getColor() {
+      return PdfColumnarCharacterList.this.getColor(this.index);
+    }
+
+    @Override
+    public void setColor(PdfColor color) {
+      PdfColumnarCharacterList.this.setColor(this.index, color);
+    }
+
+    @Override
+    public int getExtractionRank() {
+      return PdfColumnarCharacterList.this.extractionRanks.get(this.index);
+    }
+
+    @Override
+    public void setExtractionRank(int rank) {
+      PdfColumnarCharacterList.this.extractionRanks.set(this.index, rank);
+    }
+  }
+}
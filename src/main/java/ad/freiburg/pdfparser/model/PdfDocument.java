@@ -147,6 +147,21 @@ public class PdfDocument {
     this.pages.add(page);
   }
 
+  /**
+   * Removes the given page from this PDF document.
+   * 
+   * @param page The page to remove.
+   */
+  public void removePage(PdfPage page) {
+    // The page to remove is usually the last page, so search the list backwards.
+    for (int i = this.pages.size() - 1; i >= 0; i--) {
+      if (this.pages.get(i) == page) {
+        this.pages.remove(i);
+        return;
+      }
+    }
+  }
+
   // ==============================================================================================
 
   @Override
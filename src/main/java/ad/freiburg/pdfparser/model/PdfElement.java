@@ -5,5 +5,11 @@ package ad.freiburg.pdfparser.model;
  * 
  * @author Claudius Korzen
  */
-public class PdfElement {
+public abstract class PdfElement {
+  /**
+   * Returns the position of this element in the PDF document.
+   * 
+   * @return The position of this element in the PDF document.
+   */
+  public abstract PdfPosition getPosition();
 }
@@ -2,8 +2,8 @@ package ad.freiburg.pdfparser.model;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -82,12 +82,12 @@ public enum PdfElementType {
   }
 
   /**
-   * Returns a collection of all available types.
+   * Returns a collection of all available types, in the order of their declaration.
    * 
    * @return A collection of all available types.
    */
   public static Collection<PdfElementType> getTypes() {
-    return index.values();
+    return EnumSet.allOf(PdfElementType.class);
   }
 
   /**
@@ -113,7 +113,8 @@ public enum PdfElementType {
   }
 
   /**
-   * Returns a set of the types that are associated with the given names.
+   * Returns a set of the types that are associated with the given names. The set is iterated in
+   * the order of the declaration of the types, regardless of the order of the given names.
    * 
    * @param names The names of the types to fetch.
    *
@@ -124,7 +125,7 @@ public enum PdfElementType {
       return null;
     }
 
-    Set<PdfElementType> types = new HashSet<>();
+    Set<PdfElementType> types = EnumSet.noneOf(PdfElementType.class);
     for (String name : names) {
       PdfElementType type = fromString(name);
       if (type != null) {
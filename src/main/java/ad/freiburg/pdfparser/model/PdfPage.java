@@ -41,6 +41,11 @@ public class PdfPage {
    */
   protected float height;
 
+  /**
+   * The spatial index of the elements of this page (null if no index was built).
+   */
+  protected PdfSpatialIndex spatialIndex;
+
   // ==============================================================================================
 
   /**
@@ -310,6 +315,51 @@ public class PdfPage {
 
   // ==============================================================================================
 
+  /**
+   * Returns all elements of this page: the characters, followed by the figures and the shapes.
+   *
+   * @return The elements of this page.
+   */
+  public List<PdfElement> getElements() {
+    List<PdfElement> elements = new ArrayList<>(
+            this.characters.size() + this.figures.size() + this.shapes.size());
+    elements.addAll(this.characters);
+    elements.addAll(this.figures);
+    elements.addAll(this.shapes);
+    return elements;
+  }
+
+  /**
+   * Returns the spatial index of the elements of this page.
+   *
+   * @return The spatial index, or null if no index was built for this page.
+   */
+  public PdfSpatialIndex getSpatialIndex() {
+    return this.spatialIndex;
+  }
+
+  /**
+   * Sets the spatial index of the elements of this page.
+   *
+   * @param spatialIndex The spatial index.
+   */
+  public void setSpatialIndex(PdfSpatialIndex spatialIndex) {
+    this.spatialIndex = spatialIndex;
+  }
+
+  /**
+   * Builds a spatial index of the current elements of this page. The index must be built again
+   * if elements are added to this page or moved afterwards.
+   *
+   * @return The built index.
+   */
+  public PdfSpatialIndex buildSpatialIndex() {
+    this.spatialIndex = new PdfSpatialIndex(getElements());
+    return this.spatialIndex;
+  }
+
+  // ==============================================================================================
+
   @Override
   public String toString() {
     return "PdfPage(" + this.pageNumber + ")";
@@ -0,0 +1,430 @@
+package ad.freiburg.pdfparser.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A static spatial index of the elements of a page, implemented as a packed R-tree that is bulk
+ * loaded once by the Sort-Tile-Recursive (STR) algorithm. Answers the queries for the elements
+ * overlapping a given rectangle, for the k nearest elements to a given point, and for the elements
+ * in a horizontal band (for example, the elements on the same baseline as a given element) in
+ * logarithmic time, instead of scanning all elements of the page.
+ *
+ * <p>
+ * The tree is stored in flat arrays: the bounding boxes of all nodes in a single float array (four
+ * values per node), the leaves (the elements) first, followed by the inner nodes level by level,
+ * with the root as the last node. The children of an inner node are stored consecutively. The
+ * index reflects the positions of the elements at the time it was built; it must be rebuilt if
+ * elements are added or moved. Overlaps are computed as in {@link Rectangle#overlaps(Rectangle)},
+ * that is: rectangles touching each other overlap. The index is immutable and thread-safe.
+ * </p>
+ *
+ * @author Claudius Korzen
+ */
+public class PdfSpatialIndex {
+  /**
+   * The default maximum number of children of a node.
+   */
+  protected static final int DEFAULT_NODE_SIZE = 16;
+
+  /**
+   * The indexed elements, in the order of the leaves.
+   */
+  protected PdfElement[] elements;
+
+  /**
+   * The bounding boxes of the nodes, given by [minX, minY, maxX, maxY] per node.
+   */
+  protected float[] boxes;
+
+  /**
+   * The index of the first child of each inner node (the entries of the leaves are unused).
+   */
+  protected int[] firstChildren;
+
+  /**
+   * The index after the last child of each inner node (the entries of the leaves are unused).
+   */
+  protected int[] lastChildren;
+
+  /**
+   * The number of nodes.
+   */
+  protected int numNodes;
+
+  // ==============================================================================================
+  // Constructors.
+
+  /**
+   * Creates a new index of the given elements. Elements without a position are not indexed.
+   *
+   * @param elements The elements to index.
+   */
+  public PdfSpatialIndex(Collection<? extends PdfElement> elements) {
+    this(elements, DEFAULT_NODE_SIZE);
+  }
+
+  /**
+   * Creates a new index of the given elements. Elements without a position are not indexed.
+   *
+   * @param elements The elements to index.
+   * @param nodeSize The maximum number of children of a node.
+   */
+  public PdfSpatialIndex(Collection<? extends PdfElement> elements, int nodeSize) {
+    if (nodeSize < 2) {
+      throw new IllegalArgumentException("The node size must be at least 2.");
+    }
+
+    // Collect the elements with a position, together with their bounding boxes.
+    List<PdfElement> indexed = new ArrayList<>(elements.size());
+    List<Rectangle> rects = new ArrayList<>(elements.size());
+    for (PdfElement element : elements) {
+      PdfPosition position = element.getPosition();
+      Rectangle rect = position != null ? position.getRectangle() : null;
+      if (rect != null) {
+        indexed.add(element);
+        rects.add(rect);
+      }
+    }
+    int numElements = indexed.size();
+
+    // Sort the elements into tiles, such that elements close to each other are in the same leaves.
+    Integer[] order = new Integer[numElements];
+    for (int i = 0; i < numElements; i++) {
+      order[i] = i;
+    }
+    sortTileRecursive(order, rects, nodeSize);
+
+    // Compute the number of nodes of the tree.
+    this.numNodes = numElements;
+    for (int n = numElements; n > 1; ) {
+      n = (n + nodeSize - 1) / nodeSize;
+      this.numNodes += n;
+    }
+
+    this.elements = new PdfElement[numElements];
+    this.boxes = new float[4 * this.numNodes];
+    this.firstChildren = new int[this.numNodes];
+    this.lastChildren = new int[this.numNodes];
+
+    // Fill the leaves. The coordinates of a position are not necessarily ordered (for example, the
+    // position of a path segment is given by its start and end point), so normalize them.
+    for (int i = 0; i < numElements; i++) {
+      Rectangle rect = rects.get(order[i]);
+      this.elements[i] = indexed.get(order[i]);
+      this.boxes[4 * i] = Math.min(rect.getMinX(), rect.getMaxX());
+      this.boxes[4 * i + 1] = Math.min(rect.getMinY(), rect.getMaxY());
+      this.boxes[4 * i + 2] = Math.max(rect.getMinX(), rect.getMaxX());
+      this.boxes[4 * i + 3] = Math.max(rect.getMinY(), rect.getMaxY());
+    }
+
+    // Build the inner nodes level by level, from the nodes of the level below.
+    int levelStart = 0;
+    int levelEnd = numElements;
+    int node = numElements;
+    while (levelEnd - levelStart > 1) {
+      for (int child = levelStart; child < levelEnd; child += nodeSize) {
+        int lastChild = Math.min(child + nodeSize, levelEnd);
+        this.firstChildren[node] = child;
+        this.lastChildren[node] = lastChild;
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        for (int i = child; i < lastChild; i++) {
+          minX = Math.min(minX, this.boxes[4 * i]);
+          minY = Math.min(minY, this.boxes[4 * i + 1]);
+          maxX = Math.max(maxX, this.boxes[4 * i + 2]);
+          maxY = Math.max(maxY, this.boxes[4 * i + 3]);
+        }
+        this.boxes[4 * node] = minX;
+        this.boxes[4 * node + 1] = minY;
+        this.boxes[4 * node + 2] = maxX;
+        this.boxes[4 * node + 3] = maxY;
+        node++;
+      }
+      levelStart = levelEnd;
+      levelEnd = node;
+    }
+  }
+
+  /**
+   * Sorts the given element indexes by the Sort-Tile-Recursive algorithm: the elements are sorted
+   * by the x-coordinates of their midpoints and divided into vertical slices; the elements of each
+   * slice are sorted by the y-coordinates of their midpoints.
+   *
+   * @param order    The indexes of the elements to sort.
+   * @param rects    The bounding boxes of the elements.
+   * @param nodeSize The maximum number of children of a node.
+   */
+  protected static void sortTileRecursive(Integer[] order, List<Rectangle> rects, int nodeSize) {
+    int numElements = order.length;
+    if (numElements <= nodeSize) {
+      return;
+    }
+    int numLeaves = (numElements + nodeSize - 1) / nodeSize;
+    int numSlices = (int) Math.ceil(Math.sqrt(numLeaves));
+    int sliceSize = nodeSize * ((numLeaves + numSlices - 1) / numSlices);
+
+    Arrays.sort(order, Comparator.comparingDouble(i -> rects.get(i).getXMidpoint()));
+    for (int start = 0; start < numElements; start += sliceSize) {
+      int end = Math.min(start + sliceSize, numElements);
+      Arrays.sort(order, start, end, Comparator.comparingDouble(i -> rects.get(i).getYMidpoint()));
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the elements overlapping the given rectangle.
+   *
+   * @param rect The rectangle.
+   *
+   * @return The elements overlapping the given rectangle, in no particular order.
+   */
+  public List<PdfElement> getOverlappingElements(Rectangle rect) {
+    return getOverlappingElements(rect.getMinX(), rect.getMinY(), rect.getMaxX(), rect.getMaxY(),
+            PdfElement.class);
+  }
+
+  /**
+   * Returns the elements of the given type overlapping the given rectangle.
+   *
+   * @param <T>  The type of the elements.
+   * @param rect The rectangle.
+   * @param type The type of the elements to return (e.g., PdfCharacter.class).
+   *
+   * @return The elements overlapping the given rectangle, in no particular order.
+   */
+  public <T extends PdfElement> List<T> getOverlappingElements(Rectangle rect, Class<T> type) {
+    return getOverlappingElements(rect.getMinX(), rect.getMinY(), rect.getMaxX(), rect.getMaxY(),
+            type);
+  }
+
+  /**
+   * Returns the elements of the given type overlapping the rectangle with the given coordinates.
+   *
+   * @param <T>  The type of the elements.
+   * @param minX The minimum x-coordinate of the rectangle.
+   * @param minY The minimum y-coordinate of the rectangle.
+   * @param maxX The maximum x-coordinate of the rectangle.
+   * @param maxY The maximum y-coordinate of the rectangle.
+   * @param type The type of the elements to return (e.g., PdfCharacter.class).
+   *
+   * @return The elements overlapping the rectangle, in no particular order.
+   */
+  public <T extends PdfElement> List<T> getOverlappingElements(float minX, float minY, float maxX,
+          float maxY, Class<T> type) {
+    List<T> result = new ArrayList<>();
+    if (this.numNodes == 0) {
+      return result;
+    }
+
+    int[] stack = new int[64];
+    int stackSize = 0;
+    stack[stackSize++] = this.numNodes - 1;
+    while (stackSize > 0) {
+      int node = stack[--stackSize];
+      if (!overlaps(node, minX, minY, maxX, maxY)) {
+        continue;
+      }
+      if (isLeaf(node)) {
+        PdfElement element = this.elements[node];
+        if (type.isInstance(element)) {
+          result.add(type.cast(element));
+        }
+        continue;
+      }
+      for (int child = this.firstChildren[node]; child < this.lastChildren[node]; child++) {
+        if (stackSize == stack.length) {
+          stack = Arrays.copyOf(stack, 2 * stackSize);
+        }
+        stack[stackSize++] = child;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the elements of the given type in the horizontal band between the given y-coordinates,
+   * that is: the elements that overlap the band vertically, regardless of their x-coordinates.
+   *
+   * @param <T>  The type of the elements.
+   * @param minY The minimum y-coordinate of the band.
+   * @param maxY The maximum y-coordinate of the band.
+   * @param type The type of the elements to return (e.g., PdfCharacter.class).
+   *
+   * @return The elements in the band, in no particular order.
+   */
+  public <T extends PdfElement> List<T> getElementsInHorizontalBand(float minY, float maxY,
+          Class<T> type) {
+    return getOverlappingElements(Float.NEGATIVE_INFINITY, minY, Float.POSITIVE_INFINITY, maxY,
+            type);
+  }
+
+  /**
+   * Returns the elements of the given type on the same line as the given element, that is: the
+   * elements that overlap the given element vertically (including the given element itself, if it
+   * is indexed).
+   *
+   * @param <T>     The type of the elements.
+   * @param element The element.
+   * @param type    The type of the elements to return (e.g., PdfCharacter.class).
+   *
+   * @return The elements on the same line as the given element, in no particular order.
+   */
+  public <T extends PdfElement> List<T> getElementsOnSameLine(PdfElement element, Class<T> type) {
+    Rectangle rect = element.getPosition().getRectangle();
+    return getElementsInHorizontalBand(Math.min(rect.getMinY(), rect.getMaxY()),
+            Math.max(rect.getMinY(), rect.getMaxY()), type);
+  }
+
+  /**
+   * Returns the k elements of the given type nearest to the given point. The distance between the
+   * point and an element is the Euclidean distance between the point and the nearest point of the
+   * bounding box of the element (0 if the point lies within the bounding box).
+   *
+   * @param <T>  The type of the elements.
+   * @param x    The x-coordinate of the point.
+   * @param y    The y-coordinate of the point.
+   * @param k    The number of elements to return.
+   * @param type The type of the elements to return (e.g., PdfCharacter.class).
+   *
+   * @return The k nearest elements (or less, if there are less elements of the given type), sorted
+   *         by their distance to the point, in ascending order.
+   */
+  public <T extends PdfElement> List<T> getNearestElements(float x, float y, int k,
+          Class<T> type) {
+    List<T> result = new ArrayList<>(Math.max(k, 0));
+    if (this.numNodes == 0 || k <= 0) {
+      return result;
+    }
+
+    // Visit the nodes in the order of their distance to the point (best-first search). Since the
+    // distance of a node is a lower bound of the distances of its children, the leaves are polled
+    // in the order of their distance.
+    PriorityQueue<QueueEntry> queue = new PriorityQueue<>();
+    queue.add(new QueueEntry(this.numNodes - 1, getSquaredDistance(this.numNodes - 1, x, y)));
+    while (!queue.isEmpty() && result.size() < k) {
+      int node = queue.poll().node;
+      if (isLeaf(node)) {
+        PdfElement element = this.elements[node];
+        if (type.isInstance(element)) {
+          result.add(type.cast(element));
+        }
+        continue;
+      }
+      for (int child = this.firstChildren[node]; child < this.lastChildren[node]; child++) {
+        queue.add(new QueueEntry(child, getSquaredDistance(child, x, y)));
+      }
+    }
+    return result;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the number of indexed elements.
+   *
+   * @return The number of indexed elements.
+   */
+  public int size() {
+    return this.elements.length;
+  }
+
+  /**
+   * Returns the bounding box of all indexed elements.
+   *
+   * @return The bounding box, or null if no elements are indexed.
+   */
+  public Rectangle getBoundingBox() {
+    if (this.numNodes == 0) {
+      return null;
+    }
+    int root = this.numNodes - 1;
+    return new Rectangle(this.boxes[4 * root], this.boxes[4 * root + 1], this.boxes[4 * root + 2],
+            this.boxes[4 * root + 3]);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Checks if the given node is a leaf.
+   *
+   * @param node The index of the node.
+   *
+   * @return True, if the node is a leaf; false otherwise.
+   */
+  protected boolean isLeaf(int node) {
+    return node < this.elements.length;
+  }
+
+  /**
+   * Checks if the bounding box of the given node overlaps the rectangle with the given coordinates.
+   *
+   * @param node The index of the node.
+   * @param minX The minimum x-coordinate of the rectangle.
+   * @param minY The minimum y-coordinate of the rectangle.
+   * @param maxX The maximum x-coordinate of the rectangle.
+   * @param maxY The maximum y-coordinate of the rectangle.
+   *
+   * @return True, if the bounding box overlaps the rectangle; false otherwise.
+   */
+  protected boolean overlaps(int node, float minX, float minY, float maxX, float maxY) {
+    return this.boxes[4 * node + 2] >= minX && this.boxes[4 * node] <= maxX
+            && this.boxes[4 * node + 3] >= minY && this.boxes[4 * node + 1] <= maxY;
+  }
+
+  /**
+   * Computes the squared Euclidean distance between the given point and the bounding box of the
+   * given node.
+   *
+   * @param node The index of the node.
+   * @param x    The x-coordinate of the point.
+   * @param y    The y-coordinate of the point.
+   *
+   * @return The squared distance.
+   */
+  protected float getSquaredDistance(int node, float x, float y) {
+    float dx = Math.max(0, Math.max(this.boxes[4 * node] - x, x - this.boxes[4 * node + 2]));
+    float dy = Math.max(0, Math.max(this.boxes[4 * node + 1] - y, y - this.boxes[4 * node + 3]));
+    return dx * dx + dy * dy;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * An entry in the queue of a nearest neighbor search.
+   */
+  protected static class QueueEntry implements Comparable<QueueEntry> {
+    /**
+     * The index of the node.
+     */
+    protected int node;
+
+    /**
+     * The squared distance between the node and the query point.
+     */
+    protected float distance;
+
+    /**
+     * Creates a new queue entry.
+     *
+     * @param node     The index of the node.
+     * @param distance The squared distance between the node and the query point.
+     */
+    protected QueueEntry(int node, float distance) {
+      this.node = node;
+      this.distance = distance;
+    }
+
+    @Override
+    public int compareTo(QueueEntry other) {
+      return Float.compare(this.distance, other.distance);
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package ad.freiburg.pdfparser.parser;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import org.apache.pdfbox.pdmodel.graphics.state.PDGraphicsState;
+
+/**
+ * A stack of graphics states with copy-on-write semantics. Saving the current graphics state (for
+ * example, on a "q" operator) doesn't clone the state, but pushes a shared reference to it. The
+ * state is cloned only on the first request of a mutable state via {@link #peekMutable()}, so that
+ * saving and restoring a state that is never modified in between (for example, a "q ... Q" pair
+ * around a single word) doesn't copy anything.
+ *
+ * <p>
+ * The states returned by {@link #peek()} may be shared with other entries of the stack (or with
+ * the stack this stack was forked from) and must not be modified. The stack is backed by an array
+ * and isn't thread-safe.
+ * </p>
+ *
+ * @author Claudius Korzen
+ */
+public class PdfGraphicsStack {
+  /**
+   * The default initial capacity of a stack.
+   */
+  protected static final int DEFAULT_CAPACITY = 16;
+
+  /**
+   * The graphics states on this stack, from bottom to top.
+   */
+  protected PDGraphicsState[] states;
+
+  /**
+   * Per entry, a flag indicating whether the graphics state is shared with the entry below it (or,
+   * for the bottom entry, with the stack this stack was forked from) and needs to be cloned before
+   * it can be modified.
+   */
+  protected boolean[] isShared;
+
+  /**
+   * The number of entries on this stack.
+   */
+  protected int size;
+
+  // ==============================================================================================
+  // Constructors.
+
+  /**
+   * Creates a new, empty stack.
+   */
+  public PdfGraphicsStack() {
+    this.states = new PDGraphicsState[DEFAULT_CAPACITY];
+    this.isShared = new boolean[DEFAULT_CAPACITY];
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Pushes the given graphics state, which is owned by this stack from now on.
+   *
+   * @param state The graphics state to push.
+   */
+  public void push(PDGraphicsState state) {
+    push(state, false);
+  }
+
+  /**
+   * Pushes a shared reference to the current graphics state. The state is cloned as soon as it is
+   * requested via {@link #peekMutable()}.
+   *
+   * @throws EmptyStackException If the stack is empty.
+   */
+  public void save() {
+    push(peek(), true);
+  }
+
+  /**
+   * Pops the current graphics state.
+   *
+   * @throws EmptyStackException If the stack is empty.
+   */
+  public void restore() {
+    if (this.size == 0) {
+      throw new EmptyStackException();
+    }
+    this.states[--this.size] = null;
+  }
+
+  /**
+   * Returns the current graphics state, which must not be modified (since it may be shared with
+   * other entries). Use {@link #peekMutable()} to obtain a state that can be modified.
+   *
+   * @return The current graphics state.
+   *
+   * @throws EmptyStackException If the stack is empty.
+   */
+  public PDGraphicsState peek() {
+    if (this.size == 0) {
+      throw new EmptyStackException();
+    }
+    return this.states[this.size - 1];
+  }
+
+  /**
+   * Returns the current graphics state for modification, cloning it first if it is shared with
+   * other entries.
+   *
+   * @return The current graphics state.
+   *
+   * @throws EmptyStackException If the stack is empty.
+   */
+  public PDGraphicsState peekMutable() {
+    if (this.size == 0) {
+      throw new EmptyStackException();
+    }
+    int top = this.size - 1;
+    if (this.isShared[top]) {
+      this.states[top] = this.states[top].clone();
+      this.isShared[top] = false;
+    }
+    return this.states[top];
+  }
+
+  /**
+   * Creates a new stack that consists of a single entry, a shared reference to the current graphics
+   * state of this stack. This stack must not be modified as long as the new stack is in use.
+   *
+   * @return The new stack.
+   *
+   * @throws EmptyStackException If the stack is empty.
+   */
+  public PdfGraphicsStack fork() {
+    PdfGraphicsStack stack = new PdfGraphicsStack();
+    stack.push(peek(), true);
+    return stack;
+  }
+
+  /**
+   * Removes all entries from this stack.
+   */
+  public void clear() {
+    Arrays.fill(this.states, 0, this.size, null);
+    this.size = 0;
+  }
+
+  /**
+   * Returns the number of entries on this stack.
+   *
+   * @return The number of entries.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Pushes the given graphics state.
+   *
+   * @param state    The graphics state to push.
+   * @param isShared True, if the state is shared with the entry below it; false otherwise.
+   */
+  protected void push(PDGraphicsState state, boolean isShared) {
+    if (this.size == this.states.length) {
+      this.states = Arrays.copyOf(this.states, 2 * this.size);
+      this.isShared = Arrays.copyOf(this.isShared, 2 * this.size);
+    }
+    this.states[this.size] = state;
+    this.isShared[this.size] = isShared;
+    this.size++;
+  }
+}
@@ -0,0 +1,60 @@
+package ad.freiburg.pdfparser.parser;
+
+import java.io.IOException;
+import ad.freiburg.pdfparser.model.PdfDocument;
+import ad.freiburg.pdfparser.model.PdfPage;
+
+/**
+ * A listener that consumes the pages of a PDF document as soon as they were parsed completely. When
+ * a listener is passed to a {@link PdfParser}, each page is released from the {@link PdfDocument}
+ * right after it was handled by the listener, so that the memory needed by the parser is bounded by
+ * the size of a single page (instead of by the size of the whole document).
+ *
+ * @author Claudius Korzen
+ */
+public interface PdfPageListener {
+  /**
+   * A callback to handle the start of parsing the PDF file.
+   *
+   * @param pdf The PDF document.
+   *
+   * @throws IOException If something went wrong on handling the start of the PDF file.
+   */
+  default void handlePdfFileStart(PdfDocument pdf) throws IOException {
+    // Nothing to do by default.
+  }
+
+  /**
+   * A callback to handle a page that was parsed completely. The pages are passed in page order. The
+   * page is released by the parser after this method returned.
+   *
+   * @param pdf  The PDF document to which the given page belongs to.
+   * @param page The parsed page, containing all its characters, figures and shapes.
+   *
+   * @throws IOException If something went wrong on handling the page.
+   */
+  void handlePdfPage(PdfDocument pdf, PdfPage page) throws IOException;
+
+  /**
+   * A callback to handle the end of parsing the PDF file.
+   *
+   * @param pdf The PDF document.
+   *
+   * @throws IOException If something went wrong on handling the end of the PDF file.
+   */
+  default void handlePdfFileEnd(PdfDocument pdf) throws IOException {
+    // Nothing to do by default.
+  }
+
+  /**
+   * A callback to handle the abort of parsing the PDF file, called instead of
+   * {@link #handlePdfFileEnd(PdfDocument)} if an error occurred on parsing the PDF file (possibly
+   * even before {@link #handlePdfFileStart(PdfDocument)} was called). The listener should release
+   * all resources it acquired for the PDF file (like open files).
+   *
+   * @param pdf The PDF document.
+   */
+  default void handlePdfFileAbort(PdfDocument pdf) {
+    // Nothing to do by default.
+  }
+}
@@ -0,0 +1,308 @@
+package ad.freiburg.pdfparser.parser;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A selection of the pages of a PDF document to parse, consisting of one or more ranges of pages.
+ * The selection is independent of the number of pages of a specific document; the selected page
+ * numbers are computed per document via {@link #getPageNumbers(int)}.
+ *
+ * <p>
+ * A selection can be parsed from a comma-separated list of the following items (all page numbers
+ * are 1-based and inclusive):
+ * </p>
+ * <ul>
+ * <li>"5": the page 5.</li>
+ * <li>"3-7": the pages 3 to 7.</li>
+ * <li>"3-": the pages from 3 to the last page.</li>
+ * <li>"*": all pages.</li>
+ * <li>"first:3": the first 3 pages.</li>
+ * <li>"last:2": the last 2 pages.</li>
+ * </ul>
+ * <p>
+ * Each item may be followed by a stride "/N" to select only every N-th page of the range, starting
+ * with the first page of the range (for example, "1-/10" selects the pages 1, 11, 21, ...). The
+ * selection "first:3,last:1" selects the first three pages and the last page.
+ * </p>
+ *
+ * @author Claudius Korzen
+ */
+public class PdfPageSelection {
+  /**
+   * The ranges of this selection.
+   */
+  protected List<Range> ranges;
+
+  // ==============================================================================================
+  // Constructors.
+
+  /**
+   * Creates a new selection consisting of the given ranges.
+   *
+   * @param ranges The ranges of the selection.
+   */
+  protected PdfPageSelection(List<Range> ranges) {
+    this.ranges = ranges;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Creates a selection of all pages.
+   *
+   * @return The created selection.
+   */
+  public static PdfPageSelection all() {
+    return every(1);
+  }
+
+  /**
+   * Creates a selection of the given pages.
+   *
+   * @param pageNums The (1-based) numbers of the pages to select.
+   *
+   * @return The created selection.
+   */
+  public static PdfPageSelection of(int... pageNums) {
+    List<Range> ranges = new ArrayList<>();
+    for (int pageNum : pageNums) {
+      ranges.add(new Range(pageNum, pageNum, 1, false));
+    }
+    return new PdfPageSelection(ranges);
+  }
+
+  /**
+   * Creates a selection of the pages in the given range.
+   *
+   * @param first The (1-based) number of the first page to select.
+   * @param last  The (1-based) number of the last page to select (inclusive).
+   *
+   * @return The created selection.
+   */
+  public static PdfPageSelection range(int first, int last) {
+    return new PdfPageSelection(Collections.singletonList(new Range(first, last, 1, false)));
+  }
+
+  /**
+   * Creates a selection of every n-th page, starting with the first page.
+   *
+   * @param stride The distance between two selected pages.
+   *
+   * @return The created selection.
+   */
+  public static PdfPageSelection every(int stride) {
+    return new PdfPageSelection(
+            Collections.singletonList(new Range(1, Integer.MAX_VALUE, stride, false)));
+  }
+
+  /**
+   * Creates a selection of the first n pages.
+   *
+   * @param n The number of pages to select.
+   *
+   * @return The created selection.
+   */
+  public static PdfPageSelection first(int n) {
+    return new PdfPageSelection(Collections.singletonList(new Range(1, n, 1, false)));
+  }
+
+  /**
+   * Creates a selection of the last n pages.
+   *
+   * @param n The number of pages to select.
+   *
+   * @return The created selection.
+   */
+  public static PdfPageSelection last(int n) {
+    return new PdfPageSelection(Collections.singletonList(new Range(n, 1, 1, true)));
+  }
+
+  /**
+   * Creates a selection of all pages selected by at least one of the given selections.
+   *
+   * @param selections The selections to unite.
+   *
+   * @return The created selection.
+   */
+  public static PdfPageSelection union(PdfPageSelection... selections) {
+    List<Range> ranges = new ArrayList<>();
+    for (PdfPageSelection selection : selections) {
+      ranges.addAll(selection.ranges);
+    }
+    return new PdfPageSelection(ranges);
+  }
+
+  /**
+   * Parses the given string representation of a selection (see the class description).
+   *
+   * @param str The string to parse.
+   *
+   * @return The parsed selection.
+   *
+   * @throws IllegalArgumentException If the string isn't a valid selection.
+   */
+  public static PdfPageSelection parse(String str) {
+    if (str == null || str.trim().isEmpty()) {
+      throw new IllegalArgumentException("The page selection is empty.");
+    }
+
+    List<Range> ranges = new ArrayList<>();
+    for (String item : str.split(",")) {
+      ranges.add(parseRange(item.trim()));
+    }
+    return new PdfPageSelection(ranges);
+  }
+
+  /**
+   * Parses a single item of a string representation of a selection.
+   *
+   * @param item The item to parse.
+   *
+   * @return The parsed range.
+   *
+   * @throws IllegalArgumentException If the item isn't a valid range.
+   */
+  protected static Range parseRange(String item) {
+    try {
+      // Split off the stride.
+      int stride = 1;
+      String range = item;
+      int slashIndex = item.indexOf('/');
+      if (slashIndex >= 0) {
+        stride = Integer.parseInt(item.substring(slashIndex + 1).trim());
+        range = item.substring(0, slashIndex).trim();
+      }
+
+      Range result;
+      if (range.equals("*")) {
+        result = new Range(1, Integer.MAX_VALUE, stride, false);
+      } else if (range.startsWith("first:")) {
+        result = new Range(1, Integer.parseInt(range.substring(6).trim()), stride, false);
+      } else if (range.startsWith("last:")) {
+        result = new Range(Integer.parseInt(range.substring(5).trim()), 1, stride, true);
+      } else if (range.indexOf('-') >= 0) {
+        int dashIndex = range.indexOf('-');
+        int first = Integer.parseInt(range.substring(0, dashIndex).trim());
+        String lastStr = range.substring(dashIndex + 1).trim();
+        int last = lastStr.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(lastStr);
+        result = new Range(first, last, stride, false);
+      } else {
+        int pageNum = Integer.parseInt(range);
+        result = new Range(pageNum, pageNum, stride, false);
+      }
+
+      if (result.from < 1 || result.to < 1 || result.stride < 1) {
+        throw new IllegalArgumentException("Invalid page selection: '" + item + "' (page numbers, "
+                + "counts and strides must be positive).");
+      }
+      return result;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid page selection: '" + item + "'.", e);
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the (1-based) numbers of the selected pages of a document with the given number of
+   * pages, in ascending order and without duplicates.
+   *
+   * @param numPages The number of pages of the document.
+   *
+   * @return The numbers of the selected pages.
+   */
+  public int[] getPageNumbers(int numPages) {
+    BitSet selected = new BitSet(numPages + 1);
+    for (Range range : this.ranges) {
+      range.select(numPages, selected);
+    }
+    return selected.stream().toArray();
+  }
+
+  @Override
+  public String toString() {
+    List<String> items = new ArrayList<>();
+    for (Range range : this.ranges) {
+      items.add(range.toString());
+    }
+    return String.join(",", items);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * A range of pages, given by the numbers of the first and the last page of the range and a
+   * stride.
+   */
+  protected static class Range {
+    /**
+     * The number of the first page of this range (if this range is relative to the end of the
+     * document: the number of the first page, counted from the last page).
+     */
+    protected int from;
+
+    /**
+     * The number of the last page of this range (if this range is relative to the end of the
+     * document: the number of the last page, counted from the last page).
+     */
+    protected int to;
+
+    /**
+     * The distance between two selected pages of this range.
+     */
+    protected int stride;
+
+    /**
+     * A flag indicating whether the page numbers of this range are counted from the last page.
+     */
+    protected boolean isRelativeToEnd;
+
+    /**
+     * Creates a new range.
+     *
+     * @param from            The number of the first page of the range.
+     * @param to              The number of the last page of the range (inclusive).
+     * @param stride          The distance between two selected pages.
+     * @param isRelativeToEnd True, if the page numbers are counted from the last page (where the
+     *                        last page has the number 1).
+     */
+    protected Range(int from, int to, int stride, boolean isRelativeToEnd) {
+      this.from = from;
+      this.to = to;
+      this.stride = stride;
+      this.isRelativeToEnd = isRelativeToEnd;
+    }
+
+    /**
+     * Selects the pages of this range in a document with the given number of pages.
+     *
+     * @param numPages The number of pages of the document.
+     * @param selected The set to which the numbers of the selected pages should be added.
+     */
+    protected void select(int numPages, BitSet selected) {
+      long first = this.isRelativeToEnd ? (long) numPages - this.from + 1 : this.from;
+      long last = this.isRelativeToEnd ? (long) numPages - this.to + 1 : this.to;
+      first = Math.max(first, 1);
+      last = Math.min(last, numPages);
+      for (long pageNum = first; pageNum <= last; pageNum += this.stride) {
+        selected.set((int) pageNum);
+      }
+    }
+
+    @Override
+    public String toString() {
+      String str;
+      if (this.isRelativeToEnd) {
+        str = "last:" + this.from;
+      } else if (this.to == Integer.MAX_VALUE) {
+        str = this.from == 1 ? "*" : this.from + "-";
+      } else {
+        str = this.from == this.to ? String.valueOf(this.from) : this.from + "-" + this.to;
+      }
+      return this.stride > 1 ? str + "/" + this.stride : str;
+    }
+  }
+}
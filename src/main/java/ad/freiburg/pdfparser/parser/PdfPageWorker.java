@@ -0,0 +1,182 @@
+package ad.freiburg.pdfparser.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import ad.freiburg.pdfparser.model.PdfDocument;
+import ad.freiburg.pdfparser.model.PdfPage;
+import ad.freiburg.pdfparser.utils.PdfResourceRegistry;
+
+/**
+ * A worker context that processes single pages of a PDF document on behalf of a {@link PdfParser}
+ * running in page-parallel mode. Each worker owns its own parser state (graphics stack, text
+ * matrices, line path, operator processors) and its own instance of the PDF document, since PdfBox
+ * documents must not be accessed by multiple threads at the same time. A worker processes only one
+ * page at a time.
+ *
+ * @author Claudius Korzen
+ */
+public class PdfPageWorker implements Closeable {
+  /**
+   * The parser used by this worker to process the pages.
+   */
+  protected PdfParser parser;
+
+  /**
+   * The path to the PDF file to process.
+   */
+  protected Path pdfPath;
+
+  /**
+   * The instance of the PDF document owned by this worker (loaded on first use).
+   */
+  protected PDDocument document;
+
+  /**
+   * A flag indicating whether the document was loaded by this worker (and needs to be closed by
+   * this worker).
+   */
+  protected boolean isDocumentOwner;
+
+  // ==============================================================================================
+
+  /**
+   * Creates a new worker that loads its own instance of the given PDF file on first use.
+   *
+   * @param parser  The parser to use to process the pages.
+   * @param pdfPath The path to the PDF file to process.
+   */
+  public PdfPageWorker(PdfParser parser, Path pdfPath) {
+    this(parser, pdfPath, null);
+  }
+
+  /**
+   * Creates a new worker that uses the given, already loaded instance of the PDF file. The document
+   * will not be closed by this worker.
+   *
+   * @param parser   The parser to use to process the pages.
+   * @param pdfPath  The path to the PDF file to process.
+   * @param document The already loaded PDF document.
+   */
+  public PdfPageWorker(PdfParser parser, Path pdfPath, PDDocument document) {
+    this.parser = parser;
+    this.pdfPath = pdfPath;
+    this.document = document;
+    this.isDocumentOwner = false;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Processes the page with the given number.
+   *
+   * @param pageNum The number of the page to process (1-based).
+   *
+   * @return The processed page, together with the registry of the resources used by the page.
+   *
+   * @throws IOException If something went wrong while loading the document or parsing the page.
+   */
+  public ProcessedPage processPage(int pageNum) throws IOException {
+    // Each page is processed with its own document object, so that the worker doesn't keep any
+    // reference to the pages it processed earlier.
+    PdfDocument pdf = new PdfDocument(this.pdfPath);
+
+    // Each page is processed with its own resource registry, so that the resources can be
+    // registered in the registry of the parent parser in page order afterwards.
+    PdfResourceRegistry registry = new PdfResourceRegistry();
+    this.parser.setResourceRegistry(registry);
+
+    try {
+      PdfPage page = this.parser.extractPage(pdf, getDocument().getPage(pageNum - 1), pageNum);
+      return new ProcessedPage(page, registry);
+    } finally {
+      registry.getFontManager().clearCache();
+    }
+  }
+
+  /**
+   * Returns the instance of the PDF document owned by this worker, loading it if needed.
+   *
+   * @return The instance of the PDF document.
+   *
+   * @throws IOException If something went wrong while loading the document.
+   */
+  protected PDDocument getDocument() throws IOException {
+    if (this.document == null) {
+      this.document = this.parser.loadDocument(this.pdfPath);
+      this.isDocumentOwner = true;
+    }
+    return this.document;
+  }
+
+  /**
+   * Returns the parser used by this worker.
+   *
+   * @return The parser used by this worker.
+   */
+  public PdfParser getParser() {
+    return this.parser;
+  }
+
+  // ==============================================================================================
+
+  @Override
+  public void close() throws IOException {
+    if (this.document != null && this.isDocumentOwner) {
+      this.document.close();
+    }
+    this.document = null;
+    // Release the references to the fonts of the (closed) document.
+    this.parser.getGlyphBoundingBoxCache().clear();
+    this.parser.getImageColorCache().clear();
+    this.parser.getFormCache().clear();
+    this.parser.getType3GlyphCache().clear();
+  }
+
+  // ==============================================================================================
+
+  /**
+   * A page processed by a worker, together with the registry of the resources used by the page.
+   */
+  public static class ProcessedPage {
+    /**
+     * The processed page.
+     */
+    protected PdfPage page;
+
+    /**
+     * The registry of the resources used by the page.
+     */
+    protected PdfResourceRegistry resourceRegistry;
+
+    /**
+     * Creates a new processed page.
+     *
+     * @param page             The processed page.
+     * @param resourceRegistry The registry of the resources used by the page.
+     */
+    public ProcessedPage(PdfPage page, PdfResourceRegistry resourceRegistry) {
+      this.page = page;
+      this.resourceRegistry = resourceRegistry;
+    }
+
+    /**
+     * Returns the processed page.
+     *
+     * @return The processed page.
+     */
+    public PdfPage getPage() {
+      return this.page;
+    }
+
+    /**
+     * Returns the registry of the resources used by the page.
+     *
+     * @return The registry of the resources used by the page.
+     */
+    public PdfResourceRegistry getResourceRegistry() {
+      return this.resourceRegistry;
+    }
+  }
+}
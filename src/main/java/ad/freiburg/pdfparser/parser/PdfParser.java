@@ -4,19 +4,32 @@ import java.awt.geom.GeneralPath;
 import java.awt.geom.Point2D;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.pdfbox.contentstream.PDContentStream;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdfparser.PDFStreamParser;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
@@ -27,9 +40,16 @@ import org.apache.pdfbox.pdmodel.graphics.state.PDGraphicsState;
 import org.apache.pdfbox.util.Matrix;
 import ad.freiburg.pdfparser.exception.PdfParserException;
 import ad.freiburg.pdfparser.model.PdfCharacter;
+import ad.freiburg.pdfparser.model.PdfColor;
+import ad.freiburg.pdfparser.model.PdfColumnarCharacterList;
 import ad.freiburg.pdfparser.model.PdfDocument;
+import ad.freiburg.pdfparser.model.PdfElement;
+import ad.freiburg.pdfparser.model.PdfElementType;
 import ad.freiburg.pdfparser.model.PdfFigure;
+import ad.freiburg.pdfparser.model.PdfFont;
+import ad.freiburg.pdfparser.model.PdfFontFace;
 import ad.freiburg.pdfparser.model.PdfPage;
+import ad.freiburg.pdfparser.model.PdfPosition;
 import ad.freiburg.pdfparser.model.PdfShape;
 import ad.freiburg.pdfparser.model.Point;
 import ad.freiburg.pdfparser.model.Rectangle;
@@ -85,7 +105,12 @@ import ad.freiburg.pdfparser.parser.operators.text.SetType3GlyphWidthAndBounding
 import ad.freiburg.pdfparser.parser.operators.text.SetWordSpacing;
 import ad.freiburg.pdfparser.parser.operators.text.ShowText;
 import ad.freiburg.pdfparser.parser.operators.text.ShowTextWithIndividualGlyphPositioning;
+import ad.freiburg.pdfparser.utils.AffineUtils;
 import ad.freiburg.pdfparser.utils.MathUtils;
+import ad.freiburg.pdfparser.utils.PdfFormCache;
+import ad.freiburg.pdfparser.utils.PdfGlyphBoundingBoxCache;
+import ad.freiburg.pdfparser.utils.PdfResourceRegistry;
+import ad.freiburg.pdfparser.utils.ShapeUtils;
 
 /**
  * A parser based on PdfBox that parses the content streams of a PDF document and interprets the
@@ -99,11 +124,39 @@ public class PdfParser {
    */
   protected static final Logger LOG = LogManager.getLogger(PdfParser.class);
 
+  /**
+   * The page number to use for regions of interest that apply to all pages, see
+   * {@link #addRegionOfInterest(int, Rectangle)}.
+   */
+  public static final int ALL_PAGES = 0;
+
+  /**
+   * The maximum extent of a glyph around its origin, in multiples of the font size, assumed on
+   * culling glyphs outside the regions of interest before computing their bounding boxes (see
+   * {@link #isGlyphInRegionOfInterest(Matrix)}). Chosen generously, since the bounding boxes of
+   * some fonts exceed the em square considerably.
+   */
+  protected static final float MAX_GLYPH_EXTENT = 4;
+
+  /**
+   * The maximum number of pages per page worker that are submitted for parallel processing but not
+   * yet dispatched, see {@link #processPagesInParallel(PdfDocument, PDDocument, int[])}. Bounds the
+   * number of processed pages kept in memory while waiting for a slow preceding page.
+   */
+  protected static final int MAX_NUM_PENDING_PAGES_PER_WORKER = 2;
+
   /**
    * The map of operator processors.
    */
   protected Map<String, OperatorProcessor> operatorProcessors;
 
+  /**
+   * The dispatch table of the operator processors, per operator instance. PdfBox caches the
+   * instances of all operators (except of inline image operators), so that the processor of an
+   * operator can be looked up by identity.
+   */
+  protected Map<Operator, OperatorProcessor> operatorDispatchTable;
+
   /**
    * The current page in the PDF file.
    */
@@ -115,9 +168,9 @@ public class PdfParser {
   protected PDResources resources;
 
   /**
-   * The graphics stack of the current page.
+   * The graphics stack of the current page (with copy-on-write semantics).
    */
-  protected Stack<PDGraphicsState> graphicsStack;
+  protected PdfGraphicsStack graphicsStack;
 
   /**
    * The current geometric path constructed from straight lines, quadratic and cubic (Bézier)
@@ -155,11 +208,23 @@ public class PdfParser {
    */
   protected Matrix textLineMatrix;
 
+  /**
+   * A buffer for the intermediate results on computing text rendering matrices, given by an array
+   * [a b c d e f] (reused for each glyph to avoid the allocation of matrix objects).
+   */
+  protected float[] textRenderingBuffer = new float[6];
+
   /**
    * The current type3 glyph bounding box.
    */
   protected Rectangle currentType3GlyphBoundingBox;
 
+  /**
+   * The current type3 glyph bounding box in glyph space, given by the operands [llx, lly, urx, ury]
+   * of the d1 operator.
+   */
+  protected float[] currentType3GlyphSpaceBoundingBox;
+
   /**
    * Flag to indicate, whether the current stream is a type3 stream.
    */
@@ -185,16 +250,154 @@ public class PdfParser {
    */
   protected int numShapes;
 
+  /**
+   * The number of painted elements, including the elements that are not extracted because of their
+   * type or because they lie outside the regions of interest.
+   */
+  protected int numPaintedElements;
+
+  /**
+   * The extraction rank to assign to the next extracted character.
+   */
+  protected int extractionRank;
+
   /**
    * The precision to use on rounding floating numbers
    */
   protected int floatingPointPrecision;
 
+  /**
+   * A flag indicating whether the images should be decoded to check if they consist of a single
+   * color (in which case they are considered as shapes). If set to false, all images are
+   * considered as figures.
+   */
+  protected boolean decodeImages = true;
+
+  /**
+   * A flag indicating whether the elements of form XObjects drawn multiple times should be replayed
+   * from the form cache instead of parsing the content stream of the form again.
+   */
+  protected boolean replayForms = false;
+
+  /**
+   * A flag indicating whether the characters of the pages should be stored in a
+   * {@link PdfColumnarCharacterList} instead of as a list of {@link PdfCharacter} objects.
+   */
+  protected boolean columnarCharacterStorage = false;
+
+  /**
+   * A flag indicating whether a spatial index of the elements should be built for each page.
+   */
+  protected boolean buildSpatialIndexes = false;
+
+  /**
+   * A flag indicating whether the shapes should be coalesced: the segments of each subpath of a
+   * painted path into a single shape, and the touching collinear rulings of the same color of a
+   * page into a single shape.
+   */
+  protected boolean coalesceShapes = false;
+
+  /**
+   * The regions of interest, per page number (with the regions that apply to all pages stored for
+   * {@link #ALL_PAGES}). If there are regions for a page, only the elements overlapping any of the
+   * regions are extracted from the page.
+   */
+  protected Map<Integer, List<Rectangle>> regionsOfInterest = new HashMap<>();
+
+  /**
+   * The regions of interest of the current page (null if all elements of the page are extracted).
+   */
+  protected List<Rectangle> pageRegionsOfInterest;
+
+  /**
+   * The types of the elements to extract. The parser skips the computations needed only for
+   * elements of other types (for example, the bounding boxes of glyphs if no characters are
+   * extracted).
+   */
+  protected Set<PdfElementType> elementTypes = EnumSet.allOf(PdfElementType.class);
+
+  /**
+   * The selection of the pages to parse (null to parse all pages).
+   */
+  protected PdfPageSelection pageSelection;
+
+  /**
+   * The setting that controls how much main memory and temporary file storage PdfBox may use for
+   * the scratch buffers of a loaded document (null to use the default setting of PdfBox, which
+   * keeps all buffers in main memory, without any limit).
+   */
+  protected MemoryUsageSetting memoryUsageSetting;
+
+  /**
+   * The number of pages to process concurrently. If set to a value <= 1, the pages are processed
+   * sequentially, one after another.
+   */
+  protected int numPageWorkers = 1;
+
+  /**
+   * The executor to use on processing the pages in parallel. If set to null, a fixed thread pool
+   * with one thread per page worker is created on each call to parse() and shut down afterwards.
+   */
+  protected ExecutorService pageExecutor;
+
+  /**
+   * The listener to which the pages are passed as soon as they were parsed completely. If set to
+   * null, the pages are kept in the PDF document.
+   */
+  protected PdfPageListener pageListener;
+
+  /**
+   * The registry of the resources (fonts, font faces and colors) to share between all parsed
+   * documents. If set to null, a new registry is created for each parsed document.
+   */
+  protected PdfResourceRegistry sharedResourceRegistry;
+
+  /**
+   * The registry of the resources of the document currently parsed.
+   */
+  protected PdfResourceRegistry resourceRegistry;
+
+  /**
+   * The cache of the bounding boxes of the glyphs of the document currently parsed.
+   */
+  protected PdfGlyphBoundingBoxCache glyphBoundingBoxCache;
+
+  /**
+   * The colors of the image XObjects of the document currently parsed, per underlying COS object
+   * of the image (see {@link #getImageColorCache()}).
+   */
+  protected Map<COSBase, int[]> imageColorCache;
+
+  /**
+   * The cache of the elements extracted from the form XObjects of the document currently parsed.
+   */
+  protected PdfFormCache formCache;
+
+  /**
+   * The cache of the elements extracted from the glyph descriptions of the Type3 fonts of the
+   * document currently parsed.
+   */
+  protected PdfFormCache type3GlyphCache;
+
+  /**
+   * The element lists of the forms and Type3 glyphs currently recorded (the innermost one on top).
+   */
+  protected Deque<List<PdfElement>> recordings;
+
+  /**
+   * The list to which the painted elements are added (instead of extracting them) while a Type3
+   * glyph description is processed in glyph space, or null if no glyph description is processed in
+   * glyph space (see {@link #processType3StreamInGlyphSpace(PdfDocument, PdfPage,
+   * PDType3CharProc)}).
+   */
+  protected List<PdfElement> glyphSpaceElements;
+
   /**
    * Creates a new stream engine.
    */
   public PdfParser() {
     this.operatorProcessors = new HashMap<>();
+    this.operatorDispatchTable = new IdentityHashMap<>();
 
     // Register the text operator processors.
     registerOperatorProcessor(new BeginText()); // BT
@@ -253,18 +456,41 @@ public class PdfParser {
     registerOperatorProcessor(new SetStrokingDeviceGrayColor()); // G
     registerOperatorProcessor(new SetStrokingDeviceRGBColor()); // RG
 
-    this.graphicsStack = new Stack<PDGraphicsState>();
+    // Bind the delegating operator processors to the processors they delegate to.
+    for (OperatorProcessor processor : this.operatorProcessors.values()) {
+      processor.bindOperatorProcessors();
+    }
+
+    this.graphicsStack = new PdfGraphicsStack();
     this.linePath = new GeneralPath();
     this.floatingPointPrecision = -1;
+    this.resourceRegistry = new PdfResourceRegistry();
+    this.glyphBoundingBoxCache = new PdfGlyphBoundingBoxCache();
+    this.imageColorCache = new IdentityHashMap<>();
+    this.formCache = new PdfFormCache();
+    this.type3GlyphCache = new PdfFormCache();
+    this.recordings = new ArrayDeque<>();
   }
 
   /**
-   * Registers the given operator processor.
+   * Registers the given operator processor and binds it to this parser.
    * 
    * @param processor The processor to register.
    */
   protected void registerOperatorProcessor(OperatorProcessor processor) {
+    processor.setPdfParser(this);
     this.operatorProcessors.put(processor.getName(), processor);
+    this.operatorDispatchTable.put(Operator.getOperator(processor.getName()), processor);
+  }
+
+  /**
+   * Returns the processor registered for the operator with the given name.
+   * 
+   * @param name The name of the operator.
+   * @return The processor, or null if there is no processor for the given operator.
+   */
+  public OperatorProcessor getOperatorProcessor(String name) {
+    return this.operatorProcessors.get(name);
   }
 
   // ==============================================================================================
@@ -316,28 +542,316 @@ public class PdfParser {
 
     PdfDocument pdf = new PdfDocument(pdfPath);
 
-    try (PDDocument doc = PDDocument.load(pdfPath.toFile())) {
+    // Number the characters of each document from 0 (as on parsing the pages in parallel, see
+    // processPagesInParallel()), also if this parser was used to parse other documents before.
+    this.extractionRank = 0;
+
+    // Use a registry scoped to this document, unless a registry is shared between documents.
+    this.resourceRegistry = this.sharedResourceRegistry;
+    if (this.resourceRegistry == null) {
+      this.resourceRegistry = new PdfResourceRegistry();
+    }
+
+    boolean isCompleted = false;
+    try (PDDocument doc = loadDocument(pdfPath)) {
       int numProcessors = this.operatorProcessors.size();
       LOG.debug("# registered PDF operator processors: " + numProcessors);
 
       handlePdfFileStart(pdf);
-      for (int i = 0; i < doc.getPages().getCount(); i++) {
-        processPage(pdf, doc.getPages().get(i), i + 1);
+      if (this.pageListener != null) {
+        this.pageListener.handlePdfFileStart(pdf);
+      }
+      // Process only the selected pages (the content streams of all other pages are not read).
+      int[] pageNums = getSelectedPageNumbers(doc.getNumberOfPages());
+      if (this.numPageWorkers > 1 && pageNums.length > 1) {
+        processPagesInParallel(pdf, doc, pageNums);
+      } else {
+        for (int pageNum : pageNums) {
+          processPage(pdf, doc.getPage(pageNum - 1), pageNum);
+        }
       }
       handlePdfFileEnd(pdf);
+      if (this.pageListener != null) {
+        this.pageListener.handlePdfFileEnd(pdf);
+      }
+      isCompleted = true;
 
       LOG.debug("Parsing the streams of the PDF file done.");
       LOG.debug("# extracted pages: " + this.numPages);
       LOG.debug("# extracted characters: " + this.numCharacters);
       LOG.debug("# extracted figures: " + this.numFigures);
       LOG.debug("# extracted shapes: " + this.numShapes);
+      LOG.debug("# glyph bounding box cache hits: " + this.glyphBoundingBoxCache.getNumHits());
+      LOG.debug("# glyph bounding box cache misses: " + this.glyphBoundingBoxCache.getNumMisses());
+      LOG.debug("# form cache hits: " + this.formCache.getNumHits());
+      LOG.debug("# form cache misses: " + this.formCache.getNumMisses());
+      LOG.debug("# Type3 glyph cache hits: " + this.type3GlyphCache.getNumHits());
+      LOG.debug("# Type3 glyph cache misses: " + this.type3GlyphCache.getNumMisses());
     } catch (IOException e) {
       throw new PdfParserException("An error occurred on processing the PDF file.", e);
+    } finally {
+      // Let the listener release its resources if the parsing failed.
+      if (!isCompleted && this.pageListener != null) {
+        this.pageListener.handlePdfFileAbort(pdf);
+      }
+      // Release the references to the fonts of the (closed) document.
+      this.resourceRegistry.getFontManager().clearCache();
+      this.glyphBoundingBoxCache.clear();
+      this.imageColorCache.clear();
+      this.formCache.clear();
+      this.type3GlyphCache.clear();
     }
 
     return pdf;
   }
 
+  /**
+   * Parses the given PDF file and passes each page to the given listener as soon as the page was
+   * parsed completely. Each page is released from the returned document right after it was handled
+   * by the listener, so the memory needed for parsing is bounded by the size of a single page.
+   * 
+   * @param pdfPath  The path to the PDF file to parse.
+   * @param listener The listener to which the parsed pages should be passed.
+   * 
+   * @return An object of type {@link PdfDocument}, without any pages.
+   * 
+   * @throws PdfParserException If an error occurred on parsing the PDF file.
+   */
+  public PdfDocument parse(Path pdfPath, PdfPageListener listener) throws PdfParserException {
+    PdfPageListener previousListener = this.pageListener;
+    this.pageListener = listener;
+    try {
+      return parse(pdfPath);
+    } finally {
+      this.pageListener = previousListener;
+    }
+  }
+
+  /**
+   * Returns the numbers of the pages to parse in a document with the given number of pages.
+   * 
+   * @param numPages The number of pages of the document.
+   * 
+   * @return The (1-based) numbers of the pages to parse, in ascending order.
+   */
+  protected int[] getSelectedPageNumbers(int numPages) {
+    if (this.pageSelection == null) {
+      int[] pageNums = new int[numPages];
+      for (int i = 0; i < numPages; i++) {
+        pageNums[i] = i + 1;
+      }
+      return pageNums;
+    }
+    return this.pageSelection.getPageNumbers(numPages);
+  }
+
+  /**
+   * Loads the given PDF file.
+   * 
+   * @param pdfPath The path to the PDF file to load.
+   * 
+   * @return The loaded PDF document.
+   * 
+   * @throws IOException If an error occurred on loading the PDF file.
+   */
+  protected PDDocument loadDocument(Path pdfPath) throws IOException {
+    if (this.memoryUsageSetting != null) {
+      return PDDocument.load(pdfPath.toFile(), this.memoryUsageSetting);
+    }
+    return PDDocument.load(pdfPath.toFile());
+  }
+
+  // ==============================================================================================
+  // Methods to parse the pages in parallel.
+
+  /**
+   * Processes the pages of the given document in parallel, by distributing them to a pool of
+   * {@link PdfPageWorker}s. Each worker owns its own parser state and its own instance of the PDF
+   * document, so the content streams of different pages are interpreted independently of each
+   * other. The processed pages are reassembled in page order on the calling thread: for each page,
+   * handlePdfPageStart() and handlePdfPageEnd() are called on this parser in page order (after the
+   * elements of the page were extracted), and only there (not on the parsers of the workers, see
+   * {@link #extractPage(PdfDocument, PDPage, int)}). The element callbacks (handlePdfCharacter(),
+   * ...) are called on the parsers of the workers, see {@link #createPageWorkerParser()}. Each page
+   * is processed with its own resource registry; on reassembly, the resources of the page are
+   * replaced by the resources of the registry of this parser, see {@link #adoptResources(PdfPage,
+   * PdfResourceRegistry)}.
+   * 
+   * @param pdf      The PDF document to fill.
+   * @param doc      The loaded PDF document.
+   * @param pageNums The (1-based) numbers of the pages to process, in ascending order.
+   * 
+   * @throws IOException If something went wrong while parsing a page.
+   */
+  protected void processPagesInParallel(PdfDocument pdf, PDDocument doc, int[] pageNums)
+          throws IOException {
+    int numPages = pageNums.length;
+    int numWorkers = Math.min(this.numPageWorkers, numPages);
+    Path pdfPath = pdf.getPath();
+
+    // Create the worker contexts. The first worker reuses the already loaded document, all other
+    // workers load their own instance of the document on first use.
+    BlockingQueue<PdfPageWorker> workers = new ArrayBlockingQueue<>(numWorkers);
+    workers.add(new PdfPageWorker(createPageWorkerParser(), pdfPath, doc));
+    for (int i = 1; i < numWorkers; i++) {
+      workers.add(new PdfPageWorker(createPageWorkerParser(), pdfPath));
+    }
+    List<PdfPageWorker> allWorkers = new ArrayList<>(workers);
+
+    ExecutorService executor = this.pageExecutor;
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(numWorkers);
+    }
+
+    // The futures of the pages submitted but not yet dispatched, in page order. Each future is
+    // removed on reassembling its page, so that a dispatched page doesn't stay in memory.
+    int maxNumPendingPages = MAX_NUM_PENDING_PAGES_PER_WORKER * numWorkers;
+    Deque<Future<PdfPageWorker.ProcessedPage>> futures = new ArrayDeque<>(maxNumPendingPages);
+    try {
+      int numSubmittedPages = 0;
+      int extractionRank = 0;
+      while (numSubmittedPages < numPages || !futures.isEmpty()) {
+        // Submit one task per page, while the number of pending pages is below the maximum.
+        while (numSubmittedPages < numPages && futures.size() < maxNumPendingPages) {
+          int pageNum = pageNums[numSubmittedPages++];
+          futures.add(executor.submit(() -> {
+            PdfPageWorker worker = workers.take();
+            try {
+              return worker.processPage(pageNum);
+            } finally {
+              workers.add(worker);
+            }
+          }));
+        }
+
+        // Reassemble the pages in page order.
+        PdfPageWorker.ProcessedPage processedPage = awaitPage(futures.removeFirst());
+        PdfPage page = processedPage.getPage();
+
+        // Replace the resources of the page by the resources of this parser, such that the ids of
+        // the resources are the same as on parsing the pages sequentially.
+        adoptResources(page, processedPage.getResourceRegistry());
+
+        // Renumber the extraction ranks of the characters, such that the ranks are the same as on
+        // parsing the pages sequentially.
+        for (PdfCharacter character : page.getCharacters()) {
+          character.setExtractionRank(extractionRank++);
+        }
+
+        handlePdfPageStart(pdf, page);
+        this.numCharacters += page.getCharacters().size();
+        this.numFigures += page.getFigures().size();
+        this.numShapes += page.getShapes().size();
+        handlePdfPageEnd(pdf, page);
+        dispatchPage(pdf, page);
+      }
+    } finally {
+      for (Future<PdfPageWorker.ProcessedPage> future : futures) {
+        future.cancel(true);
+      }
+      if (executor != this.pageExecutor) {
+        executor.shutdownNow();
+      }
+      for (PdfPageWorker worker : allWorkers) {
+        try {
+          worker.close();
+        } catch (IOException e) {
+          LOG.warn("Couldn't close the document of a page worker.", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits for the given page task to complete and returns the processed page.
+   * 
+   * @param future The future of the page task.
+   * 
+   * @return The processed page.
+   * 
+   * @throws IOException If the task failed or the waiting thread was interrupted.
+   */
+  protected PdfPageWorker.ProcessedPage awaitPage(Future<PdfPageWorker.ProcessedPage> future)
+          throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for a page to be processed.", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException("An error occurred on processing a page.", cause);
+    }
+  }
+
+  /**
+   * Replaces the fonts, font faces and colors of the given page, which were registered in the given
+   * registry of a page worker, by the corresponding resources of the registry of this parser. The
+   * resources are adopted in the order of their registration in the page registry, which is the
+   * order of their first occurrence in the page, so that they get the same ids as on parsing the
+   * pages sequentially.
+   * 
+   * @param page         The page to process.
+   * @param pageRegistry The registry in which the resources of the page were registered.
+   */
+  protected void adoptResources(PdfPage page, PdfResourceRegistry pageRegistry) {
+    Map<PdfFont, PdfFont> fonts = new IdentityHashMap<>();
+    for (PdfFont font : pageRegistry.getFontManager().getPdfFonts()) {
+      fonts.put(font, this.resourceRegistry.getFontManager().getOrCreatePdfFont(font));
+    }
+    Map<PdfColor, PdfColor> colors = new IdentityHashMap<>();
+    for (PdfColor color : pageRegistry.getColorManager().getPdfColors()) {
+      colors.put(color, this.resourceRegistry.getOrCreatePdfColor(color.getRGB()));
+    }
+
+    Map<PdfFontFace, PdfFontFace> fontFaces = new IdentityHashMap<>();
+    for (PdfCharacter character : page.getCharacters()) {
+      PdfFontFace fontFace = character.getFontFace();
+      if (fontFace != null) {
+        character.setFontFace(fontFaces.computeIfAbsent(fontFace, f -> this.resourceRegistry
+                .getOrCreatePdfFontFace(fonts.getOrDefault(f.getFont(), f.getFont()),
+                        f.getFontSize())));
+      }
+      PdfColor color = character.getColor();
+      if (color != null) {
+        character.setColor(colors.getOrDefault(color, color));
+      }
+    }
+    for (PdfShape shape : page.getShapes()) {
+      PdfColor color = shape.getColor();
+      if (color != null) {
+        shape.setColor(colors.getOrDefault(color, color));
+      }
+    }
+  }
+
+  /**
+   * Creates the parser to be used by a single page worker in page-parallel mode. Subclasses that
+   * override the element callbacks should override this method as well, such that the workers
+   * create instances of the subclass.
+   * 
+   * @return The parser to be used by a page worker.
+   */
+  protected PdfParser createPageWorkerParser() {
+    PdfParser parser = new PdfParser();
+    parser.setFloatingPointPrecision(this.floatingPointPrecision);
+    parser.setDecodeImages(this.decodeImages);
+    parser.setReplayForms(this.replayForms);
+    parser.setColumnarCharacterStorage(this.columnarCharacterStorage);
+    parser.setCoalesceShapes(this.coalesceShapes);
+    parser.setRegionsOfInterest(this.regionsOfInterest);
+    parser.setElementTypes(this.elementTypes);
+    parser.setMemoryUsageSetting(this.memoryUsageSetting);
+    parser.setGlyphBoundingBoxCacheSize(this.glyphBoundingBoxCache.getMaxNumEntries());
+    return parser;
+  }
+
   // ==============================================================================================
 
   /**
@@ -346,9 +860,45 @@ public class PdfParser {
    * @param pdf     The PDF document to which the given page belongs to.
    * @param page    The page to process
    * @param pageNum The number of the page in the PDF document.
+   * @return The processed page.
+   * @throws IOException If something went wrong while parsing the page.
+   */
+  protected PdfPage processPage(PdfDocument pdf, PDPage page, int pageNum) throws IOException {
+    PdfPage pdfPage = preparePage(page, pageNum);
+    handlePdfPageStart(pdf, pdfPage);
+    processStream(pdf, pdfPage, page);
+    handlePdfPageEnd(pdf, pdfPage);
+    dispatchPage(pdf, pdfPage);
+
+    return pdfPage;
+  }
+
+  /**
+   * Extracts the elements of the given page, without calling handlePdfPageStart() and
+   * handlePdfPageEnd() and without passing the page to the page listener. Used by the page workers
+   * in page-parallel mode, where the page callbacks are called by the parent parser on reassembly
+   * of the pages, so that they are called exactly once per page.
+   * 
+   * @param pdf     The PDF document to which the given page belongs to.
+   * @param page    The page to process
+   * @param pageNum The number of the page in the PDF document.
+   * @return The processed page.
    * @throws IOException If something went wrong while parsing the page.
    */
-  protected void processPage(PdfDocument pdf, PDPage page, int pageNum) throws IOException {
+  protected PdfPage extractPage(PdfDocument pdf, PDPage page, int pageNum) throws IOException {
+    PdfPage pdfPage = preparePage(page, pageNum);
+    processStream(pdf, pdfPage, page);
+    return pdfPage;
+  }
+
+  /**
+   * Resets the state of this parser for processing the given page and creates the page to fill.
+   * 
+   * @param page    The page to process
+   * @param pageNum The number of the page in the PDF document.
+   * @return The created page, without any elements.
+   */
+  protected PdfPage preparePage(PDPage page, int pageNum) {
     this.page = page;
     this.graphicsStack.clear();
     this.graphicsStack.push(new PDGraphicsState(page.getCropBox()));
@@ -361,9 +911,14 @@ public class PdfParser {
     this.linePathLastMoveToPosition = null;
     this.clippingWindingRule = -1;
     this.currentType3GlyphBoundingBox = null;
+    this.currentType3GlyphSpaceBoundingBox = null;
     this.isType3Stream = false;
+    this.pageRegionsOfInterest = getRegionsOfInterest(pageNum);
 
     PdfPage pdfPage = new PdfPage(pageNum);
+    if (this.columnarCharacterStorage) {
+      pdfPage.setCharacters(new PdfColumnarCharacterList(pdfPage));
+    }
     PDRectangle rect = page.getMediaBox();
     if (rect == null) {
       rect = page.getCropBox();
@@ -375,10 +930,22 @@ public class PdfParser {
       pdfPage.setHeight(MathUtils.round(rect.getHeight(), this.floatingPointPrecision));
       pdfPage.setWidth(MathUtils.round(rect.getWidth(), this.floatingPointPrecision));
     }
+    return pdfPage;
+  }
 
-    handlePdfPageStart(pdf, pdfPage);
-    processStream(pdf, pdfPage, page);
-    handlePdfPageEnd(pdf, pdfPage);
+  /**
+   * Passes the given page, which was parsed completely, to the page listener (if there is any) and
+   * releases the page from the given PDF document afterwards.
+   * 
+   * @param pdf  The PDF document to which the given page belongs to.
+   * @param page The parsed page.
+   * @throws IOException If the listener failed to handle the page.
+   */
+  protected void dispatchPage(PdfDocument pdf, PdfPage page) throws IOException {
+    if (this.pageListener != null) {
+      this.pageListener.handlePdfPage(pdf, page);
+      pdf.removePage(page);
+    }
   }
 
   /**
@@ -393,11 +960,11 @@ public class PdfParser {
           throws IOException {
     if (stream != null) {
       PDResources parent = pushResources(stream);
-      Stack<PDGraphicsState> savedStack = saveGraphicsStack();
+      PdfGraphicsStack savedStack = saveGraphicsStack();
       Matrix parentMatrix = this.initialMatrix;
 
       // Transform the CTM using the stream's matrix.
-      getCurrentTransformationMatrix().concatenate(stream.getMatrix());
+      getMutableGraphicsState().getCurrentTransformationMatrix().concatenate(stream.getMatrix());
 
       // The stream's initial matrix includes the parent CTM, e.g. this
       // allows a scaled form.
@@ -423,14 +990,53 @@ public class PdfParser {
    */
   public void processType3Stream(PdfDocument pdf, PdfPage page, PDType3CharProc proc, Matrix trm)
           throws IOException {
-    PDResources parent = pushResources(proc);
-    Stack<PDGraphicsState> savedStack = saveGraphicsStack();
+    // Transform the TRM using the stream's matrix (this is the FontMatrix)
+    Matrix ctm = trm.clone();
+    ctm.concatenate(proc.getMatrix());
 
-    // Replace the CTM with the TRM
-    setCurrentTransformationMatrix(trm);
+    processType3StreamWithCtm(pdf, page, proc, ctm);
+  }
+
+  /**
+   * Processes a type 3 character stream in glyph space (that is, with the identity matrix as CTM).
+   * The painted elements are not extracted, but returned in the order of their painting, with
+   * their positions given in glyph space. The elements of unrequested types are not included.
+   * Must not be called if there are regions of interest, since the positions can't be checked
+   * against the regions in glyph space.
+   * 
+   * @param pdf  The PDF document to which the stream belongs to.
+   * @param page The PDF page to which the stream belongs to.
+   * @param proc Type 3 character procedure
+   * @return The elements painted by the stream, in glyph space.
+   * @throws IOException if processing the type stream fails.
+   */
+  public List<PdfElement> processType3StreamInGlyphSpace(PdfDocument pdf, PdfPage page,
+          PDType3CharProc proc) throws IOException {
+    List<PdfElement> parentElements = this.glyphSpaceElements;
+    List<PdfElement> elements = new ArrayList<>();
+    this.glyphSpaceElements = elements;
+    try {
+      processType3StreamWithCtm(pdf, page, proc, new Matrix());
+    } finally {
+      this.glyphSpaceElements = parentElements;
+    }
+    return elements;
+  }
 
-    // Transform the CTM using the stream's matrix (this is the FontMatrix)
-    getCurrentTransformationMatrix().concatenate(proc.getMatrix());
+  /**
+   * Processes a type 3 character stream with the given CTM.
+   * 
+   * @param pdf  The PDF document to which the stream belongs to.
+   * @param page The PDF page to which the stream belongs to.
+   * @param proc Type 3 character procedure
+   * @param ctm  The CTM to process the stream with.
+   * @throws IOException if processing the type stream fails.
+   */
+  protected void processType3StreamWithCtm(PdfDocument pdf, PdfPage page, PDType3CharProc proc,
+          Matrix ctm) throws IOException {
+    PDResources parent = pushResources(proc);
+    PdfGraphicsStack savedStack = saveGraphicsStack();
+    setCurrentTransformationMatrix(ctm);
 
     // Save text matrices (Type 3 stream may contain BT/ET, see PDFBOX-2137)
     Matrix oldTextMatrix = getTextMatrix();
@@ -438,16 +1044,27 @@ public class PdfParser {
     Matrix oldTextLineMatrix = getTextLineMatrix();
     setTextLineMatrix(new Matrix());
 
-    setIsType3Stream(true);
-    processStreamOperators(pdf, page, proc);
-    setIsType3Stream(false);
+    // Reset the bounding box, so that glyphs without a d1 operator don't get the bounding box of
+    // the previous glyph.
+    setCurrentType3GlyphBoundingBox(null);
+    setCurrentType3GlyphSpaceBoundingBox(null);
+
+    // The CharProc is processed on its own graphics stack, which is the only place where the
+    // graphics state of the text showing operator can be modified. Restore the stack even if the
+    // CharProc is broken, so that the following glyphs are processed with the right state.
+    try {
+      setIsType3Stream(true);
+      processStreamOperators(pdf, page, proc);
+    } finally {
+      setIsType3Stream(false);
 
-    // Restore text matrices
-    setTextMatrix(oldTextMatrix);
-    setTextLineMatrix(oldTextLineMatrix);
+      // Restore text matrices
+      setTextMatrix(oldTextMatrix);
+      setTextLineMatrix(oldTextLineMatrix);
 
-    restoreGraphicsStack(savedStack);
-    popResources(parent);
+      restoreGraphicsStack(savedStack);
+      popResources(parent);
+    }
   }
 
   /**
@@ -457,23 +1074,34 @@ public class PdfParser {
    * @param page   The PDF page to which the stream belongs to.
    * @param stream The stream.
    * @throws IOException if parsing the stream fails.
+   * @throws InterruptedIOException if the current thread was interrupted (for example, because the
+   *                                parsing was cancelled after a timeout).
    */
   protected void processStreamOperators(PdfDocument pdf, PdfPage page, PDContentStream stream)
           throws IOException {
+    // The operands of the current operator. The list is reused for all operators of the stream,
+    // so the operator processors must not keep a reference to it.
     List<COSBase> arguments = new ArrayList<COSBase>();
 
+    // Read the tokens one after another (instead of parsing the whole stream upfront), such that
+    // only the operands of the current operator are kept in memory.
     PDFStreamParser parser = new PDFStreamParser(stream);
-    parser.parse();
-
-    for (Object token : parser.getTokens()) {
+    Object token = parser.parseNextToken();
+    while (token != null) {
+      // Abort if the parsing was cancelled. The interrupt flag is not cleared, so that the
+      // processing of all enclosing streams (e.g., of the page containing a form) is aborted too.
+      if (Thread.currentThread().isInterrupted()) {
+        throw new InterruptedIOException("The parsing of the content stream was interrupted.");
+      }
       if (token instanceof COSObject) {
         arguments.add(((COSObject) token).getObject());
       } else if (token instanceof Operator) {
         processOperator(pdf, page, (Operator) token, arguments);
-        arguments = new ArrayList<COSBase>();
+        arguments.clear();
       } else {
         arguments.add((COSBase) token);
       }
+      token = parser.parseNextToken();
     }
   }
 
@@ -501,24 +1129,46 @@ public class PdfParser {
    * @param args The list of arguments.
    * @throws IOException If there is an error processing the operation.
    */
-  protected void processOperator(PdfDocument pdf, PdfPage page, Operator op, List<COSBase> args)
+  public void processOperator(PdfDocument pdf, PdfPage page, Operator op, List<COSBase> args)
           throws IOException {
-    OperatorProcessor processor = this.operatorProcessors.get(op.getName());
-
-    LOG.trace("Processing PDF operator: " + op + "; args: " + args);
+    OperatorProcessor processor = this.operatorDispatchTable.get(op);
+    if (processor == null) {
+      // The operator instance isn't cached by PdfBox (e.g., BI), so look it up by name.
+      processor = this.operatorProcessors.get(op.getName());
+    }
 
     if (processor != null) {
-      try {
-        processor.setPdfParser(this);
-        processor.process(pdf, page, op, args);
-      } catch (IOException e) {
-        LOG.warn("Error on processing operator '" + op + "'. ", e);
-      }
-    } else {
+      processOperator(pdf, page, processor, op, args);
+    } else if (LOG.isTraceEnabled()) {
       LOG.trace("Unsupported operator: " + op + "; args: " + args);
     }
   }
 
+  /**
+   * This is used to handle an operator by the given processor, without looking up the processor.
+   * 
+   * @param pdf       The PDF document to which the operator belongs to.
+   * @param page      The PDF page to which the operator belongs to.
+   * @param processor The processor to use.
+   * @param op        The operation to perform.
+   * @param args      The list of arguments.
+   * @throws IOException If there is an error processing the operation.
+   */
+  public void processOperator(PdfDocument pdf, PdfPage page, OperatorProcessor processor,
+          Operator op, List<COSBase> args) throws IOException {
+    if (LOG.isTraceEnabled()) {
+      LOG.trace("Processing PDF operator: " + op + "; args: " + args);
+    }
+
+    try {
+      processor.process(pdf, page, op, args);
+    } catch (InterruptedIOException e) {
+      throw e;
+    } catch (IOException e) {
+      LOG.warn("Error on processing operator '" + op + "'. ", e);
+    }
+  }
+
   // ==============================================================================================
   // Methods related to resources.
 
@@ -610,14 +1260,14 @@ public class PdfParser {
   // Methods related to the graphics stack.
 
   /**
-   * Saves the entire graphics stack.
+   * Saves the entire graphics stack and replaces it by a new stack, which initially consists of
+   * (a shared reference to) the current graphics state.
    * 
    * @return The saved graphics stack.
    */
-  public final Stack<PDGraphicsState> saveGraphicsStack() {
-    Stack<PDGraphicsState> savedStack = this.graphicsStack;
-    this.graphicsStack = new Stack<PDGraphicsState>();
-    this.graphicsStack.add(savedStack.peek().clone());
+  public final PdfGraphicsStack saveGraphicsStack() {
+    PdfGraphicsStack savedStack = this.graphicsStack;
+    this.graphicsStack = savedStack.fork();
     return savedStack;
   }
 
@@ -626,7 +1276,7 @@ public class PdfParser {
    * 
    * @param snapshot The graphics stack to restore.
    */
-  public void restoreGraphicsStack(Stack<PDGraphicsState> snapshot) {
+  public void restoreGraphicsStack(PdfGraphicsStack snapshot) {
     this.graphicsStack = snapshot;
   }
 
@@ -640,7 +1290,9 @@ public class PdfParser {
   }
 
   /**
-   * Returns the graphics state.
+   * Returns the graphics state. The returned state may be shared with other entries of the graphics
+   * stack and must not be modified (this includes its text state and its CTM); use
+   * {@link #getMutableGraphicsState()} to modify the graphics state.
    * 
    * @return The graphics state.
    */
@@ -649,24 +1301,35 @@ public class PdfParser {
   }
 
   /**
-   * Pushes the current graphics state to the stack.
+   * Returns the graphics state for modification. If the state is shared with other entries of the
+   * graphics stack, it is cloned first.
+   * 
+   * @return The graphics state.
+   */
+  public PDGraphicsState getMutableGraphicsState() {
+    return this.graphicsStack.peekMutable();
+  }
+
+  /**
+   * Pushes the current graphics state to the stack. The state is not copied until it is modified.
    */
   public void saveGraphicsState() {
-    this.graphicsStack.push(this.graphicsStack.peek().clone());
+    this.graphicsStack.save();
   }
 
   /**
    * Pops the current graphics state from the stack.
    */
   public void restoreGraphicsState() {
-    this.graphicsStack.pop();
+    this.graphicsStack.restore();
   }
 
   // ==============================================================================================
   // Methods related to the current transformation matrix.
 
   /**
-   * Returns the current transformation matrix.
+   * Returns the current transformation matrix, which must not be modified (see
+   * {@link #getGraphicsState()}).
    * 
    * @return The current transformation matrix.
    */
@@ -680,7 +1343,7 @@ public class PdfParser {
    * @param matrix The current transformation matrix.
    */
   public void setCurrentTransformationMatrix(Matrix matrix) {
-    getGraphicsState().setCurrentTransformationMatrix(matrix);
+    getMutableGraphicsState().setCurrentTransformationMatrix(matrix);
   }
 
   /**
@@ -746,16 +1409,52 @@ public class PdfParser {
     this.textMatrix = value;
   }
 
-  // ==============================================================================================
-  // Methods related to Type 3 fonts.
-
   /**
-   * Returns true, if the current stream to parse is a type3 stream.
-   * 
-   * @return True, if the current stream to parse is a type3 stream.
+   * Computes the text rendering matrix (text space -> device space) from the given text state
+   * parameters, the current text matrix and the current transformation matrix, without allocating
+   * any new matrix objects.
+   *
+   * @param params The text state parameters in matrix form, given by an array [a b c d e f].
+   * @param trm    The matrix to write the text rendering matrix to.
    */
-  public boolean isType3Stream() {
-    return this.isType3Stream;
+  public void computeTextRenderingMatrix(float[] params, Matrix trm) {
+    AffineUtils.multiply(params, this.textMatrix, this.textRenderingBuffer);
+    AffineUtils.multiply(this.textRenderingBuffer, getCurrentTransformationMatrix(), trm);
+  }
+
+  /**
+   * Computes the text rendering matrix (text space -> device space) from the given text state
+   * parameters, the current text matrix and the current transformation matrix, without allocating
+   * any new matrix objects.
+   *
+   * @param params The text state parameters in matrix form, given by an array [a b c d e f].
+   * @param trm    The array [a b c d e f] to write the text rendering matrix to.
+   */
+  public void computeTextRenderingMatrix(float[] params, float[] trm) {
+    AffineUtils.multiply(params, this.textMatrix, this.textRenderingBuffer);
+    AffineUtils.multiply(this.textRenderingBuffer, getCurrentTransformationMatrix(), trm);
+  }
+
+  /**
+   * Translates the current text matrix in place by the given displacement (given in text space).
+   *
+   * @param tx The displacement in x direction.
+   * @param ty The displacement in y direction.
+   */
+  public void translateTextMatrix(float tx, float ty) {
+    AffineUtils.translate(this.textMatrix, tx, ty);
+  }
+
+  // ==============================================================================================
+  // Methods related to Type 3 fonts.
+
+  /**
+   * Returns true, if the current stream to parse is a type3 stream.
+   * 
+   * @return True, if the current stream to parse is a type3 stream.
+   */
+  public boolean isType3Stream() {
+    return this.isType3Stream;
   }
 
   /**
@@ -785,6 +1484,52 @@ public class PdfParser {
     return this.currentType3GlyphBoundingBox;
   }
 
+  /**
+   * Sets the current type3 glyph bounding box in glyph space.
+   * 
+   * @param boundingBox The bounding box, given by an array [llx, lly, urx, ury].
+   */
+  public void setCurrentType3GlyphSpaceBoundingBox(float[] boundingBox) {
+    this.currentType3GlyphSpaceBoundingBox = boundingBox;
+  }
+
+  /**
+   * Returns the current type3 glyph bounding box in glyph space.
+   * 
+   * @return The current type3 glyph bounding box, given by an array [llx, lly, urx, ury].
+   */
+  public float[] getCurrentType3GlyphSpaceBoundingBox() {
+    return this.currentType3GlyphSpaceBoundingBox;
+  }
+
+  /**
+   * Returns the number of elements (characters, figures and shapes) extracted so far.
+   * 
+   * @return The number of extracted elements.
+   */
+  public int getNumExtractedElements() {
+    return this.numCharacters + this.numFigures + this.numShapes;
+  }
+
+  /**
+   * Returns the number of elements painted so far, including the elements that are not extracted
+   * because of their type or because they lie outside the regions of interest. Unlike the number
+   * of extracted elements, this number tells whether a content stream paints any elements at all.
+   * 
+   * @return The number of painted elements.
+   */
+  public int getNumPaintedElements() {
+    return this.numPaintedElements;
+  }
+
+  /**
+   * Counts an element as painted. Must be called for each element that is painted but dropped
+   * before it is passed to one of the handlePdf* callbacks (which count it themselves).
+   */
+  public void countPaintedElement() {
+    this.numPaintedElements++;
+  }
+
   // ==============================================================================================
   // Methods related to the line path.
 
@@ -885,6 +1630,530 @@ public class PdfParser {
     this.floatingPointPrecision = precision;
   }
 
+  /**
+   * Returns true, if the images are decoded to check if they consist of a single color.
+   * 
+   * @return True, if the images are decoded; false otherwise.
+   */
+  public boolean getDecodeImages() {
+    return this.decodeImages;
+  }
+
+  /**
+   * Sets the flag indicating whether the images should be decoded to check if they consist of a
+   * single color (in which case they are considered as shapes). Decoding the images can be
+   * expensive for large (scanned) images; if set to false, all images are considered as figures.
+   * 
+   * @param decodeImages The flag to set.
+   */
+  public void setDecodeImages(boolean decodeImages) {
+    this.decodeImages = decodeImages;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the number of pages to process concurrently.
+   * 
+   * @return The number of pages to process concurrently.
+   */
+  public int getNumPageWorkers() {
+    return this.numPageWorkers;
+  }
+
+  /**
+   * Sets the number of pages to process concurrently. If set to a value <= 1, the pages are
+   * processed sequentially, one after another.
+   * 
+   * @param numPageWorkers The number of pages to process concurrently.
+   */
+  public void setNumPageWorkers(int numPageWorkers) {
+    this.numPageWorkers = numPageWorkers;
+  }
+
+  /**
+   * Returns the executor to use on processing the pages in parallel.
+   * 
+   * @return The executor to use on processing the pages in parallel.
+   */
+  public ExecutorService getPageExecutor() {
+    return this.pageExecutor;
+  }
+
+  /**
+   * Sets the executor to use on processing the pages in parallel. The executor is not shut down by
+   * this parser. If set to null, a fixed thread pool with one thread per page worker is created on
+   * each call to parse() and shut down afterwards.
+   * 
+   * @param executor The executor to use on processing the pages in parallel.
+   */
+  public void setPageExecutor(ExecutorService executor) {
+    this.pageExecutor = executor;
+  }
+
+  /**
+   * Returns the listener to which the pages are passed as soon as they were parsed completely.
+   * 
+   * @return The page listener.
+   */
+  public PdfPageListener getPageListener() {
+    return this.pageListener;
+  }
+
+  /**
+   * Sets the listener to which the pages should be passed as soon as they were parsed completely.
+   * If set, each page is released from the PDF document right after it was handled by the
+   * listener. If set to null, the pages are kept in the PDF document.
+   * 
+   * @param listener The page listener.
+   */
+  public void setPageListener(PdfPageListener listener) {
+    this.pageListener = listener;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the registry of the resources (fonts, font faces and colors) of the document currently
+   * parsed (or of the document parsed last).
+   * 
+   * @return The registry of the resources.
+   */
+  public PdfResourceRegistry getResourceRegistry() {
+    return this.resourceRegistry;
+  }
+
+  /**
+   * Sets the registry of the resources of the document currently parsed.
+   * 
+   * @param registry The registry of the resources.
+   */
+  protected void setResourceRegistry(PdfResourceRegistry registry) {
+    this.resourceRegistry = registry;
+  }
+
+  /**
+   * Returns the registry of the resources to share between all parsed documents.
+   * 
+   * @return The shared registry, or null if a new registry is created for each parsed document.
+   */
+  public PdfResourceRegistry getSharedResourceRegistry() {
+    return this.sharedResourceRegistry;
+  }
+
+  /**
+   * Sets the registry of the resources (fonts, font faces and colors) to share between all parsed
+   * documents, for example to get the same ids for the same fonts in multiple documents. The
+   * registry is thread-safe, so it can be shared by multiple parsers running concurrently. If set
+   * to null (the default), a new registry is created for each parsed document, such that the ids
+   * of the resources depend on the parsed document only.
+   * 
+   * @param registry The shared registry.
+   */
+  public void setSharedResourceRegistry(PdfResourceRegistry registry) {
+    this.sharedResourceRegistry = registry;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the cache of the bounding boxes of the glyphs of the document currently parsed.
+   * 
+   * @return The cache of the glyph bounding boxes.
+   */
+  public PdfGlyphBoundingBoxCache getGlyphBoundingBoxCache() {
+    return this.glyphBoundingBoxCache;
+  }
+
+  /**
+   * Sets the maximum number of glyph bounding boxes to cache per parsed document. If set to 0, no
+   * bounding boxes are cached.
+   * 
+   * @param maxNumEntries The maximum number of glyph bounding boxes to cache.
+   */
+  public void setGlyphBoundingBoxCacheSize(int maxNumEntries) {
+    this.glyphBoundingBoxCache = new PdfGlyphBoundingBoxCache(maxNumEntries);
+  }
+
+  /**
+   * Returns the cache of the colors of the image XObjects of the document currently parsed. The
+   * keys are the underlying COS objects of the images (compared by identity), such that an image
+   * drawn multiple times (for example, a logo on each page) is decoded only once. The values are
+   * the RGB values of the images that consist of a single color, or an empty array for all other
+   * images.
+   * 
+   * @return The cache of the image colors.
+   */
+  public Map<COSBase, int[]> getImageColorCache() {
+    return this.imageColorCache;
+  }
+
+  /**
+   * Returns the cache of the elements extracted from the form XObjects of the document currently
+   * parsed.
+   * 
+   * @return The form cache.
+   */
+  public PdfFormCache getFormCache() {
+    return this.formCache;
+  }
+
+  /**
+   * Returns the cache of the elements extracted from the glyph descriptions of the Type3 fonts of
+   * the document currently parsed.
+   * 
+   * @return The Type3 glyph cache.
+   */
+  public PdfFormCache getType3GlyphCache() {
+    return this.type3GlyphCache;
+  }
+
+  /**
+   * Returns true, if the elements of form XObjects drawn multiple times are replayed from the form
+   * cache.
+   * 
+   * @return True, if the elements of form XObjects are replayed; false otherwise.
+   */
+  public boolean getReplayForms() {
+    return this.replayForms;
+  }
+
+  /**
+   * Sets the flag indicating whether the elements of form XObjects drawn multiple times (for
+   * example, running headers or footers) should be replayed from the form cache instead of parsing
+   * the content stream of the form again. The positions of replayed elements are mapped from the
+   * positions of the recorded elements, so they may differ from the positions computed by parsing
+   * the form again in the last digits.
+   * 
+   * @param replayForms The flag to set.
+   */
+  public void setReplayForms(boolean replayForms) {
+    this.replayForms = replayForms;
+  }
+
+  /**
+   * Returns true, if the characters of the pages are stored in a {@link PdfColumnarCharacterList}.
+   * 
+   * @return True, if the characters are stored column by column; false otherwise.
+   */
+  public boolean getColumnarCharacterStorage() {
+    return this.columnarCharacterStorage;
+  }
+
+  /**
+   * Sets the flag indicating whether the characters of the pages should be stored in a
+   * {@link PdfColumnarCharacterList}, that is: column by column in arrays of primitives, instead of
+   * as a list of {@link PdfCharacter} objects. This reduces the memory needed to keep the pages of
+   * large documents in memory considerably, at the cost of materializing a view object on each
+   * access to a character.
+   * 
+   * @param columnarCharacterStorage The flag to set.
+   */
+  public void setColumnarCharacterStorage(boolean columnarCharacterStorage) {
+    this.columnarCharacterStorage = columnarCharacterStorage;
+  }
+
+  /**
+   * Returns true, if a spatial index of the elements is built for each page.
+   * 
+   * @return True, if spatial indexes are built; false otherwise.
+   */
+  public boolean getBuildSpatialIndexes() {
+    return this.buildSpatialIndexes;
+  }
+
+  /**
+   * Sets the flag indicating whether a spatial index of the elements (characters, figures and
+   * shapes) should be built for each page at the end of the processing of the page, see
+   * {@link PdfPage#getSpatialIndex()}. In page-parallel mode, the indexes are built on
+   * reassembling the pages.
+   * 
+   * @param buildSpatialIndexes The flag to set.
+   */
+  public void setBuildSpatialIndexes(boolean buildSpatialIndexes) {
+    this.buildSpatialIndexes = buildSpatialIndexes;
+  }
+
+  /**
+   * Returns true, if the shapes are coalesced.
+   * 
+   * @return True, if the shapes are coalesced; false otherwise.
+   */
+  public boolean getCoalesceShapes() {
+    return this.coalesceShapes;
+  }
+
+  /**
+   * Sets the flag indicating whether the shapes should be coalesced. If set to true, the segments
+   * of each subpath of a painted path result in a single shape with the bounding box of the subpath
+   * (instead of one shape per segment), so that, for example, a rectangle appended by "re" results
+   * in a single shape. Further, the touching collinear rulings of the same color of a page (like
+   * the lines of a table drawn cell by cell, or thin filled rectangles) are merged into a single
+   * shape at the end of the page, see {@link ShapeUtils#mergeRulings(List)}.
+   * 
+   * @param coalesceShapes The flag to set.
+   */
+  public void setCoalesceShapes(boolean coalesceShapes) {
+    this.coalesceShapes = coalesceShapes;
+  }
+
+  // ==============================================================================================
+  // Methods to handle regions of interest.
+
+  /**
+   * Adds a region of interest to the given page. If there are regions of interest for a page,
+   * only the elements overlapping any of the regions are extracted from the page; glyphs, images
+   * and path segments that lie outside are discarded as early as possible (for example, glyphs
+   * before their bounding boxes are computed and images before they are decoded). All elements
+   * are extracted from pages without regions of interest.
+   * 
+   * @param pageNumber The (1-based) number of the page, or {@link #ALL_PAGES} if the region
+   *                   applies to all pages.
+   * @param region     The region, in the coordinate system of the positions of the elements
+   *                   (that is: in pt, relative to the lower left corner of the page).
+   */
+  public void addRegionOfInterest(int pageNumber, Rectangle region) {
+    this.regionsOfInterest.computeIfAbsent(pageNumber, n -> new ArrayList<>()).add(region);
+  }
+
+  /**
+   * Returns the regions of interest, per page number.
+   * 
+   * @return The regions of interest, per page number (with the regions that apply to all pages
+   *         stored for {@link #ALL_PAGES}).
+   */
+  public Map<Integer, List<Rectangle>> getRegionsOfInterest() {
+    return this.regionsOfInterest;
+  }
+
+  /**
+   * Sets the regions of interest, see {@link #addRegionOfInterest(int, Rectangle)}.
+   * 
+   * @param regions The regions of interest, per page number (with the regions that apply to all
+   *                pages stored for {@link #ALL_PAGES}), or null to extract all elements.
+   */
+  public void setRegionsOfInterest(Map<Integer, List<Rectangle>> regions) {
+    this.regionsOfInterest = regions != null ? regions : new HashMap<>();
+  }
+
+  /**
+   * Returns the regions of interest of the given page.
+   * 
+   * @param pageNumber The number of the page.
+   * 
+   * @return The regions of interest, or null if all elements of the page are extracted.
+   */
+  protected List<Rectangle> getRegionsOfInterest(int pageNumber) {
+    List<Rectangle> pageRegions = this.regionsOfInterest.get(pageNumber);
+    List<Rectangle> allPagesRegions = this.regionsOfInterest.get(ALL_PAGES);
+    if (pageRegions == null || pageRegions.isEmpty()) {
+      return allPagesRegions == null || allPagesRegions.isEmpty() ? null : allPagesRegions;
+    }
+    if (allPagesRegions == null || allPagesRegions.isEmpty()) {
+      return pageRegions;
+    }
+    List<Rectangle> regions = new ArrayList<>(pageRegions);
+    regions.addAll(allPagesRegions);
+    return regions;
+  }
+
+  /**
+   * Returns true, if there are regions of interest for the current page.
+   * 
+   * @return True, if there are regions of interest for the current page; false otherwise.
+   */
+  public boolean hasRegionsOfInterest() {
+    return this.pageRegionsOfInterest != null;
+  }
+
+  /**
+   * Checks if the given position overlaps any of the regions of interest of the current page.
+   * 
+   * @param position The position to check.
+   * 
+   * @return True, if there are no regions of interest for the current page, or if the position
+   *         overlaps any of them; false otherwise.
+   */
+  public boolean isInRegionOfInterest(PdfPosition position) {
+    if (this.pageRegionsOfInterest == null || position == null) {
+      return true;
+    }
+    Rectangle rect = position.getRectangle();
+    if (rect == null) {
+      return true;
+    }
+    return isInRegionOfInterest(rect.getMinX(), rect.getMinY(), rect.getMaxX(), rect.getMaxY());
+  }
+
+  /**
+   * Checks if the rectangle with the given corners overlaps any of the regions of interest of the
+   * current page. The corners don't need to be ordered.
+   * 
+   * @param x1 The x-coordinate of the first corner.
+   * @param y1 The y-coordinate of the first corner.
+   * @param x2 The x-coordinate of the second corner.
+   * @param y2 The y-coordinate of the second corner.
+   * 
+   * @return True, if there are no regions of interest for the current page, or if the rectangle
+   *         overlaps any of them; false otherwise.
+   */
+  public boolean isInRegionOfInterest(float x1, float y1, float x2, float y2) {
+    if (this.pageRegionsOfInterest == null) {
+      return true;
+    }
+    float minX = Math.min(x1, x2);
+    float minY = Math.min(y1, y2);
+    float maxX = Math.max(x1, x2);
+    float maxY = Math.max(y1, y2);
+    for (Rectangle region : this.pageRegionsOfInterest) {
+      if (maxX >= region.getMinX() && minX <= region.getMaxX() && maxY >= region.getMinY()
+              && minY <= region.getMaxY()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if a glyph with the given text rendering matrix may overlap any of the regions of
+   * interest of the current page. This is a cheap estimate based on the origin of the glyph and
+   * the font size, used to discard glyphs that lie clearly outside the regions before their exact
+   * bounding boxes are computed. Not applicable to glyphs of Type3 fonts, whose font matrix isn't
+   * part of the text rendering matrix.
+   * 
+   * @param trm The text rendering matrix of the glyph.
+   * 
+   * @return False, if the glyph lies clearly outside the regions of interest; true otherwise.
+   */
+  public boolean isGlyphInRegionOfInterest(Matrix trm) {
+    if (this.pageRegionsOfInterest == null) {
+      return true;
+    }
+    float extent = MAX_GLYPH_EXTENT * (Math.abs(trm.getScaleX()) + Math.abs(trm.getShearX())
+            + Math.abs(trm.getShearY()) + Math.abs(trm.getScaleY()));
+    float x = trm.getTranslateX();
+    float y = trm.getTranslateY();
+    return isInRegionOfInterest(x - extent, y - extent, x + extent, y + extent);
+  }
+
+  /**
+   * Returns the types of the elements to extract.
+   * 
+   * @return The types of the elements to extract.
+   */
+  public Set<PdfElementType> getElementTypes() {
+    return this.elementTypes;
+  }
+
+  /**
+   * Sets the types of the elements to extract. Elements of other types are not extracted and the
+   * computations needed only for them are skipped: glyphs are not processed if no characters are
+   * extracted, paths are not painted if no shapes are extracted and images are not decoded if
+   * neither figures nor shapes are extracted.
+   * 
+   * @param types The types of the elements to extract, or null to extract elements of all types.
+   */
+  public void setElementTypes(Collection<PdfElementType> types) {
+    if (types == null) {
+      this.elementTypes = EnumSet.allOf(PdfElementType.class);
+    } else if (types.isEmpty()) {
+      this.elementTypes = EnumSet.noneOf(PdfElementType.class);
+    } else {
+      this.elementTypes = EnumSet.copyOf(types);
+    }
+  }
+
+  /**
+   * Returns true, if elements of the given type are extracted.
+   * 
+   * @param type The type to check.
+   * 
+   * @return True, if elements of the given type are extracted; false otherwise.
+   */
+  public boolean isExtracted(PdfElementType type) {
+    return this.elementTypes.contains(type);
+  }
+
+  /**
+   * Returns the selection of the pages to parse.
+   * 
+   * @return The selection of the pages to parse, or null if all pages are parsed.
+   */
+  public PdfPageSelection getPageSelection() {
+    return this.pageSelection;
+  }
+
+  /**
+   * Sets the selection of the pages to parse. The content streams of all other pages are not read
+   * at all.
+   * 
+   * @param selection The selection of the pages to parse, or null to parse all pages.
+   */
+  public void setPageSelection(PdfPageSelection selection) {
+    this.pageSelection = selection;
+  }
+
+  /**
+   * Returns the setting that controls the memory usage of PdfBox on loading a document.
+   * 
+   * @return The memory usage setting, or null if the default setting of PdfBox is used.
+   */
+  public MemoryUsageSetting getMemoryUsageSetting() {
+    return this.memoryUsageSetting;
+  }
+
+  /**
+   * Sets the setting that controls how much main memory and temporary file storage PdfBox may use
+   * for the scratch buffers of a loaded document (for example, to keep the buffers in main memory
+   * up to a given number of bytes and in a temporary file beyond). The limits apply per loaded
+   * instance of a document; in page-parallel mode, each page worker loads its own instance.
+   * 
+   * @param setting The memory usage setting, or null to use the default setting of PdfBox.
+   */
+  public void setMemoryUsageSetting(MemoryUsageSetting setting) {
+    this.memoryUsageSetting = setting;
+  }
+
+  // ==============================================================================================
+  // Methods to record the elements of forms and Type3 glyphs.
+
+  /**
+   * Starts to record the elements extracted from now on, until the next call to
+   * {@link #stopRecording()}. Recordings can be nested.
+   */
+  public void startRecording() {
+    this.recordings.push(new ArrayList<>());
+  }
+
+  /**
+   * Stops the recording started last.
+   * 
+   * @return The elements extracted since the recording was started, in the order of extraction.
+   */
+  public List<PdfElement> stopRecording() {
+    return this.recordings.pop();
+  }
+
+  /**
+   * Adds the given element to all active recordings.
+   * 
+   * @param element The element to add.
+   */
+  protected void recordElement(PdfElement element) {
+    for (List<PdfElement> recording : this.recordings) {
+      recording.add(element);
+    }
+  }
+
+  /**
+   * Returns the extraction rank to assign to the next extracted character and increments it.
+   * 
+   * @return The extraction rank to assign to the next extracted character.
+   */
+  public int nextExtractionRank() {
+    return this.extractionRank++;
+  }
+
   // ==============================================================================================
   // Handler methods.
 
@@ -924,42 +2193,83 @@ public class PdfParser {
    * @param page The page to process.
    */
   public void handlePdfPageEnd(PdfDocument pdf, PdfPage page) {
-    // Nothing to do so far.
+    if (this.coalesceShapes) {
+      int numShapesBefore = page.getShapes().size();
+      page.setShapes(ShapeUtils.mergeRulings(page.getShapes()));
+      this.numShapes -= numShapesBefore - page.getShapes().size();
+    }
+    if (this.buildSpatialIndexes) {
+      page.buildSpatialIndex();
+    }
   }
 
   /**
-   * A callback to handle a character.
+   * A callback to handle a character (ignored if no characters are extracted or if the character
+   * lies outside the regions of interest of the page). Assigns the next extraction rank to the
+   * character, if it is extracted.
    * 
    * @param pdf  The PDF document to which the given character belongs to.
    * @param page The PDF page to which the given character belongs to.
    * @param c    The character to process.
    */
   public void handlePdfCharacter(PdfDocument pdf, PdfPage page, PdfCharacter c) {
+    countPaintedElement();
+    if (!isExtracted(PdfElementType.CHARACTERS) || !isInRegionOfInterest(c.getPosition())) {
+      return;
+    }
+    // The elements painted in glyph space are only collected, see processType3StreamInGlyphSpace().
+    if (this.glyphSpaceElements != null) {
+      this.glyphSpaceElements.add(c);
+      return;
+    }
+    // Assign the rank only to the characters actually extracted, so that the ranks have no gaps.
+    c.setExtractionRank(nextExtractionRank());
     page.addCharacter(c);
     this.numCharacters++;
+    recordElement(c);
   }
 
   /**
-   * A callback to handle a PdfFigure.
+   * A callback to handle a PdfFigure (ignored if no figures are extracted or if the figure lies
+   * outside the regions of interest of the page).
    * 
    * @param pdf    The PDF document to which the given figure belongs to.
    * @param page   The PDF page to which the given figure belongs to.
    * @param figure The figure to process.
    */
   public void handlePdfFigure(PdfDocument pdf, PdfPage page, PdfFigure figure) {
+    countPaintedElement();
+    if (!isExtracted(PdfElementType.FIGURES) || !isInRegionOfInterest(figure.getPosition())) {
+      return;
+    }
+    if (this.glyphSpaceElements != null) {
+      this.glyphSpaceElements.add(figure);
+      return;
+    }
     page.addFigure(figure);
     this.numFigures++;
+    recordElement(figure);
   }
 
   /**
-   * A callback to handle a PdfShape.
+   * A callback to handle a PdfShape (ignored if no shapes are extracted or if the shape lies
+   * outside the regions of interest of the page).
    * 
    * @param pdf   The PDF document to which the given shape belongs to.
    * @param page  The PDF page to which the given shape belongs to.
    * @param shape The shape to process.
    */
   public void handlePdfShape(PdfDocument pdf, PdfPage page, PdfShape shape) {
+    countPaintedElement();
+    if (!isExtracted(PdfElementType.SHAPES) || !isInRegionOfInterest(shape.getPosition())) {
+      return;
+    }
+    if (this.glyphSpaceElements != null) {
+      this.glyphSpaceElements.add(shape);
+      return;
+    }
     page.addShape(shape);
     this.numShapes++;
+    recordElement(shape);
   }
 }
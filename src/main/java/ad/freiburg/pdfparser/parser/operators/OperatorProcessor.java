@@ -31,6 +31,15 @@ public abstract class OperatorProcessor {
     this.parser = parser;
   }
 
+  /**
+   * Binds the processors of the operators to which this operator is delegated, so that they need
+   * not be looked up on each delegation. Called by the parser once all operator processors are
+   * registered.
+   */
+  public void bindOperatorProcessors() {
+    // Nothing to bind by default.
+  }
+
   // ==============================================================================================
 
   /**
@@ -39,7 +48,8 @@ public abstract class OperatorProcessor {
    * @param pdf  The PDF document to which the given operator belongs to.
    * @param page The PDF page to which the given operator belongs to.
    * @param op   The operator to process
-   * @param args The operands to use when processing
+   * @param args The operands to use when processing (the list is reused by the parser, so it is
+   *             valid only during this call)
    * @throws IOException if the operator cannot be processed
    */
   public abstract void process(PdfDocument pdf, PdfPage page, Operator op, List<COSBase> args)
@@ -11,7 +11,7 @@ import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
 public class SetNonStrokingColor extends SetColor {
   @Override
   protected void setColor(PDColor color) {
-    this.parser.getGraphicsState().setNonStrokingColor(color);
+    this.parser.getMutableGraphicsState().setNonStrokingColor(color);
   }
 
   @Override
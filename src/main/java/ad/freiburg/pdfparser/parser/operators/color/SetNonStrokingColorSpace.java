@@ -21,8 +21,8 @@ public class SetNonStrokingColorSpace extends OperatorProcessor {
           throws IOException {
     COSName name = (COSName) args.get(0);
     PDColorSpace cs = this.parser.getResources().getColorSpace(name);
-    this.parser.getGraphicsState().setNonStrokingColorSpace(cs);
-    this.parser.getGraphicsState().setNonStrokingColor(cs.getInitialColor());
+    this.parser.getMutableGraphicsState().setNonStrokingColorSpace(cs);
+    this.parser.getMutableGraphicsState().setNonStrokingColor(cs.getInitialColor());
   }
 
   @Override
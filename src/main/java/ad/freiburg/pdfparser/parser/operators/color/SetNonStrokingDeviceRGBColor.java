@@ -22,7 +22,7 @@ public class SetNonStrokingDeviceRGBColor extends SetNonStrokingColor {
           throws IOException {
     PDResources resources = this.parser.getResources();
     PDColorSpace cs = resources.getColorSpace(COSName.DEVICERGB);
-    this.parser.getGraphicsState().setNonStrokingColorSpace(cs);
+    this.parser.getMutableGraphicsState().setNonStrokingColorSpace(cs);
     super.process(pdf, page, op, args);
   }
 
@@ -11,7 +11,7 @@ import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
 public class SetStrokingColor extends SetColor {
   @Override
   protected void setColor(PDColor color) {
-    this.parser.getGraphicsState().setStrokingColor(color);
+    this.parser.getMutableGraphicsState().setStrokingColor(color);
   }
 
   @Override
@@ -21,8 +21,8 @@ public class SetStrokingColorSpace extends OperatorProcessor {
           throws IOException {
     COSName name = (COSName) args.get(0);
     PDColorSpace cs = this.parser.getResources().getColorSpace(name);
-    this.parser.getGraphicsState().setStrokingColorSpace(cs);
-    this.parser.getGraphicsState().setStrokingColor(cs.getInitialColor());
+    this.parser.getMutableGraphicsState().setStrokingColorSpace(cs);
+    this.parser.getMutableGraphicsState().setStrokingColor(cs.getInitialColor());
   }
 
   @Override
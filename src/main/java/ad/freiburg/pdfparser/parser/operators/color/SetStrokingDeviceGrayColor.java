@@ -22,7 +22,7 @@ public class SetStrokingDeviceGrayColor extends SetStrokingColor {
           throws IOException {
     PDResources resources = this.parser.getResources();
     PDColorSpace cs = resources.getColorSpace(COSName.DEVICEGRAY);
-    this.parser.getGraphicsState().setStrokingColorSpace(cs);
+    this.parser.getMutableGraphicsState().setStrokingColorSpace(cs);
     super.process(pdf, page, op, args);
   }
 
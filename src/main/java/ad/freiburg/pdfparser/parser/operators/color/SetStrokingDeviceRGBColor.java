@@ -21,7 +21,7 @@ public class SetStrokingDeviceRGBColor extends SetStrokingColor {
           throws IOException {
     PDResources resources = this.parser.getResources();
     PDColorSpace cs = resources.getColorSpace(COSName.DEVICERGB);
-    this.parser.getGraphicsState().setStrokingColorSpace(cs);
+    this.parser.getMutableGraphicsState().setStrokingColorSpace(cs);
     super.process(pdf, page, op, args);
   }
 
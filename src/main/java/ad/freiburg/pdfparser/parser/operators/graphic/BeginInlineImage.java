@@ -13,6 +13,7 @@ import org.apache.pdfbox.pdmodel.graphics.image.PDInlineImage;
 import org.apache.pdfbox.util.Matrix;
 import ad.freiburg.pdfparser.model.PdfColor;
 import ad.freiburg.pdfparser.model.PdfDocument;
+import ad.freiburg.pdfparser.model.PdfElementType;
 import ad.freiburg.pdfparser.model.PdfFigure;
 import ad.freiburg.pdfparser.model.PdfPage;
 import ad.freiburg.pdfparser.model.PdfPosition;
@@ -20,7 +21,6 @@ import ad.freiburg.pdfparser.model.PdfShape;
 import ad.freiburg.pdfparser.parser.operators.OperatorProcessor;
 import ad.freiburg.pdfparser.utils.ColorUtils;
 import ad.freiburg.pdfparser.utils.MathUtils;
-import ad.freiburg.pdfparser.utils.PdfColorManager;
 
 /**
  * BI: Begin inline image.
@@ -43,8 +43,15 @@ public class BeginInlineImage extends OperatorProcessor {
       return;
     }
 
+    // An image results in a figure or (if it consists of a single color) in a shape, so there is
+    // nothing to do if neither figures nor shapes are extracted.
+    if (!this.parser.isExtracted(PdfElementType.FIGURES)
+            && !this.parser.isExtracted(PdfElementType.SHAPES)) {
+      this.parser.countPaintedElement();
+      return;
+    }
+
     COSDictionary params = op.getImageParameters();
-    PDImage image = new PDInlineImage(params, op.getImageData(), this.parser.getResources());
     int width = params.getInt(COSName.W, COSName.WIDTH, -1);
     int height = params.getInt(COSName.H, COSName.HEIGHT, -1);
 
@@ -58,11 +65,21 @@ public class BeginInlineImage extends OperatorProcessor {
     float maxY = MathUtils.round(ctm.getTranslateY() + height * ctm.getScaleY(), precision);
     PdfPosition position = new PdfPosition(page, minX, minY, maxX, maxY);
 
+    // Don't decode the image if it lies outside the regions of interest.
+    if (!this.parser.isInRegionOfInterest(position)) {
+      this.parser.countPaintedElement();
+      return;
+    }
+
     // Check, if the image consists of only one color. If so, consider it as a shape.
-    int[] colorRgb = ColorUtils.getExclusiveColor(image.getImage());
+    PDImage image = new PDInlineImage(params, op.getImageData(), this.parser.getResources());
+    int[] colorRgb = null;
+    if (this.parser.getDecodeImages()) {
+      colorRgb = ColorUtils.getExclusiveColor(image);
+    }
 
     if (colorRgb != null) {
-      PdfColor color = PdfColorManager.getOrCreatePdfColor(colorRgb);
+      PdfColor color = this.parser.getResourceRegistry().getOrCreatePdfColor(colorRgb);
       LOG.debug("Consider the image as shape, as it solely consists of the color " + color + ".");
 
       // Consider the image as a shape.
@@ -4,6 +4,7 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.pdfbox.contentstream.operator.Operator;
@@ -15,16 +16,23 @@ import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.apache.pdfbox.pdmodel.graphics.state.PDGraphicsState;
 import org.apache.pdfbox.util.Matrix;
+import ad.freiburg.pdfparser.model.PdfCharacter;
 import ad.freiburg.pdfparser.model.PdfColor;
 import ad.freiburg.pdfparser.model.PdfDocument;
+import ad.freiburg.pdfparser.model.PdfElementType;
+import ad.freiburg.pdfparser.model.PdfElement;
 import ad.freiburg.pdfparser.model.PdfFigure;
+import ad.freiburg.pdfparser.model.PdfFont;
+import ad.freiburg.pdfparser.model.PdfFontFace;
 import ad.freiburg.pdfparser.model.PdfPage;
 import ad.freiburg.pdfparser.model.PdfPosition;
 import ad.freiburg.pdfparser.model.PdfShape;
+import ad.freiburg.pdfparser.model.Rectangle;
 import ad.freiburg.pdfparser.parser.operators.OperatorProcessor;
 import ad.freiburg.pdfparser.utils.ColorUtils;
 import ad.freiburg.pdfparser.utils.MathUtils;
-import ad.freiburg.pdfparser.utils.PdfColorManager;
+import ad.freiburg.pdfparser.utils.PdfFormCache;
+import ad.freiburg.pdfparser.utils.PdfResourceRegistry;
 
 /**
  * Do: Invoke a named xobject.
@@ -37,6 +45,11 @@ public class DrawObject extends OperatorProcessor {
    */
   protected static Logger LOG = LogManager.getLogger(DrawObject.class);
 
+  /**
+   * The value cached for images that don't consist of a single color.
+   */
+  protected static final int[] NO_EXCLUSIVE_COLOR = new int[0];
+
   // ==============================================================================================
 
   @Override
@@ -50,38 +63,28 @@ public class DrawObject extends OperatorProcessor {
     if (xobject instanceof PDFormXObject) {
       PDFormXObject form = (PDFormXObject) xobject;
 
-      this.parser.saveGraphicsState();
-
-      // If there is an optional form matrix, we have to map the form space to the user space.
-      Matrix matrix = form.getMatrix();
-      if (matrix != null) {
-        Matrix ctm = this.parser.getGraphicsState().getCurrentTransformationMatrix();
-        Matrix xctm = matrix.multiply(ctm);
-        this.parser.getGraphicsState().setCurrentTransformationMatrix(xctm);
-      }
-
-      // Clip to the form's BBox.
-      if (form.getBBox() != null) {
-        PDGraphicsState graphicsState = this.parser.getGraphicsState();
-        PDRectangle bbox = form.getBBox();
-        GeneralPath bboxPath = this.parser.transformedPDRectanglePath(bbox);
-        graphicsState.intersectClippingPath(bboxPath);
-      }
-
-      // Parse the stream of the form.
-      if (form.getCOSObject().getLength() > 0) {
-        this.parser.processStream(pdf, page, form);
+      // Don't replay forms on pages with regions of interest, since the recording of a form would
+      // miss the elements outside the regions.
+      if (this.parser.getReplayForms() && !this.parser.hasRegionsOfInterest()) {
+        processFormWithReplay(pdf, page, form);
+      } else {
+        processForm(pdf, page, form);
       }
-
-      // Restore the graphics state.
-      this.parser.restoreGraphicsState();
-
       return;
     }
 
     // Check if the object represents an image object.
     if (xobject instanceof PDImageXObject) {
       PDImageXObject image = (PDImageXObject) xobject;
+
+      // An image results in a figure or (if it consists of a single color) in a shape, so there is
+      // nothing to do if neither figures nor shapes are extracted.
+      if (!this.parser.isExtracted(PdfElementType.FIGURES)
+              && !this.parser.isExtracted(PdfElementType.SHAPES)) {
+        this.parser.countPaintedElement();
+        return;
+      }
+
       int width = image.getWidth();
       int height = image.getHeight();
 
@@ -98,11 +101,20 @@ public class DrawObject extends OperatorProcessor {
       float maxY = MathUtils.round(ctm.getTranslateY() + width * at.getScaleY(), precision);
       PdfPosition position = new PdfPosition(page, minX, minY, maxX, maxY);
 
+      // Don't decode the image if it lies outside the regions of interest.
+      if (!this.parser.isInRegionOfInterest(position)) {
+        this.parser.countPaintedElement();
+        return;
+      }
+
       // Check, if the image consists of only one color. If so, consider it as a shape.
-      int[] colorRgb = ColorUtils.getExclusiveColor(image.getImage());
+      int[] colorRgb = null;
+      if (this.parser.getDecodeImages()) {
+        colorRgb = getExclusiveColor(image);
+      }
 
       if (colorRgb != null) {
-        PdfColor color = PdfColorManager.getOrCreatePdfColor(colorRgb);
+        PdfColor color = this.parser.getResourceRegistry().getOrCreatePdfColor(colorRgb);
         LOG.debug("Consider the image as shape, as it solely consists of the color " + color + ".");
 
         // Consider the image as a shape.
@@ -162,6 +174,201 @@ public class DrawObject extends OperatorProcessor {
     // this.engine.handlePdfFigure(pdf, page, figure);
   }
 
+  // ==============================================================================================
+  // Methods to process forms.
+
+  /**
+   * Processes the given form by parsing its content stream.
+   * 
+   * @param pdf  The PDF document to which the form belongs to.
+   * @param page The PDF page to which the form belongs to.
+   * @param form The form to process.
+   * @throws IOException If something went wrong on processing the form.
+   */
+  protected void processForm(PdfDocument pdf, PdfPage page, PDFormXObject form)
+          throws IOException {
+    this.parser.saveGraphicsState();
+
+    // If there is an optional form matrix, we have to map the form space to the user space.
+    Matrix matrix = form.getMatrix();
+    if (matrix != null) {
+      Matrix ctm = this.parser.getGraphicsState().getCurrentTransformationMatrix();
+      Matrix xctm = matrix.multiply(ctm);
+      this.parser.getMutableGraphicsState().setCurrentTransformationMatrix(xctm);
+    }
+
+    // Clip to the form's BBox.
+    if (form.getBBox() != null) {
+      PDGraphicsState graphicsState = this.parser.getMutableGraphicsState();
+      PDRectangle bbox = form.getBBox();
+      GeneralPath bboxPath = this.parser.transformedPDRectanglePath(bbox);
+      graphicsState.intersectClippingPath(bboxPath);
+    }
+
+    // Parse the stream of the form.
+    if (form.getCOSObject().getLength() > 0) {
+      this.parser.processStream(pdf, page, form);
+    }
+
+    // Restore the graphics state.
+    this.parser.restoreGraphicsState();
+  }
+
+  /**
+   * Processes the given form by replaying the elements recorded on a previous invocation of the
+   * same form with the same inherited graphics state, if such a recording exists and the elements
+   * can be mapped exactly to the current CTM. Otherwise, parses the content stream of the form and
+   * records the extracted elements, if the form was drawn before with the same inherited graphics
+   * state (forms drawn only once aren't recorded, to not retain their elements).
+   * 
+   * @param pdf  The PDF document to which the form belongs to.
+   * @param page The PDF page to which the form belongs to.
+   * @param form The form to process.
+   * @throws IOException If something went wrong on processing the form.
+   */
+  protected void processFormWithReplay(PdfDocument pdf, PdfPage page, PDFormXObject form)
+          throws IOException {
+    PdfFormCache cache = this.parser.getFormCache();
+    List<Object> key = PdfFormCache.computeKey(form.getCOSObject(),
+            this.parser.getGraphicsState());
+    Matrix ctm = this.parser.getCurrentTransformationMatrix();
+
+    PdfFormCache.Recording recording = cache.getRecording(key);
+    if (recording != null && recording.isReplayableWith(ctm)) {
+      replayForm(pdf, page, recording, ctm);
+      return;
+    }
+
+    if (recording == null && !cache.registerUse(key)) {
+      processForm(pdf, page, form);
+      return;
+    }
+
+    this.parser.startRecording();
+    try {
+      processForm(pdf, page, form);
+    } finally {
+      List<PdfElement> elements = this.parser.stopRecording();
+      if (recording == null) {
+        cache.putRecording(key, new PdfFormCache.Recording(ctm.clone(), elements));
+      }
+    }
+  }
+
+  /**
+   * Replays the elements of the given recording, by mapping their positions from the recorded CTM
+   * to the given CTM. Both matrices must be axis-preserving, see
+   * {@link PdfFormCache.Recording#isReplayableWith(Matrix)}.
+   * 
+   * @param pdf       The PDF document to which the form belongs to.
+   * @param page      The PDF page to which the form belongs to.
+   * @param recording The recording to replay.
+   * @param ctm       The current transformation matrix.
+   */
+  protected void replayForm(PdfDocument pdf, PdfPage page, PdfFormCache.Recording recording,
+          Matrix ctm) {
+    // The mapping from the recorded device space to the current device space.
+    Matrix recordedCtm = recording.getCtm();
+    double scaleX = (double) ctm.getScaleX() / recordedCtm.getScaleX();
+    double scaleY = (double) ctm.getScaleY() / recordedCtm.getScaleY();
+    double translateX = ctm.getTranslateX() - recordedCtm.getTranslateX() * scaleX;
+    double translateY = ctm.getTranslateY() - recordedCtm.getTranslateY() * scaleY;
+    int precision = this.parser.getFloatingPointPrecision();
+    PdfResourceRegistry registry = this.parser.getResourceRegistry();
+
+    for (PdfElement element : recording.getElements()) {
+      if (element instanceof PdfCharacter) {
+        PdfCharacter recorded = (PdfCharacter) element;
+        PdfCharacter character = new PdfCharacter();
+        character.setText(recorded.getText());
+        PdfFontFace fontFace = recorded.getFontFace();
+        if (fontFace != null) {
+          PdfFont font = registry.getFontManager().getOrCreatePdfFont(fontFace.getFont());
+          character.setFontFace(registry.getOrCreatePdfFontFace(font, fontFace.getFontSize()));
+        }
+        character.setColor(adoptColor(recorded.getColor(), registry));
+        character.setPosition(mapPosition(page, recorded.getPosition(), scaleX, scaleY,
+                translateX, translateY, precision));
+        this.parser.handlePdfCharacter(pdf, page, character);
+      } else if (element instanceof PdfShape) {
+        PdfShape recorded = (PdfShape) element;
+        PdfShape shape = new PdfShape();
+        shape.setColor(adoptColor(recorded.getColor(), registry));
+        shape.setPosition(mapPosition(page, recorded.getPosition(), scaleX, scaleY, translateX,
+                translateY, precision));
+        this.parser.handlePdfShape(pdf, page, shape);
+      } else if (element instanceof PdfFigure) {
+        PdfFigure recorded = (PdfFigure) element;
+        PdfFigure figure = new PdfFigure();
+        figure.setPosition(mapPosition(page, recorded.getPosition(), scaleX, scaleY, translateX,
+                translateY, precision));
+        this.parser.handlePdfFigure(pdf, page, figure);
+      }
+    }
+  }
+
+  /**
+   * Returns the color of the current resource registry corresponding to the given (recorded)
+   * color, which may be registered in another registry.
+   * 
+   * @param color    The recorded color.
+   * @param registry The current resource registry.
+   * 
+   * @return The corresponding color of the current registry.
+   */
+  protected PdfColor adoptColor(PdfColor color, PdfResourceRegistry registry) {
+    return color != null ? registry.getOrCreatePdfColor(color.getRGB()) : null;
+  }
+
+  /**
+   * Maps the given (recorded) position by the given axis-preserving transformation (with positive
+   * scaling factors, so the corners of the position keep their order).
+   * 
+   * @param page       The page of the mapped position.
+   * @param position   The position to map.
+   * @param scaleX     The horizontal scaling factor of the transformation.
+   * @param scaleY     The vertical scaling factor of the transformation.
+   * @param translateX The horizontal translation of the transformation.
+   * @param translateY The vertical translation of the transformation.
+   * @param precision  The precision to use on rounding the coordinates.
+   * 
+   * @return The mapped position.
+   */
+  protected PdfPosition mapPosition(PdfPage page, PdfPosition position, double scaleX,
+          double scaleY, double translateX, double translateY, int precision) {
+    Rectangle rect = position.getRectangle();
+    float minX = MathUtils.round((float) (rect.getMinX() * scaleX + translateX), precision);
+    float minY = MathUtils.round((float) (rect.getMinY() * scaleY + translateY), precision);
+    float maxX = MathUtils.round((float) (rect.getMaxX() * scaleX + translateX), precision);
+    float maxY = MathUtils.round((float) (rect.getMaxY() * scaleY + translateY), precision);
+    return new PdfPosition(page, minX, minY, maxX, maxY);
+  }
+
+  // ==============================================================================================
+  // Methods to process images.
+
+  /**
+   * Checks if the given image consists only of a single color and returns the color if so. The
+   * result is cached per underlying COS object of the image, such that an image drawn multiple
+   * times is decoded only once.
+   * 
+   * @param image The image to process.
+   * 
+   * @return The color, if the image consists only of a single color; null otherwise.
+   * @throws IOException If something went wrong on reading the image.
+   */
+  protected int[] getExclusiveColor(PDImageXObject image) throws IOException {
+    Map<COSBase, int[]> cache = this.parser.getImageColorCache();
+    COSBase key = image.getCOSObject();
+
+    int[] colorRgb = cache.get(key);
+    if (colorRgb == null) {
+      colorRgb = ColorUtils.getExclusiveColor(image);
+      cache.put(key, colorRgb != null ? colorRgb : NO_EXCLUSIVE_COLOR);
+    }
+    return colorRgb != NO_EXCLUSIVE_COLOR ? colorRgb : null;
+  }
+
   @Override
   public String getName() {
     return "Do";
@@ -23,7 +23,7 @@ public class EndPath extends OperatorProcessor {
     GeneralPath path = this.parser.getLinePath();
     if (this.parser.getClippingWindingRule() != -1) {
       path.setWindingRule(this.parser.getClippingWindingRule());
-      this.parser.getGraphicsState().intersectClippingPath(path);
+      this.parser.getMutableGraphicsState().intersectClippingPath(path);
       this.parser.setClippingWindingRule(-1);
     }
 
@@ -17,6 +17,21 @@ import ad.freiburg.pdfparser.parser.operators.OperatorProcessor;
  * @author Claudius Korzen
  */
 public class FillEvenOddRule extends OperatorProcessor {
+  /**
+   * The operator S (stroke the path), to which this operator is delegated.
+   */
+  protected static final Operator STROKE_PATH = Operator.getOperator("S");
+
+  /**
+   * The processor of the operator {@link #STROKE_PATH}.
+   */
+  protected OperatorProcessor strokePath;
+
+  @Override
+  public void bindOperatorProcessors() {
+    this.strokePath = this.parser.getOperatorProcessor(STROKE_PATH.getName());
+  }
+
   @Override
   public void process(PdfDocument pdf, PdfPage page, Operator op, List<COSBase> args)
           throws IOException {
@@ -24,7 +39,7 @@ public class FillEvenOddRule extends OperatorProcessor {
     // Use COSFloat, because COSInteger is private.
     args.add(new COSFloat(Path2D.WIND_EVEN_ODD));
     // Stroke path
-    this.parser.processOperator(pdf, page, "S", args);
+    this.parser.processOperator(pdf, page, this.strokePath, STROKE_PATH, args);
   }
 
   @Override
@@ -16,14 +16,41 @@ import ad.freiburg.pdfparser.parser.operators.OperatorProcessor;
  * @author Claudius Korzen
  */
 public class FillNonZeroAndStrokePath extends OperatorProcessor {
+  /**
+   * The operator f (fill the path, using the nonzero winding number rule), to which this
+   * operator is delegated.
+   */
+  protected static final Operator FILL_NON_ZERO = Operator.getOperator("f");
+
+  /**
+   * The operator S (stroke the path), to which this operator is delegated.
+   */
+  protected static final Operator STROKE_PATH = Operator.getOperator("S");
+
+  /**
+   * The processor of the operator {@link #FILL_NON_ZERO}.
+   */
+  protected OperatorProcessor fillNonZero;
+
+  /**
+   * The processor of the operator {@link #STROKE_PATH}.
+   */
+  protected OperatorProcessor strokePath;
+
+  @Override
+  public void bindOperatorProcessors() {
+    this.fillNonZero = this.parser.getOperatorProcessor(FILL_NON_ZERO.getName());
+    this.strokePath = this.parser.getOperatorProcessor(STROKE_PATH.getName());
+  }
+
   @Override
   public void process(PdfDocument pdf, PdfPage page, Operator op, List<COSBase> args)
           throws IOException {
     GeneralPath path = (GeneralPath) this.parser.getLinePath().clone();
 
-    this.parser.processOperator(pdf, page, "f", args);
+    this.parser.processOperator(pdf, page, this.fillNonZero, FILL_NON_ZERO, args);
     this.parser.setLinePath(path);
-    this.parser.processOperator(pdf, page, "S", args);
+    this.parser.processOperator(pdf, page, this.strokePath, STROKE_PATH, args);
   }
 
   @Override
@@ -36,7 +36,7 @@ public class ModifyCurrentTransformationMatrix extends OperatorProcessor {
 
     Matrix matrix = new Matrix(a, b, c, d, e, f);
 
-    this.parser.getCurrentTransformationMatrix().concatenate(matrix);
+    this.parser.getMutableGraphicsState().getCurrentTransformationMatrix().concatenate(matrix);
   }
 
   @Override
@@ -25,7 +25,7 @@ public class SetGraphicsStateParameters extends OperatorProcessor {
     COSName dictName = (COSName) args.get(0);
     PDResources resources = this.parser.getResources();
     PDExtendedGraphicsState gs = resources.getExtGState(dictName);
-    gs.copyIntoGraphicsState(this.parser.getGraphicsState());
+    gs.copyIntoGraphicsState(this.parser.getMutableGraphicsState());
   }
 
   @Override
@@ -12,12 +12,12 @@ import org.apache.pdfbox.pdmodel.graphics.color.PDColor;
 import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
 import ad.freiburg.pdfparser.model.PdfColor;
 import ad.freiburg.pdfparser.model.PdfDocument;
+import ad.freiburg.pdfparser.model.PdfElementType;
 import ad.freiburg.pdfparser.model.PdfPage;
 import ad.freiburg.pdfparser.model.PdfPosition;
 import ad.freiburg.pdfparser.model.PdfShape;
 import ad.freiburg.pdfparser.parser.operators.OperatorProcessor;
 import ad.freiburg.pdfparser.utils.MathUtils;
-import ad.freiburg.pdfparser.utils.PdfColorManager;
 
 /**
  * S: Stroke the path.
@@ -28,6 +28,15 @@ public class StrokePath extends OperatorProcessor {
   @Override
   public void process(PdfDocument pdf, PdfPage page, Operator op, List<COSBase> args)
           throws IOException {
+    // Don't compute the shapes of the path if no shapes are extracted.
+    if (!this.parser.isExtracted(PdfElementType.SHAPES)) {
+      if (this.parser.getLinePath().getCurrentPoint() != null) {
+        this.parser.countPaintedElement();
+      }
+      this.parser.getLinePath().reset();
+      return;
+    }
+
     int windingRule = -1;
     if (args.size() > 0) {
       windingRule = ((COSNumber) args.get(0)).intValue();
@@ -43,7 +52,7 @@ public class StrokePath extends OperatorProcessor {
       c = this.parser.getGraphicsState().getNonStrokingColor();
       cs = this.parser.getGraphicsState().getNonStrokingColorSpace();
     }
-    PdfColor color = PdfColorManager.getOrCreatePdfColor(c, cs);
+    PdfColor color = this.parser.getResourceRegistry().getOrCreatePdfColor(c, cs);
 
     // Iterate through the single path operations to compute, e.g., the bounding box.
     GeneralPath path = this.parser.getLinePath();
@@ -55,6 +64,17 @@ public class StrokePath extends OperatorProcessor {
     float maxY = -Float.MAX_VALUE;
     int roundingPrecision = this.parser.getFloatingPointPrecision();
 
+    // The bounds [minX, minY, maxX, maxY] of the segments of the current subpath, if the segments
+    // of each subpath are coalesced into a single shape (null if each segment results in its own
+    // shape). The segments are coalesced per subpath (and not for the whole path), so that, for
+    // example, a rectangle appended by "re" (which starts its own subpath) results in a single
+    // shape, while a table grid drawn as a single path still results in a shape per line.
+    float[] subpathBounds = null;
+    if (this.parser.getCoalesceShapes()) {
+      subpathBounds = new float[4];
+      resetBounds(subpathBounds);
+    }
+
     for (itr = path.getPathIterator(null); !itr.isDone(); itr.next()) {
       float[] coordinates = new float[6];
       int currentSegment = itr.currentSegment(coordinates);
@@ -90,13 +110,8 @@ public class StrokePath extends OperatorProcessor {
           float curveMinY = MathUtils.round(pathPosition[1], roundingPrecision);
           float curveMaxX = MathUtils.round(curveEnd[0], roundingPrecision);
           float curveMaxY = MathUtils.round(curveEnd[1], roundingPrecision);
-          PdfPosition curvePos = new PdfPosition(page, curveMinX, curveMinY, curveMaxX, curveMaxY);
-
-          PdfShape curveShape = new PdfShape();
-          curveShape.setPosition(curvePos);
-          curveShape.setColor(color);
-
-          this.parser.handlePdfShape(pdf, page, curveShape);
+          handleSegment(pdf, page, color, subpathBounds, curveMinX, curveMinY, curveMaxX,
+                  curveMaxY);
 
           this.parser.setLinePathPosition(curveEnd);
           break;
@@ -108,16 +123,14 @@ public class StrokePath extends OperatorProcessor {
           float lineMinY = MathUtils.round(pathPosition[1], roundingPrecision);
           float lineMaxX = MathUtils.round(lineEnd[0], roundingPrecision);
           float lineMaxY = MathUtils.round(lineEnd[1], roundingPrecision);
-          PdfPosition linePos = new PdfPosition(page, lineMinX, lineMinY, lineMaxX, lineMaxY);
-
-          PdfShape lineShape = new PdfShape();
-          lineShape.setPosition(linePos);
-          lineShape.setColor(color);
-          this.parser.handlePdfShape(pdf, page, lineShape);
+          handleSegment(pdf, page, color, subpathBounds, lineMinX, lineMinY, lineMaxX, lineMaxY);
 
           this.parser.setLinePathPosition(lineEnd);
           break;
         case PathIterator.SEG_MOVETO:
+          // A MOVETO operation starts a new subpath.
+          handleSubpath(pdf, page, color, subpathBounds);
+
           float[] pos = Arrays.copyOf(coordinates, 2);
           this.parser.setLinePathLastMoveToPosition(pos);
           this.parser.setLinePathPosition(pos);
@@ -130,12 +143,7 @@ public class StrokePath extends OperatorProcessor {
           float quadMinY = MathUtils.round(pathPosition[1], roundingPrecision);
           float quadMaxX = MathUtils.round(quadEnd[0], roundingPrecision);
           float quadMaxY = MathUtils.round(quadEnd[1], roundingPrecision);
-          PdfPosition quadPos = new PdfPosition(page, quadMinX, quadMinY, quadMaxX, quadMaxY);
-
-          PdfShape quadShape = new PdfShape();
-          quadShape.setPosition(quadPos);
-          quadShape.setColor(color);
-          this.parser.handlePdfShape(pdf, page, quadShape);
+          handleSegment(pdf, page, color, subpathBounds, quadMinX, quadMinY, quadMaxX, quadMaxY);
 
           this.parser.setLinePathPosition(quadEnd);
           break;
@@ -146,6 +154,84 @@ public class StrokePath extends OperatorProcessor {
     }
     path.reset();
 
+    // Create the shape of the last subpath.
+    handleSubpath(pdf, page, color, subpathBounds);
+  }
+
+  /**
+   * Handles a single segment of the path, given by its start and end point. Creates a shape for the
+   * segment or, if the segments of each subpath are coalesced, extends the bounds of the current
+   * subpath by the segment. Segments outside the regions of interest are ignored.
+   * 
+   * @param pdf           The PDF document to which the path belongs to.
+   * @param page          The PDF page to which the path belongs to.
+   * @param color         The color of the path.
+   * @param subpathBounds The bounds [minX, minY, maxX, maxY] of the current subpath to extend, or
+   *                      null if the segment should result in its own shape.
+   * @param startX        The x-coordinate of the start point of the segment.
+   * @param startY        The y-coordinate of the start point of the segment.
+   * @param endX          The x-coordinate of the end point of the segment.
+   * @param endY          The y-coordinate of the end point of the segment.
+   */
+  protected void handleSegment(PdfDocument pdf, PdfPage page, PdfColor color,
+          float[] subpathBounds, float startX, float startY, float endX, float endY) {
+    // The shape of a coalesced subpath is checked against the regions of interest as a whole, see
+    // handleSubpath().
+    if (subpathBounds != null) {
+      subpathBounds[0] = Math.min(subpathBounds[0], Math.min(startX, endX));
+      subpathBounds[1] = Math.min(subpathBounds[1], Math.min(startY, endY));
+      subpathBounds[2] = Math.max(subpathBounds[2], Math.max(startX, endX));
+      subpathBounds[3] = Math.max(subpathBounds[3], Math.max(startY, endY));
+      return;
+    }
+
+    // Create the shape only if it overlaps the regions of interest.
+    if (!this.parser.isInRegionOfInterest(startX, startY, endX, endY)) {
+      this.parser.countPaintedElement();
+      return;
+    }
+
+    PdfShape shape = new PdfShape();
+    shape.setPosition(new PdfPosition(page, startX, startY, endX, endY));
+    shape.setColor(color);
+    this.parser.handlePdfShape(pdf, page, shape);
+  }
+
+  /**
+   * Creates a single shape with the given bounds of the current subpath, if the segments of each
+   * subpath are coalesced and the subpath has any segments. Resets the bounds afterwards.
+   * 
+   * @param pdf           The PDF document to which the path belongs to.
+   * @param page          The PDF page to which the path belongs to.
+   * @param color         The color of the path.
+   * @param subpathBounds The bounds [minX, minY, maxX, maxY] of the current subpath, or null if
+   *                      the segments are not coalesced.
+   */
+  protected void handleSubpath(PdfDocument pdf, PdfPage page, PdfColor color,
+          float[] subpathBounds) {
+    if (subpathBounds == null || subpathBounds[0] > subpathBounds[2]) {
+      return;
+    }
+
+    PdfShape shape = new PdfShape();
+    shape.setPosition(new PdfPosition(page, subpathBounds[0], subpathBounds[1], subpathBounds[2],
+            subpathBounds[3]));
+    shape.setColor(color);
+    this.parser.handlePdfShape(pdf, page, shape);
+
+    resetBounds(subpathBounds);
+  }
+
+  /**
+   * Resets the given bounds [minX, minY, maxX, maxY], such that they don't contain any point.
+   * 
+   * @param bounds The bounds to reset.
+   */
+  protected static void resetBounds(float[] bounds) {
+    bounds[0] = Float.POSITIVE_INFINITY;
+    bounds[1] = Float.POSITIVE_INFINITY;
+    bounds[2] = Float.NEGATIVE_INFINITY;
+    bounds[3] = Float.NEGATIVE_INFINITY;
   }
 
   @Override
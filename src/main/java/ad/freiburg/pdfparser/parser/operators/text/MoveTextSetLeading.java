@@ -21,6 +21,33 @@ import ad.freiburg.pdfparser.parser.operators.OperatorProcessor;
  * @author Claudius Korzen
  */
 public class MoveTextSetLeading extends OperatorProcessor {
+  /**
+   * The operator TL (set the text leading), to which this operator is delegated.
+   */
+  protected static final Operator SET_TEXT_LEADING = Operator.getOperator("TL");
+
+  /**
+   * The operator Td (move to the start of the next line, offset by the given operands), to
+   * which this operator is delegated.
+   */
+  protected static final Operator MOVE_TEXT = Operator.getOperator("Td");
+
+  /**
+   * The processor of the operator {@link #SET_TEXT_LEADING}.
+   */
+  protected OperatorProcessor setTextLeading;
+
+  /**
+   * The processor of the operator {@link #MOVE_TEXT}.
+   */
+  protected OperatorProcessor moveText;
+
+  @Override
+  public void bindOperatorProcessors() {
+    this.setTextLeading = this.parser.getOperatorProcessor(SET_TEXT_LEADING.getName());
+    this.moveText = this.parser.getOperatorProcessor(MOVE_TEXT.getName());
+  }
+
   @Override
   public void process(PdfDocument pdf, PdfPage page, Operator op, List<COSBase> args)
           throws IOException {
@@ -33,8 +60,8 @@ public class MoveTextSetLeading extends OperatorProcessor {
 
     ArrayList<COSBase> otherArgs = new ArrayList<COSBase>();
     otherArgs.add(new COSFloat(-1 * y.floatValue()));
-    this.parser.processOperator(pdf, page, "TL", otherArgs);
-    this.parser.processOperator(pdf, page, "Td", args);
+    this.parser.processOperator(pdf, page, this.setTextLeading, SET_TEXT_LEADING, otherArgs);
+    this.parser.processOperator(pdf, page, this.moveText, MOVE_TEXT, args);
   }
 
   @Override
@@ -20,6 +20,22 @@ import ad.freiburg.pdfparser.parser.operators.OperatorProcessor;
  * @author Claudius Korzen
  */
 public class MoveToNextLine extends OperatorProcessor {
+  /**
+   * The operator Td (move to the start of the next line, offset by the given operands), to
+   * which this operator is delegated.
+   */
+  protected static final Operator MOVE_TEXT = Operator.getOperator("Td");
+
+  /**
+   * The processor of the operator {@link #MOVE_TEXT}.
+   */
+  protected OperatorProcessor moveText;
+
+  @Override
+  public void bindOperatorProcessors() {
+    this.moveText = this.parser.getOperatorProcessor(MOVE_TEXT.getName());
+  }
+
   @Override
   public void process(PdfDocument pdf, PdfPage page, Operator op, List<COSBase> args)
           throws IOException {
@@ -28,7 +44,7 @@ public class MoveToNextLine extends OperatorProcessor {
     PDTextState textState = this.parser.getGraphicsState().getTextState();
     otherArgs.add(new COSFloat(0f));
     otherArgs.add(new COSFloat(-1 * textState.getLeading()));
-    this.parser.processOperator(pdf, page, "Td", otherArgs);
+    this.parser.processOperator(pdf, page, this.moveText, MOVE_TEXT, otherArgs);
   }
 
   @Override
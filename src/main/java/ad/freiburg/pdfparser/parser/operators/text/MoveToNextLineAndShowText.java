@@ -15,11 +15,37 @@ import ad.freiburg.pdfparser.parser.operators.OperatorProcessor;
  * @author Claudius Korzen
  */
 public class MoveToNextLineAndShowText extends OperatorProcessor {
+  /**
+   * The operator T* (move to the start of the next line), to which this operator is delegated.
+   */
+  protected static final Operator MOVE_TO_NEXT_LINE = Operator.getOperator("T*");
+
+  /**
+   * The operator Tj (show a text string), to which this operator is delegated.
+   */
+  protected static final Operator SHOW_TEXT = Operator.getOperator("Tj");
+
+  /**
+   * The processor of the operator {@link #MOVE_TO_NEXT_LINE}.
+   */
+  protected OperatorProcessor moveToNextLine;
+
+  /**
+   * The processor of the operator {@link #SHOW_TEXT}.
+   */
+  protected OperatorProcessor showText;
+
+  @Override
+  public void bindOperatorProcessors() {
+    this.moveToNextLine = this.parser.getOperatorProcessor(MOVE_TO_NEXT_LINE.getName());
+    this.showText = this.parser.getOperatorProcessor(SHOW_TEXT.getName());
+  }
+
   @Override
   public void process(PdfDocument pdf, PdfPage page, Operator op, List<COSBase> args)
           throws IOException {
-    this.parser.processOperator(pdf, page, "T*", null);
-    this.parser.processOperator(pdf, page, "Tj", args);
+    this.parser.processOperator(pdf, page, this.moveToNextLine, MOVE_TO_NEXT_LINE, null);
+    this.parser.processOperator(pdf, page, this.showText, SHOW_TEXT, args);
   }
 
   @Override
@@ -18,6 +18,45 @@ import ad.freiburg.pdfparser.parser.operators.OperatorProcessor;
  * @author Claudius Korzen
  */
 public class MoveToNextLineAndShowTextWithSpacing extends OperatorProcessor {
+  /**
+   * The operator Tw (set the word spacing), to which this operator is delegated.
+   */
+  protected static final Operator SET_WORD_SPACING = Operator.getOperator("Tw");
+
+  /**
+   * The operator Tc (set the character spacing), to which this operator is delegated.
+   */
+  protected static final Operator SET_CHARACTER_SPACING = Operator.getOperator("Tc");
+
+  /**
+   * The operator ' (move to the next line and show a text string), to which this operator is
+   * delegated.
+   */
+  protected static final Operator MOVE_TO_NEXT_LINE_AND_SHOW_TEXT = Operator.getOperator("'");
+
+  /**
+   * The processor of the operator {@link #SET_WORD_SPACING}.
+   */
+  protected OperatorProcessor setWordSpacing;
+
+  /**
+   * The processor of the operator {@link #SET_CHARACTER_SPACING}.
+   */
+  protected OperatorProcessor setCharacterSpacing;
+
+  /**
+   * The processor of the operator {@link #MOVE_TO_NEXT_LINE_AND_SHOW_TEXT}.
+   */
+  protected OperatorProcessor moveToNextLineAndShowText;
+
+  @Override
+  public void bindOperatorProcessors() {
+    this.setWordSpacing = this.parser.getOperatorProcessor(SET_WORD_SPACING.getName());
+    this.setCharacterSpacing = this.parser.getOperatorProcessor(SET_CHARACTER_SPACING.getName());
+    this.moveToNextLineAndShowText =
+            this.parser.getOperatorProcessor(MOVE_TO_NEXT_LINE_AND_SHOW_TEXT.getName());
+  }
+
   @Override
   public void process(PdfDocument pdf, PdfPage page, Operator op, List<COSBase> args)
           throws IOException {
@@ -25,9 +64,12 @@ public class MoveToNextLineAndShowTextWithSpacing extends OperatorProcessor {
       throw new MissingOperandException(op, args);
     }
 
-    this.parser.processOperator(pdf, page, "Tw", args.subList(0, 1));
-    this.parser.processOperator(pdf, page, "Tc", args.subList(1, 2));
-    this.parser.processOperator(pdf, page, "'", args.subList(2, 3));
+    this.parser.processOperator(pdf, page, this.setWordSpacing, SET_WORD_SPACING,
+            args.subList(0, 1));
+    this.parser.processOperator(pdf, page, this.setCharacterSpacing, SET_CHARACTER_SPACING,
+            args.subList(1, 2));
+    this.parser.processOperator(pdf, page, this.moveToNextLineAndShowText,
+            MOVE_TO_NEXT_LINE_AND_SHOW_TEXT, args.subList(2, 3));
   }
 
   @Override
@@ -31,7 +31,7 @@ public class SetCharacterSpacing extends OperatorProcessor {
     Object charSpacing = args.get(args.size() - 1);
     if (charSpacing instanceof COSNumber) {
       COSNumber characterSpacing = (COSNumber) charSpacing;
-      PDTextState textState = this.parser.getGraphicsState().getTextState();
+      PDTextState textState = this.parser.getMutableGraphicsState().getTextState();
       textState.setCharacterSpacing(characterSpacing.floatValue());
     }
   }
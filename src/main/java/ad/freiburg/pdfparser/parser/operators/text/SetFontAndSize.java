@@ -29,10 +29,10 @@ public class SetFontAndSize extends OperatorProcessor {
 
     COSName fontName = (COSName) args.get(0);
     float fontSize = ((COSNumber) args.get(1)).floatValue();
-    this.parser.getGraphicsState().getTextState().setFontSize(fontSize);
+    this.parser.getMutableGraphicsState().getTextState().setFontSize(fontSize);
     // TODO: This needs a lot of time (> 400ms) when called the first time. Reimplement it.
     PDFont font = this.parser.getResources().getFont(fontName);
-    this.parser.getGraphicsState().getTextState().setFont(font);
+    this.parser.getMutableGraphicsState().getTextState().setFont(font);
 
   }
 
@@ -26,7 +26,7 @@ public class SetTextHorizontalScaling extends OperatorProcessor {
     }
 
     COSNumber scaling = (COSNumber) args.get(0);
-    PDTextState textState = this.parser.getGraphicsState().getTextState();
+    PDTextState textState = this.parser.getMutableGraphicsState().getTextState();
     textState.setHorizontalScaling(scaling.floatValue());
   }
 
@@ -26,7 +26,7 @@ public class SetTextLeading extends OperatorProcessor {
     }
 
     COSNumber leading = (COSNumber) args.get(0);
-    PDTextState textState = this.parser.getGraphicsState().getTextState();
+    PDTextState textState = this.parser.getMutableGraphicsState().getTextState();
     textState.setLeading(leading.floatValue());
   }
 
@@ -27,7 +27,7 @@ public class SetTextRenderingMode extends OperatorProcessor {
 
     COSNumber mode = (COSNumber) args.get(0);
     RenderingMode renderingMode = RenderingMode.fromInt(mode.intValue());
-    PDTextState textState = this.parser.getGraphicsState().getTextState();
+    PDTextState textState = this.parser.getMutableGraphicsState().getTextState();
     textState.setRenderingMode(renderingMode);
   }
 
@@ -25,7 +25,7 @@ public class SetTextRise extends OperatorProcessor {
     }
 
     COSNumber rise = (COSNumber) args.get(0);
-    PDTextState textState = this.parser.getGraphicsState().getTextState();
+    PDTextState textState = this.parser.getMutableGraphicsState().getTextState();
     textState.setRise(rise.floatValue());
   }
 
@@ -52,6 +52,8 @@ public class SetType3GlyphWidthAndBoundingBox extends OperatorProcessor {
 
     Rectangle boundBox = new Rectangle(minX, minY, maxX, maxY);
     this.parser.setCurrentType3GlyphBoundingBox(boundBox);
+    this.parser.setCurrentType3GlyphSpaceBoundingBox(new float[] {llx.floatValue(),
+            lly.floatValue(), urx.floatValue(), ury.floatValue()});
   }
 
   @Override
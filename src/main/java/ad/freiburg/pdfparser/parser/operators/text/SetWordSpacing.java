@@ -21,7 +21,7 @@ public class SetWordSpacing extends OperatorProcessor {
   public void process(PdfDocument pdf, PdfPage page, Operator op, List<COSBase> args)
           throws IOException {
     COSNumber wordSpacing = (COSNumber) args.get(0);
-    PDTextState textState = this.parser.getGraphicsState().getTextState();
+    PDTextState textState = this.parser.getMutableGraphicsState().getTextState();
     textState.setWordSpacing(wordSpacing.floatValue());
   }
 
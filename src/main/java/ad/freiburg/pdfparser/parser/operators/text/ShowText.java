@@ -4,6 +4,7 @@ import java.awt.geom.Rectangle2D;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.fontbox.afm.CharMetric;
 import org.apache.fontbox.cff.CFFType1Font;
@@ -19,6 +20,7 @@ import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDSimpleFont;
 import org.apache.pdfbox.pdmodel.font.PDType1CFont;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.PDType3CharProc;
 import org.apache.pdfbox.pdmodel.font.PDType3Font;
 import org.apache.pdfbox.pdmodel.font.encoding.Encoding;
 import org.apache.pdfbox.pdmodel.font.encoding.GlyphList;
@@ -31,19 +33,24 @@ import org.apache.pdfbox.util.Vector;
 import ad.freiburg.pdfparser.model.PdfCharacter;
 import ad.freiburg.pdfparser.model.PdfColor;
 import ad.freiburg.pdfparser.model.PdfDocument;
+import ad.freiburg.pdfparser.model.PdfElement;
+import ad.freiburg.pdfparser.model.PdfElementType;
+import ad.freiburg.pdfparser.model.PdfFigure;
 import ad.freiburg.pdfparser.model.PdfFont;
 import ad.freiburg.pdfparser.model.PdfFontFace;
 import ad.freiburg.pdfparser.model.PdfPage;
 import ad.freiburg.pdfparser.model.PdfPosition;
+import ad.freiburg.pdfparser.model.PdfShape;
 import ad.freiburg.pdfparser.model.Point;
 import ad.freiburg.pdfparser.model.Rectangle;
 import ad.freiburg.pdfparser.parser.operators.OperatorProcessor;
 import ad.freiburg.pdfparser.utils.AfmUtils;
 import ad.freiburg.pdfparser.utils.GlyphUtils;
 import ad.freiburg.pdfparser.utils.MathUtils;
-import ad.freiburg.pdfparser.utils.PdfColorManager;
-import ad.freiburg.pdfparser.utils.PdfFontFaceManager;
-import ad.freiburg.pdfparser.utils.PdfFontManager;
+import ad.freiburg.pdfparser.utils.PdfFormCache;
+import ad.freiburg.pdfparser.utils.PdfGlyphBoundingBoxCache;
+import ad.freiburg.pdfparser.utils.PdfResourceRegistry;
+import ad.freiburg.pdfparser.utils.PdfTextManager;
 
 /**
  * Tj: Show a text string.
@@ -57,10 +64,16 @@ public class ShowText extends OperatorProcessor {
   protected static Logger LOG = LogManager.getLogger(ShowText.class);
 
   /**
-   * The number of already processed characters (needed to define the sequence number of a
-   * character).
+   * The buffer for the displacement matrix used on computing the PdfBox bounding box of a glyph,
+   * given by an array [a b c d e f].
    */
-  protected int sequenceNumber;
+  protected float[] displacementMatrix = new float[6];
+
+  /**
+   * The buffer for the text rendering matrix after the displacement of a glyph, given by an array
+   * [a b c d e f].
+   */
+  protected float[] nextTextRenderingMatrix = new float[6];
 
   // ==============================================================================================
 
@@ -83,9 +96,12 @@ public class ShowText extends OperatorProcessor {
     float charSpacing = textState.getCharacterSpacing();
 
     // Put the text state parameters into matrix form.
-    Matrix params = new Matrix(fontSize * horizScaling, 0, // 0
+    float[] params = new float[] {fontSize * horizScaling, 0, // 0
             0, fontSize, // 0
-            0, textState.getRise()); // 1
+            0, textState.getRise()}; // 1
+
+    // The text rendering matrix, updated in place for each glyph.
+    Matrix trm = new Matrix();
 
     // Get the current font from the text state.
     PDFont font = textState.getFont();
@@ -94,6 +110,12 @@ public class ShowText extends OperatorProcessor {
       font = PDType1Font.HELVETICA;
     }
 
+    // Process the glyphs only if characters are extracted. The glyphs of Type3 fonts are processed
+    // anyway if figures or shapes are extracted, since their CharProcs may draw such elements.
+    boolean processGlyphs = this.parser.isExtracted(PdfElementType.CHARACTERS)
+            || (font instanceof PDType3Font && (this.parser.isExtracted(PdfElementType.FIGURES)
+                    || this.parser.isExtracted(PdfElementType.SHAPES)));
+
     // Get the text to show.
     COSString text = (COSString) args.get(0);
     byte[] bytes = text.getBytes();
@@ -105,7 +127,6 @@ public class ShowText extends OperatorProcessor {
         int before = in.available();
         int code = font.readCode(in);
         int codeLength = before - in.available();
-        String unicode = font.toUnicode(code);
 
         // Word spacing shall be applied to every occurrence of the single-byte
         // character code 32 in a string when using a simple font or a
@@ -116,8 +137,7 @@ public class ShowText extends OperatorProcessor {
         }
 
         // Define the text rendering matrix (text space -> device space)
-        Matrix ctm = state.getCurrentTransformationMatrix();
-        Matrix trm = params.multiply(this.parser.getTextMatrix()).multiply(ctm);
+        this.parser.computeTextRenderingMatrix(params, trm);
 
         // get glyph's position vector if this is vertical text
         // changes to vertical text should be tested with PDFBOX-2294 and
@@ -131,10 +151,16 @@ public class ShowText extends OperatorProcessor {
           trm.translate(v);
         }
 
-        // Process the glyph.
-        this.parser.saveGraphicsState();
-        showGlyph(pdf, page, unicode, code, font, trm);
-        this.parser.restoreGraphicsState();
+        // Process the glyph. The graphics state doesn't need to be saved here: showGlyph() doesn't
+        // modify it and the CharProc of a Type3 glyph is processed on an own graphics stack (see
+        // PdfParser.processType3Stream()). Glyphs that lie clearly outside the regions of interest
+        // are skipped before their bounding boxes are computed.
+        if (processGlyphs
+                && (font instanceof PDType3Font || this.parser.isGlyphInRegionOfInterest(trm))) {
+          showGlyph(pdf, page, font.toUnicode(code), code, font, trm);
+        } else {
+          this.parser.countPaintedElement();
+        }
 
         // Get glyph's horizontal and vertical displacements, in text space
         Vector w = font.getDisplacement(code);
@@ -150,8 +176,7 @@ public class ShowText extends OperatorProcessor {
         }
 
         // Update the text matrix.
-        Matrix translate = Matrix.getTranslateInstance(tx, ty);
-        this.parser.getTextMatrix().concatenate(translate);
+        this.parser.translateTextMatrix(tx, ty);
       }
     } catch (Exception e) {
       LOG.warn("An error occurred on processing the character " + text, e);
@@ -254,8 +279,7 @@ public class ShowText extends OperatorProcessor {
     // until this point in PDFTextStreamparser.
     if (unicode == null) {
       if (pdFont instanceof PDSimpleFont) {
-        char c = (char) code;
-        unicode = new String(new char[] {c});
+        unicode = PdfTextManager.getText((char) code);
 
         // TODO: If we need the hasEncoding flag, uncomment the following:
         // // Obtain if the font has an encoding for the given code.
@@ -276,16 +300,20 @@ public class ShowText extends OperatorProcessor {
     }
 
     int precision = this.parser.getFloatingPointPrecision();
+    PdfResourceRegistry registry = this.parser.getResourceRegistry();
+
+    // Use the shared instance of the text, such that the characters don't hold their own copies.
+    unicode = registry.getOrCreateText(unicode);
 
     // Create the color.
     PDColor pdColor = graphicsState.getNonStrokingColor();
     PDColorSpace pdColorSpace = graphicsState.getNonStrokingColorSpace();
-    PdfColor color = PdfColorManager.getOrCreatePdfColor(pdColor, pdColorSpace);
+    PdfColor color = registry.getOrCreatePdfColor(pdColor, pdColorSpace);
 
     // Create the font.
     fontSize = MathUtils.round(fontSize, precision);
-    PdfFont font = PdfFontManager.getOrCreatePdfFont(pdFont);
-    PdfFontFace fontFace = PdfFontFaceManager.getOrCreatePdfFontFace(font, fontSize);
+    PdfFont font = registry.getOrCreatePdfFont(pdFont);
+    PdfFontFace fontFace = registry.getOrCreatePdfFontFace(font, fontSize);
 
     // Create the position.
     box.setMinX(MathUtils.round(box.getMinX(), precision));
@@ -299,7 +327,6 @@ public class ShowText extends OperatorProcessor {
     character.setFontFace(fontFace);
     character.setColor(color);
     character.setPosition(position);
-    character.setExtractionRank(this.sequenceNumber++);
 
     this.parser.handlePdfCharacter(pdf, page, character);
   }
@@ -331,7 +358,23 @@ public class ShowText extends OperatorProcessor {
   }
 
   /**
-   * Computes the bounding box for the given glyph in a Type3 font.
+   * Computes the bounding box for the given glyph in a Type3 font. The bounding box is given by the
+   * d1 operator in the glyph description (the CharProc) of the glyph. The glyph description is
+   * processed only on the first occurrence of the glyph: the bounding box in glyph space is taken
+   * from the glyph bounding box cache of the parser afterwards, and the elements painted by the
+   * glyph description (for example, the filled outline of the glyph) are recorded in glyph space
+   * and replayed from the Type3 glyph cache of the parser, by transforming them with the CTM of
+   * the current occurrence.
+   * 
+   * <p>
+   * The elements are transformed in the same way as on processing the glyph description, so that
+   * replayed elements don't differ from parsed elements. A glyph description is therefore only
+   * recorded if replaying its elements with the CTM of the first occurrence results exactly in the
+   * elements painted on processing it. It is processed again on each occurrence if it can't be
+   * recorded (for example, if it shows text itself or if there are regions of interest), if the
+   * glyph is drawn with other colors, or if the CTM is rotated or mirrored other than on
+   * recording.
+   * </p>
    * 
    * @param pdf  The PDF document to which the glyph belongs to.
    * @param page The PDF page to which the glyph belongs to.
@@ -345,12 +388,219 @@ public class ShowText extends OperatorProcessor {
   protected Rectangle computeType3GlyphBoundingBox(PdfDocument pdf, PdfPage page, int code,
           PDFont font, Matrix trm) throws IOException {
     PDType3Font type3Font = (PDType3Font) font;
-    this.parser.processType3Stream(pdf, page, type3Font.getCharProc(code), trm);
-    return this.parser.getCurrentType3GlyphBoundingBox();
+    PDType3CharProc charProc = type3Font.getCharProc(code);
+
+    // glyph space -> device space, in the same way as on processing the glyph description (where
+    // the CTM is the TRM, concatenated with the font matrix).
+    Matrix ctm = trm.clone();
+    ctm.concatenate(type3Font.getFontMatrix());
+
+    PdfGlyphBoundingBoxCache boxCache = this.parser.getGlyphBoundingBoxCache();
+    PdfFormCache glyphCache = this.parser.getType3GlyphCache();
+    float[] box = boxCache.getBoundingBox(font, code);
+    List<Object> key = charProc != null ? PdfFormCache.computeGlyphKey(charProc.getCOSObject(),
+            this.parser.getGraphicsState()) : null;
+    if (box != null) {
+      PdfFormCache.Recording recording = glyphCache.getRecording(key);
+      if (recording != null && (recording.getElements().isEmpty()
+              || hasSameOrientation(recording.getCtm(), ctm))) {
+        replayType3Glyph(pdf, page, recording, ctm);
+        return toDeviceSpace(box, ctm);
+      }
+    }
+
+    // Decide from the painted elements (not from the extracted ones), since elements of
+    // unrequested types or outside the regions of interest are painted but not extracted.
+    int numElements = this.parser.getNumPaintedElements();
+    List<PdfElement> elements;
+    this.parser.startRecording();
+    try {
+      this.parser.processType3Stream(pdf, page, charProc, trm);
+    } finally {
+      elements = this.parser.stopRecording();
+    }
+    Rectangle glyphBox = this.parser.getCurrentType3GlyphBoundingBox();
+    float[] glyphSpaceBox = this.parser.getCurrentType3GlyphSpaceBoundingBox();
+
+    List<PdfElement> glyphSpaceElements = null;
+    if (this.parser.getNumPaintedElements() == numElements) {
+      glyphSpaceElements = new ArrayList<>(0);
+    } else if (isRecordable(elements)) {
+      glyphSpaceElements = this.parser.processType3StreamInGlyphSpace(pdf, page, charProc);
+      if (!isReplayedExactly(glyphSpaceElements, elements, page, ctm)) {
+        glyphSpaceElements = null;
+      }
+    }
+
+    if (glyphSpaceElements != null) {
+      boxCache.putBoundingBox(font, code, glyphSpaceBox);
+      glyphCache.putRecording(key, new PdfFormCache.Recording(ctm, glyphSpaceElements));
+    }
+    return glyphBox;
+  }
+
+  /**
+   * Transforms the given bounding box of a Type3 glyph from glyph space to device space, in the
+   * same way as the d1 operator does on processing the glyph description.
+   * 
+   * @param box The bounding box in glyph space, given by an array [minX, minY, maxX, maxY], or
+   *            {@link PdfGlyphBoundingBoxCache#NO_BOUNDING_BOX}.
+   * @param ctm The CTM of the glyph description (the TRM, concatenated with the font matrix).
+   * 
+   * @return The bounding box in device space or null, if the glyph has no bounding box.
+   */
+  protected Rectangle toDeviceSpace(float[] box, Matrix ctm) {
+    if (box == PdfGlyphBoundingBoxCache.NO_BOUNDING_BOX) {
+      return null;
+    }
+
+    Point ll = new Point(box[0], box[1]);
+    Point ur = new Point(box[2], box[3]);
+    this.parser.transform(ll, ctm);
+    this.parser.transform(ur, ctm);
+
+    float minX = Math.min(ll.getX(), ur.getX());
+    float minY = Math.min(ll.getY(), ur.getY());
+    float maxX = Math.max(ll.getX(), ur.getX());
+    float maxY = Math.max(ll.getY(), ur.getY());
+
+    return new Rectangle(minX, minY, maxX, maxY);
+  }
+
+  /**
+   * Transforms the given position of an element painted by a Type3 glyph description from glyph
+   * space to device space, in the same way as the points of a path are transformed on processing
+   * the glyph description.
+   * 
+   * @param page     The page of the transformed position.
+   * @param position The position in glyph space.
+   * @param ctm      The CTM of the glyph description (the TRM, concatenated with the font matrix).
+   * 
+   * @return The position in device space.
+   */
+  protected PdfPosition toDeviceSpace(PdfPage page, PdfPosition position, Matrix ctm) {
+    Rectangle rect = position.getRectangle();
+    Point min = new Point(rect.getMinX(), rect.getMinY());
+    Point max = new Point(rect.getMaxX(), rect.getMaxY());
+    this.parser.transform(min, ctm);
+    this.parser.transform(max, ctm);
+
+    int precision = this.parser.getFloatingPointPrecision();
+    return new PdfPosition(page, MathUtils.round(min.getX(), precision),
+            MathUtils.round(min.getY(), precision), MathUtils.round(max.getX(), precision),
+            MathUtils.round(max.getY(), precision));
+  }
+
+  /**
+   * Replays the elements of the given recording of a Type3 glyph description, by passing copies
+   * of the elements, transformed from glyph space to device space, to the handlePdf* callbacks.
+   * 
+   * @param pdf       The PDF document to which the glyph belongs to.
+   * @param page      The PDF page to which the glyph belongs to.
+   * @param recording The recording to replay.
+   * @param ctm       The CTM of the glyph description (the TRM, concatenated with the font
+   *                  matrix).
+   */
+  protected void replayType3Glyph(PdfDocument pdf, PdfPage page, PdfFormCache.Recording recording,
+          Matrix ctm) {
+    PdfResourceRegistry registry = this.parser.getResourceRegistry();
+    for (PdfElement element : recording.getElements()) {
+      PdfPosition position = toDeviceSpace(page, element.getPosition(), ctm);
+      if (element instanceof PdfShape) {
+        // The recorded color may be registered in the registry of another page.
+        PdfColor color = ((PdfShape) element).getColor();
+        PdfShape shape = new PdfShape();
+        shape.setPosition(position);
+        shape.setColor(color != null ? registry.getOrCreatePdfColor(color.getRGB()) : null);
+        this.parser.handlePdfShape(pdf, page, shape);
+      } else if (element instanceof PdfFigure) {
+        PdfFigure figure = new PdfFigure();
+        figure.setPosition(position);
+        this.parser.handlePdfFigure(pdf, page, figure);
+      }
+    }
+  }
+
+  /**
+   * Checks if the elements extracted on processing a Type3 glyph description may be recorded.
+   * This is not the case if elements may have been dropped because they lie outside the regions
+   * of interest (which depends on the position of the glyph), or if the glyph description shows
+   * text (which depends on the text state, see
+   * {@link PdfFormCache#computeGlyphKey(COSBase, PDGraphicsState)}).
+   * 
+   * @param elements The extracted elements.
+   * 
+   * @return True, if the elements may be recorded; false otherwise.
+   */
+  protected boolean isRecordable(List<PdfElement> elements) {
+    if (this.parser.hasRegionsOfInterest()) {
+      return false;
+    }
+    for (PdfElement element : elements) {
+      if (element instanceof PdfCharacter) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if transforming the given elements painted in glyph space with the given CTM results
+   * exactly in the given elements painted in device space. This isn't the case, for example, if
+   * the glyph description modifies the CTM or draws images, whose positions are computed from the
+   * CTM directly.
+   * 
+   * @param glyphSpaceElements The elements painted in glyph space.
+   * @param elements           The elements painted in device space.
+   * @param page               The PDF page to which the glyph belongs to.
+   * @param ctm                The CTM of the glyph description in device space.
+   * 
+   * @return True, if the transformed elements are equal to the given elements; false otherwise.
+   */
+  protected boolean isReplayedExactly(List<PdfElement> glyphSpaceElements,
+          List<PdfElement> elements, PdfPage page, Matrix ctm) {
+    if (glyphSpaceElements.size() != elements.size()) {
+      return false;
+    }
+    for (int i = 0; i < elements.size(); i++) {
+      PdfElement glyphSpaceElement = glyphSpaceElements.get(i);
+      PdfElement element = elements.get(i);
+      if (glyphSpaceElement.getClass() != element.getClass()) {
+        return false;
+      }
+      Rectangle expected = element.getPosition().getRectangle();
+      Rectangle actual = toDeviceSpace(page, glyphSpaceElement.getPosition(), ctm).getRectangle();
+      if (Float.compare(expected.getMinX(), actual.getMinX()) != 0
+              || Float.compare(expected.getMinY(), actual.getMinY()) != 0
+              || Float.compare(expected.getMaxX(), actual.getMaxX()) != 0
+              || Float.compare(expected.getMaxY(), actual.getMaxY()) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the given matrices are neither rotated nor sheared and are mirrored in the same
+   * way, so that the lower left and upper right corners of a rectangle transformed by the one
+   * matrix correspond to the same corners of the rectangle transformed by the other matrix.
+   * 
+   * @param m1 The first matrix.
+   * @param m2 The second matrix.
+   * 
+   * @return True, if the given matrices have the same orientation; false otherwise.
+   */
+  protected static boolean hasSameOrientation(Matrix m1, Matrix m2) {
+    return m1.getShearX() == 0 && m1.getShearY() == 0 && m2.getShearX() == 0
+            && m2.getShearY() == 0 && Math.signum(m1.getScaleX()) == Math.signum(m2.getScaleX())
+            && Math.signum(m1.getScaleY()) == Math.signum(m2.getScaleY());
   }
 
   /**
    * Computes the bounding box for the given glyph, given in any font, different from a Type3 font.
+   * The bounding box in text space is computed only once per font and glyph code and is taken from
+   * the glyph bounding box cache of the parser afterwards, such that only the text rendering matrix
+   * needs to be applied per occurrence of the glyph.
    * 
    * @param code The internal PDF character code for the glyph
    * @param font The font of the glyph.
@@ -365,6 +615,41 @@ public class ShowText extends OperatorProcessor {
       return null;
     }
 
+    PdfGlyphBoundingBoxCache cache = this.parser.getGlyphBoundingBoxCache();
+    float[] box = cache.getBoundingBox(font, code);
+    if (box == null) {
+      box = computeGlyphSpaceBoundingBox(code, font);
+      if (box != null) {
+        box = transformToTextSpace(box, font);
+      }
+      cache.putBoundingBox(font, code, box);
+    }
+
+    if (box == null || box == PdfGlyphBoundingBoxCache.NO_BOUNDING_BOX) {
+      return null;
+    }
+
+    // text space -> device space
+    Point lowerLeft = new Point(box[0], box[1]);
+    Point upperRight = new Point(box[2], box[3]);
+    this.parser.transform(lowerLeft, trm);
+    this.parser.transform(upperRight, trm);
+
+    return new Rectangle(lowerLeft, upperRight);
+  }
+
+  /**
+   * Computes the bounding box for the given glyph in glyph space, given in any font, different
+   * from a Type3 font.
+   * 
+   * @param code The internal PDF character code for the glyph
+   * @param font The font of the glyph.
+   * 
+   * @return The bounding box of the glyph, given by an array [minX, minY, maxX, maxY], or null if
+   *         the bounding box could not be computed.
+   * @throws IOException if something went wrong on computing the bounding box.
+   */
+  protected float[] computeGlyphSpaceBoundingBox(int code, PDFont font) throws IOException {
     // Ensure, that the font is not a Type3 font.
     if (!(font instanceof PDSimpleFont)) {
       return null;
@@ -391,7 +676,7 @@ public class ShowText extends OperatorProcessor {
               float minY = (float) boundingBox.getMinY();
               float maxX = (float) boundingBox.getMaxX();
               float maxY = (float) boundingBox.getMaxY();
-              return transformBoundingBox(minX, minY, maxX, maxY, font, trm);
+              return new float[] {minX, minY, maxX, maxY};
             }
           }
 
@@ -403,7 +688,7 @@ public class ShowText extends OperatorProcessor {
             float minY = boundingBox.getLowerLeftY();
             float maxX = boundingBox.getUpperRightX();
             float maxY = boundingBox.getUpperRightY();
-            return transformBoundingBox(minX, minY, maxX, maxY, font, trm);
+            return new float[] {minX, minY, maxX, maxY};
           }
         }
 
@@ -422,7 +707,7 @@ public class ShowText extends OperatorProcessor {
               float minY = (float) boundingBox.getMinY();
               float maxX = (float) boundingBox.getMaxX();
               float maxY = (float) boundingBox.getMaxY();
-              return transformBoundingBox(minX, minY, maxX, maxY, font, trm);
+              return new float[] {minX, minY, maxX, maxY};
             }
           }
         }
@@ -432,25 +717,16 @@ public class ShowText extends OperatorProcessor {
   }
 
   /**
-   * Transforms the given bounding box into the device space.
+   * Transforms the given bounding box from glyph space into text space.
    * 
-   * @param minX The minX value of the bounding box.
-   * @param minY The minY value of the bounding box.
-   * @param maxX The maxX value of the bounding box.
-   * @param maxY The maxY value of the bounding box.
+   * @param box  The bounding box to transform, given by an array [minX, minY, maxX, maxY].
    * @param font The current font.
-   * @param trm  The current text rendering matrix.
    * 
-   * @return The transformed bounding box.
+   * @return The transformed bounding box, given by an array [minX, minY, maxX, maxY].
    */
-  protected Rectangle transformBoundingBox(float minX, float minY, float maxX, float maxY,
-          PDFont font, Matrix trm) {
-    if (font == null) {
-      return null;
-    }
-
-    Point lowerLeft = new Point(minX, minY);
-    Point upperRight = new Point(maxX, maxY);
+  protected float[] transformToTextSpace(float[] box, PDFont font) {
+    Point lowerLeft = new Point(box[0], box[1]);
+    Point upperRight = new Point(box[2], box[3]);
 
     Matrix fontMatrix = font.getFontMatrix();
 
@@ -458,11 +734,7 @@ public class ShowText extends OperatorProcessor {
     this.parser.transform(lowerLeft, fontMatrix);
     this.parser.transform(upperRight, fontMatrix);
 
-    // text space -> device space
-    this.parser.transform(lowerLeft, trm);
-    this.parser.transform(upperRight, trm);
-
-    return new Rectangle(lowerLeft, upperRight);
+    return new float[] {lowerLeft.getX(), lowerLeft.getY(), upperRight.getX(), upperRight.getY()};
   }
 
   /**
@@ -478,8 +750,6 @@ public class ShowText extends OperatorProcessor {
   protected Rectangle computePdfBoxGlyphBoundingBox(int code, PDFont font, Matrix trm)
           throws IOException {
     PDGraphicsState state = this.parser.getGraphicsState();
-    Matrix ctm = state.getCurrentTransformationMatrix();
-    Matrix textMatrix = this.parser.getTextMatrix();
 
     Vector displacement = font.getDisplacement(code);
     float fontSize = state.getTextState().getFontSize();
@@ -489,20 +759,28 @@ public class ShowText extends OperatorProcessor {
     float ty = 0;
 
     // (modified) combined displacement matrix
-    Matrix td = Matrix.getTranslateInstance(tx, ty);
+    float[] td = this.displacementMatrix;
+    td[0] = 1;
+    td[1] = 0;
+    td[2] = 0;
+    td[3] = 1;
+    td[4] = tx;
+    td[5] = ty;
 
     // (modified) text rendering matrix
-    Matrix nextTrm = td.multiply(textMatrix).multiply(ctm);
+    float[] nextTrm = this.nextTextRenderingMatrix;
+    this.parser.computeTextRenderingMatrix(td, nextTrm);
 
     // 1/2 the bbox is used as the height todo: why?
     float glyphHeight = font.getBoundingBox().getHeight() / 2;
     // transformPoint from glyph space -> text space
-    float height = font.getFontMatrix().transformPoint(0, glyphHeight).y;
+    Matrix fm = font.getFontMatrix();
+    float height = 0 * fm.getShearY() + glyphHeight * fm.getScaleY() + fm.getTranslateY();
     float dyDisplay = height * trm.getScalingFactorY();
 
     float minX = trm.getTranslateX();
     float minY = trm.getTranslateY();
-    float maxX = nextTrm.getTranslateX();
+    float maxX = nextTrm[4];
     float maxY = minY + dyDisplay;
 
     return new Rectangle(minX, minY, maxX, maxY);
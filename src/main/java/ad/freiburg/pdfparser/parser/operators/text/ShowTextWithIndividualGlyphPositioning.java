@@ -10,7 +10,6 @@ import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.cos.COSString;
 import org.apache.pdfbox.pdmodel.graphics.state.PDTextState;
-import org.apache.pdfbox.util.Matrix;
 import ad.freiburg.pdfparser.model.PdfDocument;
 import ad.freiburg.pdfparser.model.PdfPage;
 import ad.freiburg.pdfparser.parser.operators.OperatorProcessor;
@@ -28,6 +27,21 @@ import ad.freiburg.pdfparser.parser.operators.OperatorProcessor;
  * @author Claudius Korzen
  */
 public class ShowTextWithIndividualGlyphPositioning extends OperatorProcessor {
+  /**
+   * The operator Tj (show a text string), to which this operator is delegated.
+   */
+  protected static final Operator SHOW_TEXT = Operator.getOperator("Tj");
+
+  /**
+   * The processor of the operator {@link #SHOW_TEXT}.
+   */
+  protected OperatorProcessor showText;
+
+  @Override
+  public void bindOperatorProcessors() {
+    this.showText = this.parser.getOperatorProcessor(SHOW_TEXT.getName());
+  }
+
   @Override
   public void process(PdfDocument pdf, PdfPage page, Operator op, List<COSBase> args)
           throws IOException {
@@ -40,6 +54,9 @@ public class ShowTextWithIndividualGlyphPositioning extends OperatorProcessor {
     float horizontalScaling = textState.getHorizontalScaling() / 100f;
     boolean isVertical = textState.getFont().isVertical();
 
+    // The operands of the Tj operator, reused for all strings of the array.
+    List<COSBase> otherArgs = new ArrayList<COSBase>(1);
+
     COSArray array = (COSArray) args.get(0);
     for (COSBase obj : array) {
       if (obj instanceof COSNumber) {
@@ -55,12 +72,11 @@ public class ShowTextWithIndividualGlyphPositioning extends OperatorProcessor {
           ty = 0;
         }
 
-        Matrix translate = Matrix.getTranslateInstance(tx, ty);
-        this.parser.getTextMatrix().concatenate(translate);
+        this.parser.translateTextMatrix(tx, ty);
       } else if (obj instanceof COSString) {
-        List<COSBase> otherArgs = new ArrayList<COSBase>();
+        otherArgs.clear();
         otherArgs.add(obj);
-        this.parser.processOperator(pdf, page, "Tj", otherArgs);
+        this.parser.processOperator(pdf, page, this.showText, SHOW_TEXT, otherArgs);
       } else {
         throw new IOException("Unknown type in array for TJ operation:" + obj);
       }
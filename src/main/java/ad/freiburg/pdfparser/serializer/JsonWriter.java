@@ -0,0 +1,402 @@
+package ad.freiburg.pdfparser.serializer;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import org.json.JSONObject;
+
+/**
+ * A writer that writes JSON incrementally to an underlying {@link Writer}, without building any
+ * intermediate object tree. The output is either indented (with one entry per line) or compact
+ * (without any whitespace).
+ *
+ * @author Claudius Korzen
+ */
+public class JsonWriter implements Flushable, Closeable {
+  /**
+   * The whitespace characters used for indentation.
+   */
+  protected static final char[] SPACES = new char[64];
+
+  static {
+    Arrays.fill(SPACES, ' ');
+  }
+
+  /**
+   * The underlying writer.
+   */
+  protected Writer writer;
+
+  /**
+   * The number of spaces to indent each nesting level with (0 for a compact output).
+   */
+  protected int indentLength;
+
+  /**
+   * The nesting level of the root value written by this writer. Needed to write nested JSON
+   * fragments that are inserted into another JSON document afterwards.
+   */
+  protected int baseLevel;
+
+  /**
+   * For each open object or array, a flag indicating whether no entry was written yet.
+   */
+  protected boolean[] isEmpty;
+
+  /**
+   * For each open object or array, a flag indicating whether it is written inline, that is without
+   * line breaks around its (single) entry and without indenting its entry.
+   */
+  protected boolean[] isInline;
+
+  /**
+   * The number of currently open objects and arrays.
+   */
+  protected int depth;
+
+  /**
+   * The number of currently open objects and arrays that are not written inline.
+   */
+  protected int indentDepth;
+
+  /**
+   * A flag indicating whether a name was written, whose value is not written yet.
+   */
+  protected boolean isAfterName;
+
+  // ==============================================================================================
+  // Constructors.
+
+  /**
+   * Creates a new JSON writer.
+   *
+   * @param writer       The underlying writer.
+   * @param indentLength The number of spaces to indent each nesting level with (0 for a compact
+   *                     output).
+   */
+  public JsonWriter(Writer writer, int indentLength) {
+    this(writer, indentLength, 0);
+  }
+
+  /**
+   * Creates a new JSON writer.
+   *
+   * @param writer       The underlying writer.
+   * @param indentLength The number of spaces to indent each nesting level with (0 for a compact
+   *                     output).
+   * @param baseLevel    The nesting level of the root value written by this writer.
+   */
+  public JsonWriter(Writer writer, int indentLength, int baseLevel) {
+    this.writer = writer;
+    this.indentLength = Math.max(0, indentLength);
+    this.baseLevel = baseLevel;
+    this.isEmpty = new boolean[8];
+    this.isInline = new boolean[8];
+    this.depth = 0;
+    this.indentDepth = 0;
+    this.isAfterName = false;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Begins a new JSON object.
+   *
+   * @return This writer.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public JsonWriter beginObject() throws IOException {
+    beforeValue();
+    this.writer.write('{');
+    push(false);
+    return this;
+  }
+
+  /**
+   * Begins a new JSON object that consists of a single entry only. The object is written inline,
+   * like in <code>{"key": value}</code>.
+   *
+   * @return This writer.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public JsonWriter beginSingleEntryObject() throws IOException {
+    beforeValue();
+    this.writer.write('{');
+    push(true);
+    return this;
+  }
+
+  /**
+   * Ends the current JSON object.
+   *
+   * @return This writer.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public JsonWriter endObject() throws IOException {
+    pop('}');
+    return this;
+  }
+
+  /**
+   * Begins a new JSON array.
+   *
+   * @return This writer.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public JsonWriter beginArray() throws IOException {
+    beforeValue();
+    this.writer.write('[');
+    push(false);
+    return this;
+  }
+
+  /**
+   * Ends the current JSON array.
+   *
+   * @return This writer.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public JsonWriter endArray() throws IOException {
+    pop(']');
+    return this;
+  }
+
+  /**
+   * Writes the name of the next entry of the current JSON object.
+   *
+   * @param name The name to write.
+   *
+   * @return This writer.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public JsonWriter name(String name) throws IOException {
+    beforeEntry();
+    JSONObject.quote(name, this.writer);
+    this.writer.write(':');
+    if (this.indentLength > 0) {
+      this.writer.write(' ');
+    }
+    this.isAfterName = true;
+    return this;
+  }
+
+  /**
+   * Writes the given string value.
+   *
+   * @param value The value to write.
+   *
+   * @return This writer.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public JsonWriter value(String value) throws IOException {
+    beforeValue();
+    if (value == null) {
+      this.writer.write("null");
+    } else {
+      JSONObject.quote(value, this.writer);
+    }
+    return this;
+  }
+
+  /**
+   * Writes the given number value. Non-finite numbers are written as null.
+   *
+   * @param value The value to write.
+   *
+   * @return This writer.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public JsonWriter value(Number value) throws IOException {
+    beforeValue();
+    if (value == null || !Double.isFinite(value.doubleValue())) {
+      this.writer.write("null");
+    } else {
+      this.writer.write(JSONObject.numberToString(value));
+    }
+    return this;
+  }
+
+  /**
+   * Writes the given float value. Non-finite numbers are written as null.
+   *
+   * @param value The value to write.
+   *
+   * @return This writer.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public JsonWriter value(float value) throws IOException {
+    // Don't pass primitive floats as double values (yielding in inaccurate numbers).
+    return value(Float.valueOf(value));
+  }
+
+  /**
+   * Writes the given integer value.
+   *
+   * @param value The value to write.
+   *
+   * @return This writer.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public JsonWriter value(int value) throws IOException {
+    beforeValue();
+    this.writer.write(Integer.toString(value));
+    return this;
+  }
+
+  /**
+   * Writes the given boolean value.
+   *
+   * @param value The value to write.
+   *
+   * @return This writer.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public JsonWriter value(boolean value) throws IOException {
+    beforeValue();
+    this.writer.write(value ? "true" : "false");
+    return this;
+  }
+
+  /**
+   * Copies an already serialized JSON value from the given reader to the output, as it is. The
+   * value must be serialized with a base level that is equal to the current nesting level of this
+   * writer.
+   *
+   * @param reader The reader to read the serialized value from.
+   *
+   * @return This writer.
+   *
+   * @throws IOException If reading from the reader or writing to the underlying writer failed.
+   */
+  public JsonWriter rawValue(Reader reader) throws IOException {
+    beforeValue();
+    reader.transferTo(this.writer);
+    return this;
+  }
+
+  /**
+   * Returns the current nesting level of this writer, that is the level of the next value.
+   *
+   * @return The current nesting level.
+   */
+  public int getLevel() {
+    return this.baseLevel + this.indentDepth;
+  }
+
+  // ==============================================================================================
+
+  @Override
+  public void flush() throws IOException {
+    this.writer.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.writer.close();
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Writes the separator and the line break needed before the next value.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  protected void beforeValue() throws IOException {
+    if (this.isAfterName) {
+      // The value belongs to a name, which is already preceded by a separator.
+      this.isAfterName = false;
+      return;
+    }
+    if (this.depth > 0) {
+      beforeEntry();
+    }
+  }
+
+  /**
+   * Writes the separator and the line break needed before the next entry of the current object or
+   * array.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  protected void beforeEntry() throws IOException {
+    if (!this.isEmpty[this.depth - 1]) {
+      this.writer.write(',');
+    }
+    this.isEmpty[this.depth - 1] = false;
+    if (!this.isInline[this.depth - 1]) {
+      newLine(this.indentDepth);
+    }
+  }
+
+  /**
+   * Opens a new object or array.
+   *
+   * @param isInline True, if the object or array should be written inline; false otherwise.
+   */
+  protected void push(boolean isInline) {
+    if (this.depth == this.isEmpty.length) {
+      this.isEmpty = Arrays.copyOf(this.isEmpty, this.depth * 2);
+      this.isInline = Arrays.copyOf(this.isInline, this.depth * 2);
+    }
+    this.isEmpty[this.depth] = true;
+    this.isInline[this.depth] = isInline;
+    this.depth++;
+    if (!isInline) {
+      this.indentDepth++;
+    }
+  }
+
+  /**
+   * Closes the current object or array.
+   *
+   * @param closingChar The character that closes the object or array.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  protected void pop(char closingChar) throws IOException {
+    this.depth--;
+    if (!this.isInline[this.depth]) {
+      this.indentDepth--;
+      if (!this.isEmpty[this.depth]) {
+        newLine(this.indentDepth);
+      }
+    }
+    this.writer.write(closingChar);
+  }
+
+  /**
+   * Writes a line break followed by the indentation for the given nesting depth (if this writer
+   * isn't compact).
+   *
+   * @param depth The nesting depth, relative to the base level.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  protected void newLine(int depth) throws IOException {
+    if (this.indentLength == 0) {
+      return;
+    }
+    this.writer.write('\n');
+    int numSpaces = (this.baseLevel + depth) * this.indentLength;
+    while (numSpaces > 0) {
+      int n = Math.min(numSpaces, SPACES.length);
+      this.writer.write(SPACES, 0, n);
+      numSpaces -= n;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package ad.freiburg.pdfparser.serializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+import ad.freiburg.pdfparser.model.PdfElementType;
+import ad.freiburg.pdfparser.model.PdfPage;
+
+/**
+ * A page listener that serializes the pages of a PDF document in JSON format while they are parsed,
+ * such that the output is the same as the output of {@link PdfJsonSerializer}.
+ *
+ * @author Claudius Korzen
+ */
+public class PdfJsonPageListener extends PdfSpoolingPageListener<JsonWriter> {
+  /**
+   * The serializer to use to serialize the elements.
+   */
+  protected PdfJsonSerializer serializer;
+
+  /**
+   * The JSON writer that writes to the output stream.
+   */
+  protected JsonWriter json;
+
+  // ==============================================================================================
+
+  /**
+   * Creates a new page listener that serializes the pages of a PDF document in JSON format.
+   *
+   * @param serializer The serializer to use to serialize the elements.
+   * @param types      The types of elements to serialize.
+   * @param out        The output stream to write the serialization to.
+   */
+  public PdfJsonPageListener(PdfJsonSerializer serializer, Collection<PdfElementType> types,
+          OutputStream out) {
+    super(types, out);
+    this.serializer = serializer;
+  }
+
+  // ==============================================================================================
+
+  @Override
+  protected String getSpoolFileSuffix() {
+    return ".json";
+  }
+
+  @Override
+  protected JsonWriter beginDocument() throws IOException {
+    this.json = this.serializer.createJsonWriter(this.out);
+    this.json.beginObject();
+    return this.json;
+  }
+
+  @Override
+  protected JsonWriter createSpoolWriter(Writer writer) {
+    return this.serializer.createJsonWriter(writer, this.json.getLevel());
+  }
+
+  @Override
+  protected void beginSection(JsonWriter writer, PdfElementType type, boolean isSpooled)
+          throws IOException {
+    // The name of a spooled section is written on appending the section.
+    if (!isSpooled) {
+      writer.name(type.getName());
+    }
+    writer.beginArray();
+  }
+
+  @Override
+  protected void serializePdfElements(PdfPage page, JsonWriter writer, PdfElementType type)
+          throws IOException {
+    this.serializer.serializePdfElements(page, writer, type);
+  }
+
+  @Override
+  protected void endSection(JsonWriter writer, PdfElementType type) throws IOException {
+    writer.endArray();
+  }
+
+  @Override
+  protected void appendSpooledSection(PdfElementType type, Reader reader) throws IOException {
+    this.json.name(type.getName());
+    this.json.rawValue(reader);
+  }
+
+  @Override
+  protected void endDocument(List<PdfPage> pages) throws IOException {
+    this.serializer.serializeMetadata(this.json, pages);
+    this.json.endObject();
+    this.json.flush();
+  }
+}
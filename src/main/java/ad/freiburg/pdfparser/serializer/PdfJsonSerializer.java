@@ -30,13 +30,17 @@ import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.SHAPE;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.SHAPES;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.TEXT;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.WIDTH;
-import java.io.UnsupportedEncodingException;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import org.json.JSONArray;
-import org.json.JSONObject;
 import ad.freiburg.pdfparser.exception.PdfSerializerException;
 import ad.freiburg.pdfparser.model.PdfCharacter;
 import ad.freiburg.pdfparser.model.PdfColor;
@@ -49,10 +53,12 @@ import ad.freiburg.pdfparser.model.PdfPage;
 import ad.freiburg.pdfparser.model.PdfPosition;
 import ad.freiburg.pdfparser.model.PdfShape;
 import ad.freiburg.pdfparser.model.Rectangle;
+import ad.freiburg.pdfparser.parser.PdfPageListener;
 
 
 /**
- * A serializer to serialize a document in JSON format.
+ * A serializer to serialize a document in JSON format. The serialization is written incrementally
+ * to the output stream, without building any intermediate JSON object tree.
  *
  * @author Claudius Korzen
  */
@@ -62,6 +68,12 @@ public class PdfJsonSerializer implements PdfSerializer {
    */
   protected static final int INDENT_LENGTH = 2;
 
+  /**
+   * A flag indicating whether the serialization should be compact (without any indentation and
+   * line breaks).
+   */
+  protected boolean isCompact;
+
   /**
    * The fonts of the PDF elements which were in fact serialized.
    */
@@ -76,11 +88,22 @@ public class PdfJsonSerializer implements PdfSerializer {
   // Constructors.
 
   /**
-   * Creates a new serializer that serializes a PDF document in JSON format.
+   * Creates a new serializer that serializes a PDF document in (indented) JSON format.
    */
   public PdfJsonSerializer() {
-    this.usedFonts = new HashSet<>();
-    this.usedColors = new HashSet<>();
+    this(false);
+  }
+
+  /**
+   * Creates a new serializer that serializes a PDF document in JSON format.
+   * 
+   * @param isCompact True, if the serialization should be compact (without any indentation and
+   *                  line breaks); false otherwise.
+   */
+  public PdfJsonSerializer(boolean isCompact) {
+    this.isCompact = isCompact;
+    this.usedFonts = new LinkedHashSet<>();
+    this.usedColors = new LinkedHashSet<>();
   }
 
   // ==============================================================================================
@@ -97,110 +120,182 @@ public class PdfJsonSerializer implements PdfSerializer {
       return null;
     }
 
-    // The JSON object to serialize the PDF document.
-    JSONObject json = new JSONObject();
-
-    // Serialize the PDF elements.
-    serializePdfElements(pdf, json, types);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    serialize(pdf, types, out);
+    return out.toByteArray();
+  }
 
-    // Serialize the used fonts.
-    JSONArray fontsJson = serializeFonts(this.usedFonts);
-    if (fontsJson != null && fontsJson.length() > 0) {
-      json.put(FONTS, fontsJson);
+  @Override
+  public void serialize(PdfDocument pdf, Collection<PdfElementType> types, OutputStream out)
+          throws PdfSerializerException {
+    if (pdf == null) {
+      return;
     }
 
-    // Serialize the used colors.
-    JSONArray colorsJson = serializeColors(this.usedColors);
-    if (colorsJson != null && colorsJson.length() > 0) {
-      json.put(COLORS, colorsJson);
-    }
+    try {
+      JsonWriter json = createJsonWriter(out);
+      json.beginObject();
 
-    // Serialize the metadata of the pages.
-    JSONArray pagesJson = serializePages(pdf.getPages());
-    if (pagesJson != null && pagesJson.length() > 0) {
-      json.put(PAGES, pagesJson);
-    }
+      // Serialize the PDF elements.
+      serializePdfElements(pdf, json, types);
 
-    try {
-      // Serialize the JSON object.
-      return json.toString(INDENT_LENGTH).getBytes(DEFAULT_ENCODING);
-    } catch (UnsupportedEncodingException e) {
+      // Serialize the used fonts, the used colors and the metadata of the pages.
+      serializeMetadata(json, pdf.getPages());
+
+      json.endObject();
+      json.flush();
+    } catch (IOException e) {
       throw new PdfSerializerException("Couldn't serialize the PDF document.", e);
     }
   }
 
+  @Override
+  public PdfPageListener createPageListener(Collection<PdfElementType> types, OutputStream out) {
+    return new PdfJsonPageListener(this, types, out);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Creates a JSON writer that writes to the given output stream.
+   * 
+   * @param out The output stream to write to.
+   * 
+   * @return The created JSON writer.
+   */
+  protected JsonWriter createJsonWriter(OutputStream out) {
+    Charset charset = Charset.forName(DEFAULT_ENCODING);
+    return createJsonWriter(new BufferedWriter(new OutputStreamWriter(out, charset)), 0);
+  }
+
+  /**
+   * Creates a JSON writer that writes to the given writer.
+   * 
+   * @param writer    The writer to write to.
+   * @param baseLevel The nesting level of the root value to write.
+   * 
+   * @return The created JSON writer.
+   */
+  protected JsonWriter createJsonWriter(Writer writer, int baseLevel) {
+    return new JsonWriter(writer, this.isCompact ? 0 : INDENT_LENGTH, baseLevel);
+  }
+
   // ==============================================================================================
 
   /**
-   * Serializes the PDF elements of the given types and writes them to the given JSON object.
+   * Serializes the PDF elements of the given types and writes them to the given JSON writer.
    * 
    * @param pdf   The PDF document to process.
-   * @param json  The JSON object to write the serialization to.
+   * @param json  The JSON writer to write the serialization to.
    * @param types The types of elements to serialize.
+   * 
+   * @throws IOException If writing the serialization failed.
    */
-  public void serializePdfElements(PdfDocument pdf, JSONObject json,
-          Collection<PdfElementType> types) {
+  public void serializePdfElements(PdfDocument pdf, JsonWriter json,
+          Collection<PdfElementType> types) throws IOException {
     for (PdfElementType type : types) {
-      switch (type) {
-        case CHARACTERS:
-          serializeCharacters(pdf, json);
-          break;
-        case FIGURES:
-          serializeFigures(pdf, json);
-          break;
-        case SHAPES:
-          serializeShapes(pdf, json);
-          break;
-        default:
-          break;
+      json.name(type.getName());
+      json.beginArray();
+      for (PdfPage page : pdf.getPages()) {
+        serializePdfElements(page, json, type);
       }
+      json.endArray();
     }
   }
 
-  // ==============================================================================================
+  /**
+   * Serializes the PDF elements of the given type contained in the given page and writes them to
+   * the given JSON writer (as entries of the current JSON array).
+   * 
+   * @param page The PDF page to process.
+   * @param json The JSON writer to write the serialization to.
+   * @param type The type of elements to serialize.
+   * 
+   * @throws IOException If writing the serialization failed.
+   */
+  protected void serializePdfElements(PdfPage page, JsonWriter json, PdfElementType type)
+          throws IOException {
+    switch (type) {
+      case CHARACTERS:
+        serializeCharacters(page, json);
+        break;
+      case FIGURES:
+        serializeFigures(page, json);
+        break;
+      case SHAPES:
+        serializeShapes(page, json);
+        break;
+      default:
+        break;
+    }
+  }
 
   /**
-   * Serializes the characters of the given PDF document and writes them to the given JSON object.
+   * Serializes the fonts and the colors of the PDF elements serialized so far, and the metadata of
+   * the given pages.
    * 
-   * @param pdf  The PDF document to process.
-   * @param json The JSON object to write the serialization to.
+   * @param json  The JSON writer to write the serialization to.
+   * @param pages The pages to process.
+   * 
+   * @throws IOException If writing the serialization failed.
    */
-  protected void serializeCharacters(PdfDocument pdf, JSONObject json) {
-    JSONArray result = new JSONArray();
+  protected void serializeMetadata(JsonWriter json, List<PdfPage> pages) throws IOException {
+    // Serialize the used fonts.
+    if (!this.usedFonts.isEmpty()) {
+      json.name(FONTS);
+      serializeFonts(json, this.usedFonts);
+    }
 
-    if (pdf != null) {
-      for (PdfPage page : pdf.getPages()) {
-        for (PdfCharacter character : page.getCharacters()) {
-          JSONObject characterJson = serializeCharacter(character);
-          if (characterJson != null) {
-            result.put(characterJson);
-          }
-        }
-      }
+    // Serialize the used colors.
+    if (hasSerializableColor(this.usedColors)) {
+      json.name(COLORS);
+      serializeColors(json, this.usedColors);
     }
 
-    json.put(CHARACTERS, result);
+    // Serialize the metadata of the pages.
+    if (pages != null && !pages.isEmpty()) {
+      json.name(PAGES);
+      serializePages(json, pages);
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Serializes the characters of the given page and writes them to the given JSON writer.
+   * 
+   * @param page The page to process.
+   * @param json The JSON writer to write the serialization to.
+   * 
+   * @throws IOException If writing the serialization failed.
+   */
+  protected void serializeCharacters(PdfPage page, JsonWriter json) throws IOException {
+    if (page != null) {
+      for (PdfCharacter character : page.getCharacters()) {
+        serializeCharacter(json, character);
+      }
+    }
   }
 
   /**
    * Serializes the given character.
    * 
+   * @param json      The JSON writer to write the serialization to.
    * @param character The character to serialize.
-   *
-   * @return A JSON object representing the serialized character.
+   * 
+   * @throws IOException If writing the serialization failed.
    */
-  protected JSONObject serializeCharacter(PdfCharacter character) {
+  protected void serializeCharacter(JsonWriter json, PdfCharacter character) throws IOException {
     if (character == null) {
-      return null;
+      return;
     }
 
-    JSONObject charJson = new JSONObject();
+    json.beginSingleEntryObject();
+    json.name(CHARACTER);
+    json.beginObject();
 
     // Serialize the position.
-    JSONObject serialized = serializePosition(character.getPosition());
-    if (serialized != null && serialized.length() > 0) {
-      charJson.put(POSITION, serialized);
-    }
+    serializePosition(json, character.getPosition());
 
     // Serialize the font face.
     PdfFontFace fontFace = character.getFontFace();
@@ -210,190 +305,166 @@ public class PdfJsonSerializer implements PdfSerializer {
       if (font != null) {
         String fontId = font.getId();
         if (fontId != null && size > 0) {
-          JSONObject fontJson = new JSONObject();
-          fontJson.put(ID, fontId);
-          fontJson.put(FONTSIZE, size);
-          charJson.put(FONT, fontJson);
+          json.name(FONT);
+          json.beginObject();
+          json.name(ID).value(fontId);
+          json.name(FONTSIZE).value(size);
+          json.endObject();
           this.usedFonts.add(font);
         }
       }
     }
 
     // Serialize the color.
-    PdfColor color = character.getColor();
-    if (color != null) {
-      String colorId = color.getId();
-      if (colorId != null) {
-        JSONObject colorJson = new JSONObject();
-        colorJson.put(ID, colorId);
-        charJson.put(COLOR, colorJson);
-        this.usedColors.add(color);
-      }
-    }
+    serializeColorReference(json, character.getColor());
 
     // Serialize the text.
     String text = character.getText();
     if (text != null) {
-      charJson.put(TEXT, text);
+      json.name(TEXT).value(text);
     }
 
-    JSONObject result = new JSONObject();
-    if (charJson != null && charJson.length() > 0) {
-      result.put(CHARACTER, charJson);
-    }
-
-    return result;
+    json.endObject();
+    json.endObject();
   }
 
   // ==============================================================================================
 
   /**
-   * Serializes the figures of the given PDF document and writes them to the given JSON object.
+   * Serializes the figures of the given page and writes them to the given JSON writer.
+   * 
+   * @param page The page to process.
+   * @param json The JSON writer to write the serialization to.
    * 
-   * @param pdf  The PDF document to process.
-   * @param json The JSON object to write the serialization to.
+   * @throws IOException If writing the serialization failed.
    */
-  protected void serializeFigures(PdfDocument pdf, JSONObject json) {
-    JSONArray result = new JSONArray();
-
-    if (pdf != null) {
-      for (PdfPage page : pdf.getPages()) {
-        for (PdfFigure figure : page.getFigures()) {
-          JSONObject figureJson = serializeFigure(figure);
-          if (figureJson != null) {
-            result.put(figureJson);
-          }
-        }
+  protected void serializeFigures(PdfPage page, JsonWriter json) throws IOException {
+    if (page != null) {
+      for (PdfFigure figure : page.getFigures()) {
+        serializeFigure(json, figure);
       }
     }
-    
-    json.put(FIGURES, result);
   }
 
   /**
    * Serializes the given figure.
    * 
-   * @param character The figure to serialize.
-   *
-   * @return A JSON object representing the serialized figure.
+   * @param json   The JSON writer to write the serialization to.
+   * @param figure The figure to serialize.
+   * 
+   * @throws IOException If writing the serialization failed.
    */
-  protected JSONObject serializeFigure(PdfFigure figure) {
+  protected void serializeFigure(JsonWriter json, PdfFigure figure) throws IOException {
     if (figure == null) {
-      return null;
+      return;
     }
 
-    JSONObject figureJson = new JSONObject();
+    json.beginSingleEntryObject();
+    json.name(FIGURE);
+    json.beginObject();
 
     // Serialize the position.
-    JSONObject serialized = serializePosition(figure.getPosition());
-    if (serialized != null && serialized.length() > 0) {
-      figureJson.put(POSITION, serialized);
-    }
-
-    JSONObject result = new JSONObject();
-    if (figureJson != null && figureJson.length() > 0) {
-      result.put(FIGURE, figureJson);
-    }
+    serializePosition(json, figure.getPosition());
 
-    return result;
+    json.endObject();
+    json.endObject();
   }
 
   // ==============================================================================================
 
   /**
-   * Serializes the shapes of the given PDF document and writes them to the given JSON object.
+   * Serializes the shapes of the given page and writes them to the given JSON writer.
    * 
-   * @param pdf  The PDF document to process.
-   * @param json The JSON object to write the serialization to.
+   * @param page The page to process.
+   * @param json The JSON writer to write the serialization to.
+   * 
+   * @throws IOException If writing the serialization failed.
    */
-  protected void serializeShapes(PdfDocument pdf, JSONObject json) {
-    JSONArray result = new JSONArray();
-
-    if (pdf != null) {
-      for (PdfPage page : pdf.getPages()) {
-        for (PdfShape shape : page.getShapes()) {
-          JSONObject shapeJson = serializeShape(shape);
-          if (shapeJson != null) {
-            result.put(shapeJson);
-          }
-        }
+  protected void serializeShapes(PdfPage page, JsonWriter json) throws IOException {
+    if (page != null) {
+      for (PdfShape shape : page.getShapes()) {
+        serializeShape(json, shape);
       }
     }
-
-    json.put(SHAPES, result);
   }
 
   /**
    * Serializes the given shape.
    * 
+   * @param json  The JSON writer to write the serialization to.
    * @param shape The shape to serialize.
-   *
-   * @return A JSON object representing the serialized shape.
+   * 
+   * @throws IOException If writing the serialization failed.
    */
-  protected JSONObject serializeShape(PdfShape shape) {
-    JSONObject shapeJson = new JSONObject();
-
-    if (shape != null) {
-      // Serialize the position.
-      JSONObject serialized = serializePosition(shape.getPosition());
-      if (serialized != null && serialized.length() > 0) {
-        shapeJson.put(POSITION, serialized);
-      }
-
-      // Serialize the color.
-      PdfColor color = shape.getColor();
-      if (color != null) {
-        String colorId = color.getId();
-        if (colorId != null) {
-          JSONObject colorJson = new JSONObject();
-          colorJson.put(ID, colorId);
-          shapeJson.put(COLOR, colorJson);
-          this.usedColors.add(color);
-        }
-      }
+  protected void serializeShape(JsonWriter json, PdfShape shape) throws IOException {
+    if (shape == null) {
+      return;
     }
 
-    JSONObject result = new JSONObject();
-    if (shapeJson != null && shapeJson.length() > 0) {
-      result.put(SHAPE, shapeJson);
-    }
+    json.beginSingleEntryObject();
+    json.name(SHAPE);
+    json.beginObject();
 
-    return result;
+    // Serialize the position.
+    serializePosition(json, shape.getPosition());
+
+    // Serialize the color.
+    serializeColorReference(json, shape.getColor());
+
+    json.endObject();
+    json.endObject();
   }
 
   // ==============================================================================================
 
   /**
-   * Serializes the given PDF position.
+   * Serializes the given PDF position (as an entry of the current JSON object).
    * 
+   * @param json     The JSON writer to write the serialization to.
    * @param position The position to serialize.
    * 
-   * @return A JSON object representing the serialized position.
+   * @throws IOException If writing the serialization failed.
    */
-  protected JSONObject serializePosition(PdfPosition position) {
+  protected void serializePosition(JsonWriter json, PdfPosition position) throws IOException {
     if (position == null) {
-      return null;
+      return;
     }
 
-    JSONObject positionJson = new JSONObject();
-
     PdfPage page = position.getPage();
     int pageNumber = page.getPageNumber();
     Rectangle rect = position.getRectangle();
 
     if (pageNumber > 0 && rect != null) {
-      positionJson.put(PAGE, pageNumber);
-
-      // If we pass primitive floats here, the values would be casted to
-      // double values (yielding in inaccurate numbers). So transform the
-      // values to Float objects.
-      positionJson.put(MIN_X, Float.valueOf(rect.getMinX()));
-      positionJson.put(MIN_Y, Float.valueOf(rect.getMinY()));
-      positionJson.put(MAX_X, Float.valueOf(rect.getMaxX()));
-      positionJson.put(MAX_Y, Float.valueOf(rect.getMaxY()));
+      json.name(POSITION);
+      json.beginObject();
+      json.name(PAGE).value(pageNumber);
+      json.name(MIN_X).value(rect.getMinX());
+      json.name(MIN_Y).value(rect.getMinY());
+      json.name(MAX_X).value(rect.getMaxX());
+      json.name(MAX_Y).value(rect.getMaxY());
+      json.endObject();
     }
+  }
 
-    return positionJson;
+  /**
+   * Serializes a reference to the given color (as an entry of the current JSON object).
+   * 
+   * @param json  The JSON writer to write the serialization to.
+   * @param color The color to reference.
+   * 
+   * @throws IOException If writing the serialization failed.
+   */
+  protected void serializeColorReference(JsonWriter json, PdfColor color) throws IOException {
+    if (color != null) {
+      String colorId = color.getId();
+      if (colorId != null) {
+        json.name(COLOR);
+        json.beginSingleEntryObject();
+        json.name(ID).value(colorId);
+        json.endObject();
+        this.usedColors.add(color);
+      }
+    }
   }
 
   // ==============================================================================================
@@ -401,53 +472,51 @@ public class PdfJsonSerializer implements PdfSerializer {
   /**
    * Serializes the given fonts.
    * 
+   * @param json  The JSON writer to write the serialization to.
    * @param fonts The fonts to serialize.
    * 
-   * @return A JSON array representing the serialized fonts.
+   * @throws IOException If writing the serialization failed.
    */
-  protected JSONArray serializeFonts(Set<PdfFont> fonts) {
-    JSONArray result = new JSONArray();
+  protected void serializeFonts(JsonWriter json, Set<PdfFont> fonts) throws IOException {
+    json.beginArray();
     if (fonts != null) {
       for (PdfFont font : fonts) {
-        JSONObject fontJson = serializeFont(font);
-        if (fontJson != null && fontJson.length() > 0) {
-          result.put(fontJson);
-        }
+        serializeFont(json, font);
       }
     }
-    return result;
+    json.endArray();
   }
 
   /**
    * Serializes the given font.
    * 
+   * @param json The JSON writer to write the serialization to.
    * @param font The font to serialize.
    * 
-   * @return A JSON object representing the serialized font.
+   * @throws IOException If writing the serialization failed.
    */
-  protected JSONObject serializeFont(PdfFont font) {
-    JSONObject fontJson = new JSONObject();
-    if (font != null) {
-      String fontId = font.getId();
-      if (fontId != null) {
-        fontJson.put(ID, fontId);
-      }
+  protected void serializeFont(JsonWriter json, PdfFont font) throws IOException {
+    if (font == null) {
+      return;
+    }
 
-      String name = font.getNormalizedName();
-      if (name != null) {
-        fontJson.put(NAME, name);
-      }
-        
-      boolean isBold = font.isBold();
-      fontJson.put(IS_BOLD, isBold);
+    json.beginObject();
 
-      boolean isItalic = font.isItalic();
-      fontJson.put(IS_ITALIC, isItalic);
+    String fontId = font.getId();
+    if (fontId != null) {
+      json.name(ID).value(fontId);
+    }
 
-      boolean isType3 = font.isType3Font();
-      fontJson.put(IS_TYPE3, isType3);
+    String name = font.getNormalizedName();
+    if (name != null) {
+      json.name(NAME).value(name);
     }
-    return fontJson;
+
+    json.name(IS_BOLD).value(font.isBold());
+    json.name(IS_ITALIC).value(font.isItalic());
+    json.name(IS_TYPE3).value(font.isType3Font());
+
+    json.endObject();
   }
 
   // ==============================================================================================
@@ -456,47 +525,74 @@ public class PdfJsonSerializer implements PdfSerializer {
   /**
    * Serializes the given colors.
    * 
+   * @param json   The JSON writer to write the serialization to.
    * @param colors The colors to serialize.
    * 
-   * @return A JSON array representing the serialized fonts.
+   * @throws IOException If writing the serialization failed.
    */
-  protected JSONArray serializeColors(Set<PdfColor> colors) {
-    JSONArray result = new JSONArray();
-
+  protected void serializeColors(JsonWriter json, Set<PdfColor> colors) throws IOException {
+    json.beginArray();
     if (colors != null) {
       for (PdfColor color : colors) {
-        if (color != null) {
-          JSONObject colorJson = serializeColor(color);
-          if (colorJson != null && colorJson.length() > 0) {
-            result.put(colorJson);
-          }
-        }
+        serializeColor(json, color);
       }
     }
-    return result;
+    json.endArray();
   }
 
   /**
    * Serializes the given color.
    * 
+   * @param json  The JSON writer to write the serialization to.
    * @param color The color to serialize.
    * 
-   * @return A JSON object representing the serialized color.
+   * @throws IOException If writing the serialization failed.
    */
-  protected JSONObject serializeColor(PdfColor color) {
-    JSONObject colorJson = new JSONObject();
-    if (color != null) {
-      String colorId = color.getId();
-      int[] rgb = color.getRGB();
+  protected void serializeColor(JsonWriter json, PdfColor color) throws IOException {
+    if (!isSerializable(color)) {
+      return;
+    }
+
+    int[] rgb = color.getRGB();
 
-      if (colorId != null && rgb != null && rgb.length == 3) {
-        colorJson.put(ID, colorId);
-        colorJson.put(R, rgb[0]);
-        colorJson.put(G, rgb[1]);
-        colorJson.put(B, rgb[2]);
+    json.beginObject();
+    json.name(ID).value(color.getId());
+    json.name(R).value(rgb[0]);
+    json.name(G).value(rgb[1]);
+    json.name(B).value(rgb[2]);
+    json.endObject();
+  }
+
+  /**
+   * Checks whether the given color has an id and a valid RGB value, that is whether
+   * {@link #serializeColor(JsonWriter, PdfColor)} writes anything for it.
+   * 
+   * @param color The color to check.
+   * 
+   * @return True, if the given color is serializable; false otherwise.
+   */
+  protected boolean isSerializable(PdfColor color) {
+    if (color == null || color.getId() == null) {
+      return false;
+    }
+    int[] rgb = color.getRGB();
+    return rgb != null && rgb.length == 3;
+  }
+
+  /**
+   * Checks whether at least one of the given colors is serializable.
+   * 
+   * @param colors The colors to check.
+   * 
+   * @return True, if at least one of the given colors is serializable; false otherwise.
+   */
+  protected boolean hasSerializableColor(Set<PdfColor> colors) {
+    for (PdfColor color : colors) {
+      if (isSerializable(color)) {
+        return true;
       }
     }
-    return colorJson;
+    return false;
   }
 
   // ==============================================================================================
@@ -505,41 +601,59 @@ public class PdfJsonSerializer implements PdfSerializer {
   /**
    * Serializes the given pages.
    * 
+   * @param json  The JSON writer to write the serialization to.
    * @param pages The pages to serialize.
    * 
-   * @return A JSON array representing the serialized pages.
+   * @throws IOException If writing the serialization failed.
    */
-  protected JSONArray serializePages(List<PdfPage> pages) {
-    JSONArray result = new JSONArray();
-
+  protected void serializePages(JsonWriter json, List<PdfPage> pages) throws IOException {
+    json.beginArray();
     if (pages != null) {
       for (PdfPage page : pages) {
-        if (page != null) {
-          JSONObject pageJson = serializePage(page);
-          if (pageJson != null && pageJson.length() > 0) {
-            result.put(pageJson);
-          }
-        }
+        serializePage(json, page);
       }
     }
-
-    return result;
+    json.endArray();
   }
 
   /**
    * Serializes the given page.
    * 
+   * @param json The JSON writer to write the serialization to.
    * @param page The page to serialize.
    * 
-   * @return A JSON object representing the serialized page.
+   * @throws IOException If writing the serialization failed.
    */
-  protected JSONObject serializePage(PdfPage page) {
-    JSONObject pageJson = new JSONObject();
-    if (page != null) {
-      pageJson.put(ID, page.getPageNumber());
-      pageJson.put(WIDTH, page.getWidth());
-      pageJson.put(HEIGHT, page.getHeight());
+  protected void serializePage(JsonWriter json, PdfPage page) throws IOException {
+    if (page == null) {
+      return;
     }
-    return pageJson;
+
+    json.beginObject();
+    json.name(ID).value(page.getPageNumber());
+    json.name(WIDTH).value(page.getWidth());
+    json.name(HEIGHT).value(page.getHeight());
+    json.endObject();
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns true, if the serialization is compact (without any indentation and line breaks).
+   * 
+   * @return True, if the serialization is compact; false otherwise.
+   */
+  public boolean isCompact() {
+    return this.isCompact;
+  }
+
+  /**
+   * Sets the flag indicating whether the serialization should be compact (without any indentation
+   * and line breaks).
+   * 
+   * @param isCompact True, if the serialization should be compact; false otherwise.
+   */
+  public void setIsCompact(boolean isCompact) {
+    this.isCompact = isCompact;
   }
 }
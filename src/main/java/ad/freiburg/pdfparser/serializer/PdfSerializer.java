@@ -1,9 +1,11 @@
 package ad.freiburg.pdfparser.serializer;
 
+import java.io.OutputStream;
 import java.util.Collection;
 import ad.freiburg.pdfparser.exception.PdfSerializerException;
 import ad.freiburg.pdfparser.model.PdfDocument;
 import ad.freiburg.pdfparser.model.PdfElementType;
+import ad.freiburg.pdfparser.parser.PdfPageListener;
 
 /**
  * A serializer to serialize a PDF document in a specific format.
@@ -33,4 +35,30 @@ public interface PdfSerializer {
    * @throws PdfSerializationException If something went wrong on serializing the PDF document.
    */
   byte[] serialize(PdfDocument pdf, Collection<PdfElementType> types) throws PdfSerializerException;
+
+  /**
+   * Serializes the elements with the given types of the given PDF document and writes the
+   * serialization to the given output stream. The output stream is flushed, but not closed.
+   * 
+   * @param pdf   The PDF document to serialize.
+   * @param types The types of elements to serialize from the PDF document.
+   * @param out   The output stream to write the serialization to.
+   * 
+   * @throws PdfSerializationException If something went wrong on serializing the PDF document.
+   */
+  void serialize(PdfDocument pdf, Collection<PdfElementType> types, OutputStream out)
+          throws PdfSerializerException;
+
+  /**
+   * Creates a listener that serializes the pages of a PDF document while they are parsed, and
+   * writes the serialization to the given output stream. The output is the same as the output of
+   * {@link #serialize(PdfDocument, Collection, OutputStream)}, but only a single page needs to be
+   * kept in memory.
+   * 
+   * @param types The types of elements to serialize.
+   * @param out   The output stream to write the serialization to.
+   * 
+   * @return The created page listener.
+   */
+  PdfPageListener createPageListener(Collection<PdfElementType> types, OutputStream out);
 }
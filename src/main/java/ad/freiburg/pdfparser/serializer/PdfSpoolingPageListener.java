@@ -0,0 +1,263 @@
+package ad.freiburg.pdfparser.serializer;
+
+import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.DEFAULT_ENCODING;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import ad.freiburg.pdfparser.model.PdfDocument;
+import ad.freiburg.pdfparser.model.PdfElementType;
+import ad.freiburg.pdfparser.model.PdfPage;
+import ad.freiburg.pdfparser.parser.PdfPageListener;
+
+/**
+ * A base class for page listeners that serialize the pages of a PDF document while they are parsed.
+ * The elements of the first requested type are written directly to the output stream. The elements
+ * of all other types are spooled to temporary files and appended at the end of the document, such
+ * that the output is the same as the output of the respective serializer while only a single page
+ * needs to be kept in memory. The spool files are deleted at the end of the document, or when the
+ * parsing was aborted.
+ *
+ * @param <W> The type of the writers that write the serialization.
+ *
+ * @author Claudius Korzen
+ */
+public abstract class PdfSpoolingPageListener<W extends Closeable> implements PdfPageListener {
+  /**
+   * The logger.
+   */
+  protected static Logger LOG = LogManager.getLogger(PdfSpoolingPageListener.class);
+
+  /**
+   * The types of the elements to serialize, in the order of their declaration (so that the order
+   * of the sections doesn't depend on the iteration order of the given collection).
+   */
+  protected List<PdfElementType> types;
+
+  /**
+   * The output stream to write the serialization to.
+   */
+  protected OutputStream out;
+
+  /**
+   * The writers per element type, in the order of the types. The first writer is the writer that
+   * writes to the output stream, all other writers write to a spool file.
+   */
+  protected List<W> sectionWriters;
+
+  /**
+   * The spool files per element type, in the order of the types (null for the first type).
+   */
+  protected List<Path> spoolFiles;
+
+  /**
+   * The metadata of the serialized pages (the pages without their elements).
+   */
+  protected List<PdfPage> pages;
+
+  // ==============================================================================================
+
+  /**
+   * Creates a new page listener that serializes the pages of a PDF document.
+   *
+   * @param types The types of elements to serialize.
+   * @param out   The output stream to write the serialization to.
+   */
+  public PdfSpoolingPageListener(Collection<PdfElementType> types, OutputStream out) {
+    this.types = new ArrayList<>(types);
+    Collections.sort(this.types);
+    this.out = out;
+    this.sectionWriters = new ArrayList<>();
+    this.spoolFiles = new ArrayList<>();
+    this.pages = new ArrayList<>();
+  }
+
+  // ==============================================================================================
+
+  @Override
+  public void handlePdfFileStart(PdfDocument pdf) throws IOException {
+    W writer = beginDocument();
+
+    // Create the writers of all sections before beginning any section, so that the spool writers
+    // are created at the nesting level of the sections.
+    for (int i = 0; i < this.types.size(); i++) {
+      if (i == 0) {
+        // Write the elements of the first type directly to the output stream.
+        this.sectionWriters.add(writer);
+        this.spoolFiles.add(null);
+      } else {
+        // Spool the elements of all other types to a temporary file.
+        Path spoolFile = Files.createTempFile("pdf-parser-", getSpoolFileSuffix());
+        this.spoolFiles.add(spoolFile);
+        Charset charset = Charset.forName(DEFAULT_ENCODING);
+        this.sectionWriters.add(createSpoolWriter(Files.newBufferedWriter(spoolFile, charset)));
+      }
+    }
+
+    for (int i = 0; i < this.types.size(); i++) {
+      beginSection(this.sectionWriters.get(i), this.types.get(i), i > 0);
+    }
+  }
+
+  @Override
+  public void handlePdfPage(PdfDocument pdf, PdfPage page) throws IOException {
+    for (int i = 0; i < this.types.size(); i++) {
+      serializePdfElements(page, this.sectionWriters.get(i), this.types.get(i));
+    }
+
+    // Keep only the metadata of the page.
+    PdfPage metadata = new PdfPage(page.getPageNumber());
+    metadata.setWidth(page.getWidth());
+    metadata.setHeight(page.getHeight());
+    this.pages.add(metadata);
+  }
+
+  @Override
+  public void handlePdfFileEnd(PdfDocument pdf) throws IOException {
+    try {
+      for (int i = 0; i < this.types.size(); i++) {
+        W writer = this.sectionWriters.get(i);
+        endSection(writer, this.types.get(i));
+
+        // Append the spooled elements to the output stream.
+        Path spoolFile = this.spoolFiles.get(i);
+        if (spoolFile != null) {
+          writer.close();
+          Charset charset = Charset.forName(DEFAULT_ENCODING);
+          try (Reader reader = Files.newBufferedReader(spoolFile, charset)) {
+            appendSpooledSection(this.types.get(i), reader);
+          }
+        }
+      }
+
+      // Serialize the used fonts, the used colors and the metadata of the pages.
+      endDocument(this.pages);
+    } finally {
+      releaseSpoolFiles();
+    }
+  }
+
+  @Override
+  public void handlePdfFileAbort(PdfDocument pdf) {
+    releaseSpoolFiles();
+  }
+
+  /**
+   * Closes the writers of the spool files and deletes the spool files.
+   */
+  protected void releaseSpoolFiles() {
+    for (int i = 0; i < this.spoolFiles.size(); i++) {
+      Path spoolFile = this.spoolFiles.get(i);
+      if (spoolFile == null) {
+        continue;
+      }
+      if (i < this.sectionWriters.size()) {
+        try {
+          this.sectionWriters.get(i).close();
+        } catch (IOException e) {
+          LOG.warn("Couldn't close the spool file '" + spoolFile + "'.", e);
+        }
+      }
+      try {
+        Files.deleteIfExists(spoolFile);
+      } catch (IOException e) {
+        LOG.warn("Couldn't delete the spool file '" + spoolFile + "'.", e);
+      }
+    }
+    this.sectionWriters.clear();
+    this.spoolFiles.clear();
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the suffix of the spool files (e.g., ".json").
+   *
+   * @return The suffix of the spool files.
+   */
+  protected abstract String getSpoolFileSuffix();
+
+  /**
+   * Creates the writer that writes to the output stream and writes the start of the document.
+   *
+   * @return The created writer.
+   *
+   * @throws IOException If writing the start of the document failed.
+   */
+  protected abstract W beginDocument() throws IOException;
+
+  /**
+   * Creates a writer that writes the elements of a single type to the given writer of a spool
+   * file, such that the written elements can be appended to the output stream afterwards.
+   *
+   * @param writer The writer of the spool file.
+   *
+   * @return The created writer.
+   */
+  protected abstract W createSpoolWriter(Writer writer);
+
+  /**
+   * Writes the start of the section of the elements of the given type.
+   *
+   * @param writer    The writer to write to.
+   * @param type      The type of the elements of the section.
+   * @param isSpooled True, if the section is written to a spool file; false otherwise.
+   *
+   * @throws IOException If writing the start of the section failed.
+   */
+  protected abstract void beginSection(W writer, PdfElementType type, boolean isSpooled)
+          throws IOException;
+
+  /**
+   * Serializes the elements of the given type of the given page.
+   *
+   * @param page   The page to process.
+   * @param writer The writer to write the serialization to.
+   * @param type   The type of the elements to serialize.
+   *
+   * @throws IOException If writing the serialization failed.
+   */
+  protected abstract void serializePdfElements(PdfPage page, W writer, PdfElementType type)
+          throws IOException;
+
+  /**
+   * Writes the end of the section of the elements of the given type.
+   *
+   * @param writer The writer to write to.
+   * @param type   The type of the elements of the section.
+   *
+   * @throws IOException If writing the end of the section failed.
+   */
+  protected abstract void endSection(W writer, PdfElementType type) throws IOException;
+
+  /**
+   * Appends the spooled section of the elements of the given type to the output stream.
+   *
+   * @param type   The type of the elements of the section.
+   * @param reader The reader of the spool file.
+   *
+   * @throws IOException If appending the section failed.
+   */
+  protected abstract void appendSpooledSection(PdfElementType type, Reader reader)
+          throws IOException;
+
+  /**
+   * Writes the metadata of the given pages (and the used fonts and colors) and the end of the
+   * document, and flushes the output stream.
+   *
+   * @param pages The metadata of the serialized pages.
+   *
+   * @throws IOException If writing the end of the document failed.
+   */
+  protected abstract void endDocument(List<PdfPage> pages) throws IOException;
+}
@@ -0,0 +1,97 @@
+package ad.freiburg.pdfparser.serializer;
+
+import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.DOCUMENT;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+import ad.freiburg.pdfparser.model.PdfElementType;
+import ad.freiburg.pdfparser.model.PdfPage;
+
+/**
+ * A page listener that serializes the pages of a PDF document in XML format while they are parsed,
+ * such that the output is the same as the output of {@link PdfXmlSerializer}.
+ *
+ * @author Claudius Korzen
+ */
+public class PdfXmlPageListener extends PdfSpoolingPageListener<XmlWriter> {
+  /**
+   * The indentation level of the sections of the element types.
+   */
+  protected static final int SECTION_LEVEL = 1;
+
+  /**
+   * The serializer to use to serialize the elements.
+   */
+  protected PdfXmlSerializer serializer;
+
+  /**
+   * The XML writer that writes to the output stream.
+   */
+  protected XmlWriter xml;
+
+  // ==============================================================================================
+
+  /**
+   * Creates a new page listener that serializes the pages of a PDF document in XML format.
+   *
+   * @param serializer The serializer to use to serialize the elements.
+   * @param types      The types of elements to serialize.
+   * @param out        The output stream to write the serialization to.
+   */
+  public PdfXmlPageListener(PdfXmlSerializer serializer, Collection<PdfElementType> types,
+          OutputStream out) {
+    super(types, out);
+    this.serializer = serializer;
+  }
+
+  // ==============================================================================================
+
+  @Override
+  protected String getSpoolFileSuffix() {
+    return ".xml";
+  }
+
+  @Override
+  protected XmlWriter beginDocument() throws IOException {
+    this.xml = this.serializer.createXmlWriter(this.out);
+    this.xml.start(DOCUMENT, SECTION_LEVEL - 1);
+    return this.xml;
+  }
+
+  @Override
+  protected XmlWriter createSpoolWriter(Writer writer) {
+    return this.serializer.createXmlWriter(writer, false);
+  }
+
+  @Override
+  protected void beginSection(XmlWriter writer, PdfElementType type, boolean isSpooled)
+          throws IOException {
+    writer.start(type.getName(), SECTION_LEVEL);
+  }
+
+  @Override
+  protected void serializePdfElements(PdfPage page, XmlWriter writer, PdfElementType type)
+          throws IOException {
+    this.serializer.serializePdfElements(SECTION_LEVEL + 1, page, writer, type);
+  }
+
+  @Override
+  protected void endSection(XmlWriter writer, PdfElementType type) throws IOException {
+    writer.end(type.getName(), SECTION_LEVEL);
+  }
+
+  @Override
+  protected void appendSpooledSection(PdfElementType type, Reader reader) throws IOException {
+    this.xml.raw(reader);
+  }
+
+  @Override
+  protected void endDocument(List<PdfPage> pages) throws IOException {
+    this.serializer.serializeMetadata(SECTION_LEVEL, this.xml, pages);
+    this.xml.end(DOCUMENT, SECTION_LEVEL - 1);
+    this.xml.flush();
+  }
+}
@@ -2,13 +2,11 @@ package ad.freiburg.pdfparser.serializer;
 
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.B;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.CHARACTER;
-import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.CHARACTERS;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.COLOR;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.COLORS;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.DEFAULT_ENCODING;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.DOCUMENT;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.FIGURE;
-import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.FIGURES;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.FONT;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.FONTS;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.FONTSIZE;
@@ -29,16 +27,19 @@ import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.POSITION;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.POSITIONS;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.R;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.SHAPE;
-import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.SHAPES;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.TEXT;
 import static ad.freiburg.pdfparser.serializer.PdfSerializerConstants.WIDTH;
-import java.io.UnsupportedEncodingException;
-import java.util.ArrayList;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import org.apache.commons.lang3.StringEscapeUtils;
 import ad.freiburg.pdfparser.exception.PdfSerializerException;
 import ad.freiburg.pdfparser.model.PdfCharacter;
 import ad.freiburg.pdfparser.model.PdfColor;
@@ -51,10 +52,12 @@ import ad.freiburg.pdfparser.model.PdfPage;
 import ad.freiburg.pdfparser.model.PdfPosition;
 import ad.freiburg.pdfparser.model.PdfShape;
 import ad.freiburg.pdfparser.model.Rectangle;
+import ad.freiburg.pdfparser.parser.PdfPageListener;
 
 
 /**
- * An implementation of {@link PdfXmlSerializer} that serializes a PDF document in XML format.
+ * An implementation of {@link PdfXmlSerializer} that serializes a PDF document in XML format. The
+ * serialization is written line by line to the output stream, without keeping the lines in memory.
  *
  * @author Claudius Korzen
  */
@@ -88,8 +91,8 @@ public class PdfXmlSerializer implements PdfSerializer {
    * Creates a new serializer that serializes a PDF document in XML format.
    */
   public PdfXmlSerializer() {
-    this.usedFonts = new HashSet<>();
-    this.usedColors = new HashSet<>();
+    this.usedFonts = new LinkedHashSet<>();
+    this.usedColors = new LinkedHashSet<>();
   }
 
   // ==============================================================================================
@@ -106,309 +109,341 @@ public class PdfXmlSerializer implements PdfSerializer {
       return null;
     }
 
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    serialize(pdf, types, out);
+    return out.toByteArray();
+  }
+
+  @Override
+  public void serialize(PdfDocument pdf, Collection<PdfElementType> types, OutputStream out)
+          throws PdfSerializerException {
+    if (pdf == null) {
+      return;
+    }
+
     // The current indentation level.
     int level = 0;
 
-    // The individual lines of the serialization.
-    List<String> resultLines = new ArrayList<>();
+    try {
+      XmlWriter xml = createXmlWriter(out);
 
-    // Start the XML document.
-    resultLines.add(start(DOCUMENT, level));
+      // Start the XML document.
+      xml.start(DOCUMENT, level);
 
-    // Serialize the PDF elements.
-    List<String> elementsLines = serializePdfElements(level + 1, pdf, types);
-    if (elementsLines != null && !elementsLines.isEmpty()) {
-      resultLines.addAll(elementsLines);
-    }
+      // Serialize the PDF elements.
+      serializePdfElements(level + 1, pdf, xml, types);
 
-    // Serialize the used fonts.
-    List<String> fontsLines = serializeFonts(level + 2, this.usedFonts);
-    if (fontsLines != null && !fontsLines.isEmpty()) {
-      resultLines.add(start(FONTS, level + 1));
-      resultLines.addAll(fontsLines);
-      resultLines.add(end(FONTS, level + 1));
-    }
+      // Serialize the used fonts, the used colors and the metadata of the pages.
+      serializeMetadata(level + 1, xml, pdf.getPages());
 
-    // Serialize the used colors.
-    List<String> colorsLines = serializeColors(level + 2, this.usedColors);
-    if (colorsLines != null && !colorsLines.isEmpty()) {
-      resultLines.add(start(COLORS, level + 1));
-      resultLines.addAll(colorsLines);
-      resultLines.add(end(COLORS, level + 1));
+      // End the XML document.
+      xml.end(DOCUMENT, level);
+      xml.flush();
+    } catch (IOException e) {
+      throw new PdfSerializerException("Couldn't serialize the PDF document.", e);
     }
+  }
 
-    // Serialize the metadata of the pages.
-    List<String> pagesLines = serializePages(level + 2, pdf.getPages());
-    if (pagesLines != null && !pagesLines.isEmpty()) {
-      resultLines.add(start(PAGES, level + 1));
-      resultLines.addAll(pagesLines);
-      resultLines.add(end(PAGES, level + 1));
-    }
+  @Override
+  public PdfPageListener createPageListener(Collection<PdfElementType> types, OutputStream out) {
+    return new PdfXmlPageListener(this, types, out);
+  }
 
-    // End the XML document.
-    resultLines.add(end(DOCUMENT, level));
+  // ==============================================================================================
 
-    try {
-      return String.join(LINE_DELIMITER, resultLines).getBytes(DEFAULT_ENCODING);
-    } catch (UnsupportedEncodingException e) {
-      throw new PdfSerializerException("Couldn't serialize the PDF document.", e);
-    }
+  /**
+   * Creates an XML writer that writes to the given output stream.
+   * 
+   * @param out The output stream to write to.
+   * 
+   * @return The created XML writer.
+   */
+  protected XmlWriter createXmlWriter(OutputStream out) {
+    Charset charset = Charset.forName(DEFAULT_ENCODING);
+    return createXmlWriter(new BufferedWriter(new OutputStreamWriter(out, charset)), true);
+  }
+
+  /**
+   * Creates an XML writer that writes to the given writer.
+   * 
+   * @param writer      The writer to write to.
+   * @param isFirstLine True, if the first line to write is the first line of the document; false
+   *                    if the lines are inserted into another document afterwards.
+   * 
+   * @return The created XML writer.
+   */
+  protected XmlWriter createXmlWriter(Writer writer, boolean isFirstLine) {
+    return new XmlWriter(writer, INDENT_LENGTH, LINE_DELIMITER, isFirstLine);
   }
 
   // ==============================================================================================
 
   /**
-   * Serializes the PDF elements of the given types.
+   * Serializes the PDF elements of the given types and writes them to the given XML writer.
    * 
+   * @param level The current indentation level.
    * @param pdf   The PDF document to process.
+   * @param xml   The XML writer to write the serialization to.
    * @param types The types of elements to serialize.
    * 
-   * @return A list of text lines representing the serialized elements.
+   * @throws IOException If writing the serialization failed.
    */
-  protected List<String> serializePdfElements(int level, PdfDocument pdf,
-          Collection<PdfElementType> types) {
-    List<String> lines = new ArrayList<>();
+  protected void serializePdfElements(int level, PdfDocument pdf, XmlWriter xml,
+          Collection<PdfElementType> types) throws IOException {
     for (PdfElementType type : types) {
-      switch (type) {
-        case CHARACTERS:
-          lines.addAll(serializeCharacters(level, pdf));
-          break;
-        case FIGURES:
-          lines.addAll(serializeFigures(level, pdf));
-          break;
-        case SHAPES:
-          lines.addAll(serializeShapes(level, pdf));
-          break;
-        default:
-          break;
+      xml.start(type.getName(), level);
+      for (PdfPage page : pdf.getPages()) {
+        serializePdfElements(level + 1, page, xml, type);
       }
+      xml.end(type.getName(), level);
     }
-    return lines;
   }
 
-  // ==============================================================================================
+  /**
+   * Serializes the PDF elements of the given type contained in the given page and writes them to
+   * the given XML writer.
+   * 
+   * @param level The current indentation level.
+   * @param page  The PDF page to process.
+   * @param xml   The XML writer to write the serialization to.
+   * @param type  The type of elements to serialize.
+   * 
+   * @throws IOException If writing the serialization failed.
+   */
+  protected void serializePdfElements(int level, PdfPage page, XmlWriter xml, PdfElementType type)
+          throws IOException {
+    switch (type) {
+      case CHARACTERS:
+        serializeCharacters(level, page, xml);
+        break;
+      case FIGURES:
+        serializeFigures(level, page, xml);
+        break;
+      case SHAPES:
+        serializeShapes(level, page, xml);
+        break;
+      default:
+        break;
+    }
+  }
 
   /**
-   * Serializes the characters of the given PDF document.
+   * Serializes the fonts and the colors of the PDF elements serialized so far, and the metadata of
+   * the given pages.
    * 
    * @param level The current indentation level.
-   * @param pdf   The PDF document to process.
+   * @param xml   The XML writer to write the serialization to.
+   * @param pages The pages to process.
    * 
-   * @return A list of text lines representing the serialized characters.
+   * @throws IOException If writing the serialization failed.
    */
-  protected List<String> serializeCharacters(int level, PdfDocument pdf) {
-    List<String> result = new ArrayList<>();
+  protected void serializeMetadata(int level, XmlWriter xml, List<PdfPage> pages)
+          throws IOException {
+    // Serialize the used fonts.
+    if (!this.usedFonts.isEmpty()) {
+      xml.start(FONTS, level);
+      serializeFonts(level + 1, xml, this.usedFonts);
+      xml.end(FONTS, level);
+    }
 
-    if (pdf != null) {
-      result.add(start(CHARACTERS, level));
-      for (PdfPage page : pdf.getPages()) {
-        for (PdfCharacter character : page.getCharacters()) {
-          List<String> characterLines = serializeCharacter(level + 1, character);
-          if (characterLines != null) {
-            result.addAll(characterLines);
-          }
-        }
-      }
-      result.add(end(CHARACTERS, level));
+    // Serialize the used colors.
+    if (hasSerializableColor(this.usedColors)) {
+      xml.start(COLORS, level);
+      serializeColors(level + 1, xml, this.usedColors);
+      xml.end(COLORS, level);
     }
 
-    return result;
+    // Serialize the metadata of the pages.
+    if (pages != null && !pages.isEmpty()) {
+      xml.start(PAGES, level);
+      serializePages(level + 1, xml, pages);
+      xml.end(PAGES, level);
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Serializes the characters of the given page.
+   * 
+   * @param level The current indentation level.
+   * @param page  The page to process.
+   * @param xml   The XML writer to write the serialization to.
+   * 
+   * @throws IOException If writing the serialization failed.
+   */
+  protected void serializeCharacters(int level, PdfPage page, XmlWriter xml) throws IOException {
+    if (page != null) {
+      for (PdfCharacter character : page.getCharacters()) {
+        serializeCharacter(level, xml, character);
+      }
+    }
   }
 
   /**
    * Serializes the given character.
    * 
    * @param level     The current indentation level.
+   * @param xml       The XML writer to write the serialization to.
    * @param character The character to serialize.
    *
-   * @return A list of text lines representing the serialized characters.
+   * @throws IOException If writing the serialization failed.
    */
-  protected List<String> serializeCharacter(int level, PdfCharacter character) {
+  protected void serializeCharacter(int level, XmlWriter xml, PdfCharacter character)
+          throws IOException {
     if (character == null) {
-      return null;
+      return;
     }
 
-    List<String> charLines = new ArrayList<>();
+    PdfPosition position = character.getPosition();
+    boolean hasPosition = isSerializable(position);
+
+    PdfFontFace fontFace = character.getFontFace();
+    PdfFont font = fontFace != null ? fontFace.getFont() : null;
+    float size = fontFace != null ? fontFace.getFontSize() : 0;
+    boolean hasFont = font != null && font.getId() != null && size > 0;
+
+    PdfColor color = character.getColor();
+    boolean hasColor = color != null && color.getId() != null;
+
+    String text = character.getText();
+    boolean hasText = text != null;
+
+    // Don't write an empty character element.
+    if (!hasPosition && !hasFont && !hasColor && !hasText) {
+      return;
+    }
+
+    xml.start(CHARACTER, level);
+
     // Serialize the position.
-    List<String> serialized = serializePosition(level + 1, character.getPosition());
-    if (serialized != null) {
-      charLines.addAll(serialized);
+    if (hasPosition) {
+      serializePosition(level + 1, xml, position);
     }
 
     // Serialize the font face.
-    PdfFontFace fontFace = character.getFontFace();
-    if (fontFace != null) {
-      PdfFont font = fontFace.getFont();
-      float size = fontFace.getFontSize();
-      if (font != null) {
-        String fontId = font.getId();
-        if (fontId != null && size > 0) {
-          charLines.add(start(FONT, level + 1));
-          charLines.add(start(ID, level + 2) + text(fontId) + end(ID));
-          charLines.add(start(FONTSIZE, level + 2) + text(size) + end(FONTSIZE));
-          charLines.add(end(FONT, level + 1));
-          this.usedFonts.add(font);
-        }
-      }
+    if (hasFont) {
+      xml.start(FONT, level + 1);
+      xml.element(ID, font.getId(), level + 2);
+      xml.element(FONTSIZE, size, level + 2);
+      xml.end(FONT, level + 1);
+      this.usedFonts.add(font);
     }
 
     // Serialize the color.
-    PdfColor color = character.getColor();
-    if (color != null) {
-      String colorId = color.getId();
-      if (colorId != null) {
-        charLines.add(start(COLOR, level + 1));
-        charLines.add(start(ID, level + 2) + text(colorId) + end(ID));
-        charLines.add(end(COLOR, level + 1));
-        this.usedColors.add(color);
-      }
+    if (hasColor) {
+      serializeColorReference(level + 1, xml, color);
     }
 
     // Serialize the text.
-    String text = character.getText();
-    if (text != null) {
-      charLines.add(start(TEXT, level + 1) + text(text) + end(TEXT));
-    }
-
-    List<String> result = new ArrayList<>();
-    if (charLines != null && !charLines.isEmpty()) {
-      result.add(start(CHARACTER, level));
-      result.addAll(charLines);
-      result.add(end(CHARACTER, level));
+    if (hasText) {
+      xml.element(TEXT, text, level + 1);
     }
 
-    return result;
+    xml.end(CHARACTER, level);
   }
 
   // ==============================================================================================
 
   /**
-   * Serializes the figures of the given PDF document.
+   * Serializes the figures of the given page.
    * 
    * @param level The current indentation level.
-   * @param pdf   The PDF document to process.
+   * @param page  The page to process.
+   * @param xml   The XML writer to write the serialization to.
    * 
-   * @return A list of text lines representing the serialized figures.
+   * @throws IOException If writing the serialization failed.
    */
-  protected List<String> serializeFigures(int level, PdfDocument pdf) {
-    List<String> result = new ArrayList<>();
-
-    if (pdf != null) {
-      result.add(start(FIGURES, level));
-      for (PdfPage page : pdf.getPages()) {
-        for (PdfFigure figure : page.getFigures()) {
-          List<String> figureLines = serializeFigure(level + 1, figure);
-          if (figureLines != null) {
-            result.addAll(figureLines);
-          }
-        }
+  protected void serializeFigures(int level, PdfPage page, XmlWriter xml) throws IOException {
+    if (page != null) {
+      for (PdfFigure figure : page.getFigures()) {
+        serializeFigure(level, xml, figure);
       }
-      result.add(end(FIGURES, level));
     }
-
-    return result;
   }
 
   /**
    * Serializes the given figure.
    * 
    * @param level  The current indentation level.
+   * @param xml    The XML writer to write the serialization to.
    * @param figure The figure to serialize.
    *
-   * @return A list of text lines representing the serialized figure.
+   * @throws IOException If writing the serialization failed.
    */
-  protected List<String> serializeFigure(int level, PdfFigure figure) {
+  protected void serializeFigure(int level, XmlWriter xml, PdfFigure figure) throws IOException {
     if (figure == null) {
-      return null;
+      return;
     }
 
-    List<String> figureLines = new ArrayList<>();
-
-    // Serialize the position.
-    List<String> serialized = serializePosition(level + 1, figure.getPosition());
-    if (serialized != null) {
-      figureLines.addAll(serialized);
+    // Don't write an empty figure element.
+    PdfPosition position = figure.getPosition();
+    if (!isSerializable(position)) {
+      return;
     }
 
-    List<String> result = new ArrayList<>();
-    if (figureLines != null && !figureLines.isEmpty()) {
-      result.add(start(FIGURE, level));
-      result.addAll(figureLines);
-      result.add(end(FIGURE, level));
-    }
-    return result;
+    xml.start(FIGURE, level);
+    serializePosition(level + 1, xml, position);
+    xml.end(FIGURE, level);
   }
 
   // ==============================================================================================
 
   /**
-   * Serializes the shapes of the given PDF document.
+   * Serializes the shapes of the given page.
    * 
    * @param level The current indentation level.
-   * @param pdf   The PDF document to process.
+   * @param page  The page to process.
+   * @param xml   The XML writer to write the serialization to.
    * 
-   * @return A list of text lines representing the text lines of the serialized shapes.
+   * @throws IOException If writing the serialization failed.
    */
-  protected List<String> serializeShapes(int level, PdfDocument pdf) {
-    List<String> result = new ArrayList<>();
-
-    if (pdf != null) {
-      result.add(start(SHAPES, level));
-      for (PdfPage page : pdf.getPages()) {
-        for (PdfShape shape : page.getShapes()) {
-          List<String> shapeLines = serializeShape(level + 1, shape);
-          if (shapeLines != null) {
-            result.addAll(shapeLines);
-          }
-        }
+  protected void serializeShapes(int level, PdfPage page, XmlWriter xml) throws IOException {
+    if (page != null) {
+      for (PdfShape shape : page.getShapes()) {
+        serializeShape(level, xml, shape);
       }
-      result.add(end(SHAPES, level));
     }
-
-    return result;
   }
 
   /**
    * Serializes the given shape.
    * 
    * @param level The current indentation level.
+   * @param xml   The XML writer to write the serialization to.
    * @param shape The shape to serialize.
    *
-   * @return A list of text lines representing the serialized shape.
+   * @throws IOException If writing the serialization failed.
    */
-  protected List<String> serializeShape(int level, PdfShape shape) {
+  protected void serializeShape(int level, XmlWriter xml, PdfShape shape) throws IOException {
     if (shape == null) {
-      return null;
+      return;
+    }
+
+    PdfPosition position = shape.getPosition();
+    boolean hasPosition = isSerializable(position);
+
+    PdfColor color = shape.getColor();
+    boolean hasColor = color != null && color.getId() != null;
+
+    // Don't write an empty shape element.
+    if (!hasPosition && !hasColor) {
+      return;
     }
 
-    List<String> shapeLines = new ArrayList<>();
+    xml.start(SHAPE, level);
 
     // Serialize the position of the shape, if there is any.
-    List<String> serialized = serializePosition(level + 1, shape.getPosition());
-    if (serialized != null) {
-      shapeLines.addAll(serialized);
+    if (hasPosition) {
+      serializePosition(level + 1, xml, position);
     }
 
     // Serialize the color of the shape, if there is any.
-    PdfColor color = shape.getColor();
-    if (color != null) {
-      String colorId = color.getId();
-      if (colorId != null) {
-        shapeLines.add(start(COLOR, level + 1));
-        shapeLines.add(start(ID, level + 2) + text(colorId) + end(ID));
-        shapeLines.add(end(COLOR, level + 1));
-        this.usedColors.add(color);
-      }
+    if (hasColor) {
+      serializeColorReference(level + 1, xml, color);
     }
 
-    // Wrap the serialized lines with a tag that describes a shape.
-    List<String> result = new ArrayList<>();
-    if (shapeLines != null && !shapeLines.isEmpty()) {
-      result.add(start(SHAPE, level));
-      result.addAll(shapeLines);
-      result.add(end(SHAPE, level));
-    }
-    return result;
+    xml.end(SHAPE, level);
   }
 
   // ==============================================================================================
@@ -417,32 +452,58 @@ public class PdfXmlSerializer implements PdfSerializer {
    * Serializes the given PDF position.
    * 
    * @param level    The current indentation level.
+   * @param xml      The XML writer to write the serialization to.
    * @param position The position to serialize.
    * 
-   * @return A list of text lines representing the serialized position.
+   * @throws IOException If writing the serialization failed.
    */
-  protected List<String> serializePosition(int level, PdfPosition position) {
-    if (position == null) {
-      return null;
+  protected void serializePosition(int level, XmlWriter xml, PdfPosition position)
+          throws IOException {
+    if (!isSerializable(position)) {
+      return;
     }
 
-    List<String> result = new ArrayList<>();
-
-    PdfPage page = position.getPage();
-    int pageNumber = page.getPageNumber();
     Rectangle rect = position.getRectangle();
 
-    if (pageNumber > 0 && rect != null) {
-      result.add(start(POSITION, level));
-      result.add(start(PAGE, level + 1) + text(pageNumber) + end(PAGE));
-      result.add(start(MIN_X, level + 1) + text(rect.getMinX()) + end(MIN_X));
-      result.add(start(MIN_Y, level + 1) + text(rect.getMinY()) + end(MIN_Y));
-      result.add(start(MAX_X, level + 1) + text(rect.getMaxX()) + end(MAX_X));
-      result.add(start(MAX_Y, level + 1) + text(rect.getMaxY()) + end(MAX_Y));
-      result.add(end(POSITION, level));
+    xml.start(POSITION, level);
+    xml.element(PAGE, position.getPage().getPageNumber(), level + 1);
+    xml.element(MIN_X, rect.getMinX(), level + 1);
+    xml.element(MIN_Y, rect.getMinY(), level + 1);
+    xml.element(MAX_X, rect.getMaxX(), level + 1);
+    xml.element(MAX_Y, rect.getMaxY(), level + 1);
+    xml.end(POSITION, level);
+  }
+
+  /**
+   * Checks whether the given position has a valid page number and a rectangle, that is whether
+   * {@link #serializePosition(int, XmlWriter, PdfPosition)} writes anything for it.
+   * 
+   * @param position The position to check.
+   * 
+   * @return True, if the given position is serializable; false otherwise.
+   */
+  protected boolean isSerializable(PdfPosition position) {
+    if (position == null) {
+      return false;
     }
+    return position.getPage().getPageNumber() > 0 && position.getRectangle() != null;
+  }
 
-    return result;
+  /**
+   * Serializes a reference to the given color.
+   * 
+   * @param level The current indentation level.
+   * @param xml   The XML writer to write the serialization to.
+   * @param color The color to reference.
+   * 
+   * @throws IOException If writing the serialization failed.
+   */
+  protected void serializeColorReference(int level, XmlWriter xml, PdfColor color)
+          throws IOException {
+    xml.start(COLOR, level);
+    xml.element(ID, color.getId(), level + 1);
+    xml.end(COLOR, level);
+    this.usedColors.add(color);
   }
 
   // ==============================================================================================
@@ -451,61 +512,50 @@ public class PdfXmlSerializer implements PdfSerializer {
    * Serializes the given fonts.
    *
    * @param level The current indentation level.
+   * @param xml   The XML writer to write the serialization to.
    * @param fonts The fonts to serialize.
    * 
-   * @return A list of text lines representing the serialized fonts.
+   * @throws IOException If writing the serialization failed.
    */
-  protected List<String> serializeFonts(int level, Set<PdfFont> fonts) {
-    List<String> result = new ArrayList<>();
+  protected void serializeFonts(int level, XmlWriter xml, Set<PdfFont> fonts) throws IOException {
     if (fonts != null) {
       for (PdfFont font : fonts) {
-        List<String> fontLines = serializeFont(level, font);
-        if (fontLines != null) {
-          result.addAll(fontLines);
-        }
+        serializeFont(level, xml, font);
       }
     }
-    return result;
   }
 
   /**
    * Serializes the given font.
    * 
    * @param level The current indentation level.
+   * @param xml   The XML writer to write the serialization to.
    * @param font  The font to serialize.
    * 
-   * @return A list of strings representing the serialized font.
+   * @throws IOException If writing the serialization failed.
    */
-  protected List<String> serializeFont(int level, PdfFont font) {
+  protected void serializeFont(int level, XmlWriter xml, PdfFont font) throws IOException {
     if (font == null) {
-      return null;
+      return;
     }
-    List<String> result = new ArrayList<>();
-    
-    result.add(start(FONT, level));
-    
+
+    xml.start(FONT, level);
+
     String fontId = font.getId();
     if (fontId != null) {
-      result.add(start(ID, level + 1) + text(fontId) + end(ID));
+      xml.element(ID, fontId, level + 1);
     }
 
     String fontName = font.getNormalizedName();
     if (fontName != null) {
-      result.add(start(NAME, level + 1) + text(fontName) + end(NAME));
+      xml.element(NAME, fontName, level + 1);
     }
-    
-    boolean isBold = font.isBold();
-    result.add(start(IS_BOLD, level + 1) + text(isBold) + end(IS_BOLD));
-      
-    boolean isItalic = font.isItalic();
-    result.add(start(IS_ITALIC, level + 1) + text(isItalic) + end(IS_ITALIC));
 
-    boolean isType3 = font.isType3Font();
-    result.add(start(IS_TYPE3, level + 1) + text(isType3) + end(IS_TYPE3));
+    xml.element(IS_BOLD, font.isBold(), level + 1);
+    xml.element(IS_ITALIC, font.isItalic(), level + 1);
+    xml.element(IS_TYPE3, font.isType3Font(), level + 1);
 
-    result.add(end(FONT, level));
-    
-    return result;
+    xml.end(FONT, level);
   }
 
   // ==============================================================================================
@@ -515,51 +565,73 @@ public class PdfXmlSerializer implements PdfSerializer {
    * Serializes the given colors.
    * 
    * @param level  The current indentation level.
+   * @param xml    The XML writer to write the serialization to.
    * @param colors The colors to serialize.
    * 
-   * @return A list of text lines representing the serialized colors.
+   * @throws IOException If writing the serialization failed.
    */
-  protected List<String> serializeColors(int level, Set<PdfColor> colors) {
-    List<String> result = new ArrayList<>();
-
+  protected void serializeColors(int level, XmlWriter xml, Set<PdfColor> colors)
+          throws IOException {
     if (colors != null) {
       for (PdfColor color : colors) {
-        if (color != null) {
-          List<String> colorLines = serializeColor(level, color);
-          if (colorLines != null) {
-            result.addAll(colorLines);
-          }
-        }
+        serializeColor(level, xml, color);
       }
     }
-    return result;
   }
 
   /**
    * Serializes the given color.
    * 
    * @param level The current indentation level.
+   * @param xml   The XML writer to write the serialization to.
    * @param color The color to serialize.
    * 
-   * @return A list of text lines representing the serialized color.
+   * @throws IOException If writing the serialization failed.
    */
-  protected List<String> serializeColor(int level, PdfColor color) {
-    if (color == null) {
-      return null;
+  protected void serializeColor(int level, XmlWriter xml, PdfColor color) throws IOException {
+    if (!isSerializable(color)) {
+      return;
     }
 
-    List<String> result = new ArrayList<>();
     int[] rgb = color.getRGB();
+    xml.start(COLOR, level);
+    xml.element(ID, color.getId(), level + 1);
+    xml.element(R, rgb[0], level + 1);
+    xml.element(G, rgb[1], level + 1);
+    xml.element(B, rgb[2], level + 1);
+    xml.end(COLOR, level);
+  }
+
+  /**
+   * Checks whether the given color has a valid RGB value, that is whether
+   * {@link #serializeColor(int, XmlWriter, PdfColor)} writes anything for it.
+   * 
+   * @param color The color to check.
+   * 
+   * @return True, if the given color is serializable; false otherwise.
+   */
+  protected boolean isSerializable(PdfColor color) {
+    if (color == null) {
+      return false;
+    }
+    int[] rgb = color.getRGB();
+    return rgb != null && rgb.length == 3;
+  }
 
-    if (rgb != null && rgb.length == 3) {
-      result.add(start(COLOR, level));
-      result.add(start(ID, level + 1) + text(color.getId()) + end(ID));
-      result.add(start(R, level + 1) + text(rgb[0]) + end(R));
-      result.add(start(G, level + 1) + text(rgb[1]) + end(G));
-      result.add(start(B, level + 1) + text(rgb[2]) + end(B));
-      result.add(end(COLOR, level));
+  /**
+   * Checks whether at least one of the given colors is serializable.
+   * 
+   * @param colors The colors to check.
+   * 
+   * @return True, if at least one of the given colors is serializable; false otherwise.
+   */
+  protected boolean hasSerializableColor(Set<PdfColor> colors) {
+    for (PdfColor color : colors) {
+      if (isSerializable(color)) {
+        return true;
+      }
     }
-    return result;
+    return false;
   }
 
   // ==============================================================================================
@@ -569,128 +641,37 @@ public class PdfXmlSerializer implements PdfSerializer {
    * Serializes the metadata of the given pages.
    * 
    * @param level The current indentation level.
+   * @param xml   The XML writer to write the serialization to.
    * @param pages The pages to serialize.
    * 
-   * @return A list of text lines representing the serialized pages.
+   * @throws IOException If writing the serialization failed.
    */
-  protected List<String> serializePages(int level, List<PdfPage> pages) {
-    List<String> result = new ArrayList<>();
-
+  protected void serializePages(int level, XmlWriter xml, List<PdfPage> pages) throws IOException {
     if (pages != null) {
       for (PdfPage page : pages) {
-        if (page != null) {
-          List<String> pageLines = serializePage(level, page);
-          if (pageLines != null) {
-            result.addAll(pageLines);
-          }
-        }
+        serializePage(level, xml, page);
       }
     }
-    return result;
   }
 
   /**
    * Serializes the metadata of the given page.
    * 
    * @param level The current indentation level.
+   * @param xml   The XML writer to write the serialization to.
    * @param page  The page to serialize.
    * 
-   * @return A list of text lines representing the serialized page.
+   * @throws IOException If writing the serialization failed.
    */
-  protected List<String> serializePage(int level, PdfPage page) {
+  protected void serializePage(int level, XmlWriter xml, PdfPage page) throws IOException {
     if (page == null) {
-      return null;
+      return;
     }
 
-    List<String> result = new ArrayList<>();
-    result.add(start(PAGE, level));
-    result.add(start(ID, level + 1) + text(page.getPageNumber()) + end(ID));
-    result.add(start(WIDTH, level + 1) + text(page.getWidth()) + end(WIDTH));
-    result.add(start(HEIGHT, level + 1) + text(page.getHeight()) + end(HEIGHT));
-    result.add(end(PAGE, level));
-
-    return result;
-  }
-
-  // ==============================================================================================
-
-  /**
-   * Wraps the given text in an XML start tag and indents it by the given indentation level.
-   * 
-   * @param text  The text to wrap.
-   * @param level The indentation level.
-   * 
-   * @return The given text wrapped in an XML start tag, indented by the given indentation level.
-   */
-  protected String start(String text, int level) {
-    String indent = repeat(" ", level * INDENT_LENGTH);
-    return indent + "<" + text + ">";
-  }
-
-  /**
-   * Wraps the given text in an XML end tag.
-   * 
-   * @param text The text to wrap.
-   * 
-   * @return The given text wrapped in an XML end tag.
-   */
-  protected String end(String text) {
-    return end(text, 0);
-  }
-
-  /**
-   * Wraps the given text in an XML end tag and indents it by the given indentation level.
-   * 
-   * @param text  The text to wrap.
-   * @param level The indentation level.
-   * 
-   * @return The given text wrapped in an XML end tag, indented by the given indentation level.
-   */
-  protected String end(String text, int level) {
-    String indent = repeat(" ", level * INDENT_LENGTH);
-    return indent + "</" + text + ">";
-  }
-
-  /**
-   * Transform the given object to an XML escaped string.
-   * 
-   * @param obj The object to process.
-   * 
-   * @return The XML escaped string.
-   */
-  protected String text(Object obj) {
-    return text(obj, 0);
-  }
-
-  /**
-   * Transform the given object to an XML escaped string and indents it by the given indentation
-   * level.
-   * 
-   * @param obj   The object to process.
-   * @param level The indentation level.
-   *
-   * @return The XML escaped string, indented by the given indentation level.
-   */
-  protected String text(Object obj, int level) {
-    String indent = repeat(" ", level * INDENT_LENGTH);
-    String text = StringEscapeUtils.escapeXml11(obj.toString());
-    return indent + text;
-  }
-
-  // ==============================================================================================
-
-  /**
-   * Repeats the given string $repeats-times.
-   * 
-   * @param string  The string to repeat.
-   * @param repeats The number of repeats.
-   * @return The string containing the given string $repeats-times.
-   */
-  public static String repeat(String string, int repeats) {
-    StringBuilder sb = new StringBuilder();
-    for (int i = 0; i < repeats; i++) {
-      sb.append(string);
-    }
-    return sb.toString();
+    xml.start(PAGE, level);
+    xml.element(ID, page.getPageNumber(), level + 1);
+    xml.element(WIDTH, page.getWidth(), level + 1);
+    xml.element(HEIGHT, page.getHeight(), level + 1);
+    xml.end(PAGE, level);
   }
 }
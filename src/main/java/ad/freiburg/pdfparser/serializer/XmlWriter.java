@@ -0,0 +1,217 @@
+package ad.freiburg.pdfparser.serializer;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import org.apache.commons.lang3.StringEscapeUtils;
+
+/**
+ * A writer that writes XML line by line to an underlying {@link Writer}, without keeping any
+ * intermediate lines in memory. Each tag (or each element with a text value) is written to its own
+ * line, indented by a given indentation level. The lines are separated by a line delimiter (there
+ * is no delimiter after the last line).
+ *
+ * @author Claudius Korzen
+ */
+public class XmlWriter implements Flushable, Closeable {
+  /**
+   * The whitespace characters used for indentation.
+   */
+  protected static final char[] SPACES = new char[64];
+
+  static {
+    Arrays.fill(SPACES, ' ');
+  }
+
+  /**
+   * The underlying writer.
+   */
+  protected Writer writer;
+
+  /**
+   * The number of spaces to indent each indentation level with.
+   */
+  protected int indentLength;
+
+  /**
+   * The delimiter to write between two lines.
+   */
+  protected String lineDelimiter;
+
+  /**
+   * A flag indicating whether no line was written yet (and hence, no line delimiter is needed
+   * before the next line).
+   */
+  protected boolean isFirstLine;
+
+  // ==============================================================================================
+  // Constructors.
+
+  /**
+   * Creates a new XML writer.
+   *
+   * @param writer        The underlying writer.
+   * @param indentLength  The number of spaces to indent each indentation level with.
+   * @param lineDelimiter The delimiter to write between two lines.
+   */
+  public XmlWriter(Writer writer, int indentLength, String lineDelimiter) {
+    this(writer, indentLength, lineDelimiter, true);
+  }
+
+  /**
+   * Creates a new XML writer.
+   *
+   * @param writer        The underlying writer.
+   * @param indentLength  The number of spaces to indent each indentation level with.
+   * @param lineDelimiter The delimiter to write between two lines.
+   * @param isFirstLine   True, if the first line written by this writer is the first line of the
+   *                      document; false if the lines are inserted into another document
+   *                      afterwards (and hence, a line delimiter is needed before the first line).
+   */
+  public XmlWriter(Writer writer, int indentLength, String lineDelimiter, boolean isFirstLine) {
+    this.writer = writer;
+    this.indentLength = indentLength;
+    this.lineDelimiter = lineDelimiter;
+    this.isFirstLine = isFirstLine;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Writes the given start tag to a new line, indented by the given indentation level.
+   *
+   * @param tag   The name of the tag.
+   * @param level The indentation level.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public void start(String tag, int level) throws IOException {
+    newLine(level);
+    writeStartTag(tag);
+  }
+
+  /**
+   * Writes the given end tag to a new line, indented by the given indentation level.
+   *
+   * @param tag   The name of the tag.
+   * @param level The indentation level.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public void end(String tag, int level) throws IOException {
+    newLine(level);
+    writeEndTag(tag);
+  }
+
+  /**
+   * Writes an element with the given tag and the given (XML escaped) text value to a new line,
+   * indented by the given indentation level.
+   *
+   * @param tag   The name of the tag.
+   * @param value The text value of the element.
+   * @param level The indentation level.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public void element(String tag, String value, int level) throws IOException {
+    newLine(level);
+    writeStartTag(tag);
+    this.writer.write(StringEscapeUtils.escapeXml11(value));
+    writeEndTag(tag);
+  }
+
+  /**
+   * Writes an element with the given tag and the given numeric or boolean value to a new line,
+   * indented by the given indentation level.
+   *
+   * @param tag   The name of the tag.
+   * @param value The value of the element (written by its string representation, which doesn't
+   *              need to be escaped).
+   * @param level The indentation level.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  public void element(String tag, Object value, int level) throws IOException {
+    newLine(level);
+    writeStartTag(tag);
+    this.writer.write(String.valueOf(value));
+    writeEndTag(tag);
+  }
+
+  /**
+   * Copies already serialized lines from the given reader to the output, as they are. The lines
+   * must be written by an XML writer that was created with isFirstLine set to false.
+   *
+   * @param reader The reader to read the serialized lines from.
+   *
+   * @throws IOException If reading from the reader or writing to the underlying writer failed.
+   */
+  public void raw(Reader reader) throws IOException {
+    reader.transferTo(this.writer);
+    this.isFirstLine = false;
+  }
+
+  // ==============================================================================================
+
+  @Override
+  public void flush() throws IOException {
+    this.writer.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.writer.close();
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Writes a line delimiter (if needed) followed by the indentation for the given level.
+   *
+   * @param level The indentation level.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  protected void newLine(int level) throws IOException {
+    if (!this.isFirstLine) {
+      this.writer.write(this.lineDelimiter);
+    }
+    this.isFirstLine = false;
+
+    int numSpaces = level * this.indentLength;
+    while (numSpaces > 0) {
+      int n = Math.min(numSpaces, SPACES.length);
+      this.writer.write(SPACES, 0, n);
+      numSpaces -= n;
+    }
+  }
+
+  /**
+   * Writes the given start tag.
+   *
+   * @param tag The name of the tag.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  protected void writeStartTag(String tag) throws IOException {
+    this.writer.write('<');
+    this.writer.write(tag);
+    this.writer.write('>');
+  }
+
+  /**
+   * Writes the given end tag.
+   *
+   * @param tag The name of the tag.
+   *
+   * @throws IOException If writing to the underlying writer failed.
+   */
+  protected void writeEndTag(String tag) throws IOException {
+    this.writer.write("</");
+    this.writer.write(tag);
+    this.writer.write('>');
+  }
+}
@@ -0,0 +1,142 @@
+package ad.freiburg.pdfparser.utils;
+
+import org.apache.pdfbox.util.Matrix;
+
+/**
+ * A collection of methods to compute with affine transformations without allocating new
+ * {@link Matrix} objects. An affine transformation is given either by a {@link Matrix} or by a
+ * float array [a b c d e f], representing the matrix [a b 0; c d 0; e f 1].
+ *
+ * <p>
+ * The computations are done in exactly the same order as in {@link Matrix#multiply(Matrix)}
+ * (including the terms of the implicit third column), such that the results are the same.
+ * </p>
+ *
+ * @author Claudius Korzen
+ */
+public class AffineUtils {
+  /**
+   * The message of the exception thrown if a computation produces illegal values (the same as in
+   * {@link Matrix#multiply(Matrix)}).
+   */
+  protected static final String ILLEGAL_VALUES_MESSAGE =
+          "Multiplying two matrices produces illegal values";
+
+  /**
+   * Multiplies the given affine transformations (c = a * b).
+   *
+   * @param a The first transformation, given by an array [a b c d e f].
+   * @param b The second transformation.
+   * @param c The array [a b c d e f] to write the result to.
+   *
+   * @throws IllegalArgumentException If the multiplication produces illegal values.
+   */
+  public static void multiply(float[] a, Matrix b, float[] c) {
+    float b00 = b.getScaleX();
+    float b01 = b.getShearY();
+    float b10 = b.getShearX();
+    float b11 = b.getScaleY();
+    float b20 = b.getTranslateX();
+    float b21 = b.getTranslateY();
+
+    c[0] = a[0] * b00 + a[1] * b10 + 0f * b20;
+    c[1] = a[0] * b01 + a[1] * b11 + 0f * b21;
+    c[2] = a[2] * b00 + a[3] * b10 + 0f * b20;
+    c[3] = a[2] * b01 + a[3] * b11 + 0f * b21;
+    c[4] = a[4] * b00 + a[5] * b10 + b20;
+    c[5] = a[4] * b01 + a[5] * b11 + b21;
+
+    if (!isFinite(c[0], c[1], c[2], c[3]) || !isFinite(c[4], c[5], 0, 0)) {
+      throw new IllegalArgumentException(ILLEGAL_VALUES_MESSAGE);
+    }
+  }
+
+  /**
+   * Multiplies the given affine transformations (c = a * b).
+   *
+   * @param a The first transformation, given by an array [a b c d e f].
+   * @param b The second transformation.
+   * @param c The matrix to write the result to (may be the same object as b).
+   *
+   * @throws IllegalArgumentException If the multiplication produces illegal values.
+   */
+  public static void multiply(float[] a, Matrix b, Matrix c) {
+    float b00 = b.getScaleX();
+    float b01 = b.getShearY();
+    float b10 = b.getShearX();
+    float b11 = b.getScaleY();
+    float b20 = b.getTranslateX();
+    float b21 = b.getTranslateY();
+
+    float c00 = a[0] * b00 + a[1] * b10 + 0f * b20;
+    float c01 = a[0] * b01 + a[1] * b11 + 0f * b21;
+    float c10 = a[2] * b00 + a[3] * b10 + 0f * b20;
+    float c11 = a[2] * b01 + a[3] * b11 + 0f * b21;
+    float c20 = a[4] * b00 + a[5] * b10 + b20;
+    float c21 = a[4] * b01 + a[5] * b11 + b21;
+
+    if (!isFinite(c00, c01, c10, c11) || !isFinite(c20, c21, 0, 0)) {
+      throw new IllegalArgumentException(ILLEGAL_VALUES_MESSAGE);
+    }
+
+    c.setValue(0, 0, c00);
+    c.setValue(0, 1, c01);
+    c.setValue(1, 0, c10);
+    c.setValue(1, 1, c11);
+    c.setValue(2, 0, c20);
+    c.setValue(2, 1, c21);
+  }
+
+  /**
+   * Translates the given matrix in place, with the same result as
+   * <code>m.concatenate(Matrix.getTranslateInstance(tx, ty))</code>.
+   *
+   * @param m  The matrix to translate.
+   * @param tx The translation in x direction.
+   * @param ty The translation in y direction.
+   *
+   * @throws IllegalArgumentException If the translation produces illegal values.
+   */
+  public static void translate(Matrix m, float tx, float ty) {
+    float m00 = m.getScaleX();
+    float m01 = m.getShearY();
+    float m10 = m.getShearX();
+    float m11 = m.getScaleY();
+    float m20 = m.getTranslateX();
+    float m21 = m.getTranslateY();
+
+    float c00 = 1f * m00 + 0f * m10 + 0f * m20;
+    float c01 = 1f * m01 + 0f * m11 + 0f * m21;
+    float c10 = 0f * m00 + 1f * m10 + 0f * m20;
+    float c11 = 0f * m01 + 1f * m11 + 0f * m21;
+    float c20 = tx * m00 + ty * m10 + m20;
+    float c21 = tx * m01 + ty * m11 + m21;
+
+    if (!isFinite(c00, c01, c10, c11) || !isFinite(c20, c21, 0, 0)) {
+      throw new IllegalArgumentException(ILLEGAL_VALUES_MESSAGE);
+    }
+
+    m.setValue(0, 0, c00);
+    m.setValue(0, 1, c01);
+    m.setValue(1, 0, c10);
+    m.setValue(1, 1, c11);
+    m.setValue(2, 0, c20);
+    m.setValue(2, 1, c21);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Checks if all given values are finite.
+   *
+   * @param v1 The first value to check.
+   * @param v2 The second value to check.
+   * @param v3 The third value to check.
+   * @param v4 The fourth value to check.
+   *
+   * @return True, if all given values are finite; false otherwise.
+   */
+  protected static boolean isFinite(float v1, float v2, float v3, float v4) {
+    return Float.isFinite(v1) && Float.isFinite(v2) && Float.isFinite(v3) && Float.isFinite(v4);
+  }
+}
@@ -1,7 +1,19 @@
 package ad.freiburg.pdfparser.utils;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.io.IOException;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImage;
 
 /**
  * A collection of some common useful methods dealing with colors.
@@ -25,9 +37,64 @@ public class ColorUtils {
     return new int[] {red, green, blue, alpha};
   }
 
+  /**
+   * The number of samples per dimension to check in the sampled pre-check of
+   * {@link #getExclusiveColor(PDImage)}.
+   */
+  protected static final int NUM_PRE_CHECK_SAMPLES = 32;
+
   /**
    * Checks if the given image consists only of a single color and returns the color if so. Returns
-   * null if there are at least two different colors in the image.
+   * null if there are at least two different colors in the image. In contrast to
+   * {@link #getExclusiveColor(BufferedImage)}, this method uses the metadata of the image to avoid
+   * decoding the image completely where possible:
+   * 
+   * <ul>
+   * <li>If the image consists of a single pixel, or if the /Decode array maps all samples of each
+   * color component to the same value, only the first pixel is decoded.</li>
+   * <li>Otherwise, a subsampled version of the image is decoded first. If it contains at least two
+   * different colors, the image does, too, so the full image isn't decoded.</li>
+   * </ul>
+   * 
+   * @param image The image to process.
+   * 
+   * @return The color, if the image consists only of a single color; null otherwise.
+   * @throws IOException If something went wrong on reading the image.
+   */
+  public static int[] getExclusiveColor(PDImage image) throws IOException {
+    if (image == null || image.isEmpty()) {
+      return null;
+    }
+
+    int width = image.getWidth();
+    int height = image.getHeight();
+    if (width <= 0 || height <= 0) {
+      return getExclusiveColor(image.getImage());
+    }
+
+    // Images with a mask get their alpha values from the mask, so don't take any shortcuts.
+    boolean hasMask = image.isStencil() || hasMask(image);
+
+    // Check if all pixels have the same color, because of the image metadata.
+    if (width * height == 1 || (!hasMask && hasConstantDecode(image))) {
+      return getExclusiveColor(image.getImage(new Rectangle(0, 0, 1, 1), 1));
+    }
+
+    // Check a subsampled version of the image first.
+    int subsampling = Math.max(width, height) / NUM_PRE_CHECK_SAMPLES;
+    if (!hasMask && subsampling > 1) {
+      if (getExclusiveColor(image.getImage(null, subsampling)) == null) {
+        return null;
+      }
+    }
+
+    return getExclusiveColor(image.getImage());
+  }
+
+  /**
+   * Checks if the given image consists only of a single color and returns the color if so. Returns
+   * null if there are at least two different colors in the image. The pixels are checked in row
+   * order, directly on the data buffer of the image where possible.
    * 
    * @param im The image to process.
    * 
@@ -39,21 +106,99 @@ public class ColorUtils {
       return null;
     }
 
-    int lastRgb = Integer.MAX_VALUE;
-    for (int i = 0; i < im.getWidth(); i++) {
-      for (int j = 0; j < im.getHeight(); j++) {
-        int rgb = im.getRGB(i, j);
-        if (lastRgb != Integer.MAX_VALUE && lastRgb != rgb) {
+    int width = im.getWidth();
+    int height = im.getHeight();
+    if (width <= 0 || height <= 0) {
+      return null;
+    }
+
+    int type = im.getType();
+    WritableRaster raster = im.getRaster();
+    DataBuffer buffer = raster.getDataBuffer();
+    if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)
+            && buffer instanceof DataBufferInt && buffer.getNumBanks() == 1
+            && raster.getSampleModel() instanceof SinglePixelPackedSampleModel
+            && raster.getParent() == null) {
+      // The pixels are stored as packed (A)RGB values, one int per pixel.
+      SinglePixelPackedSampleModel sampleModel =
+              (SinglePixelPackedSampleModel) raster.getSampleModel();
+      int scanlineStride = sampleModel.getScanlineStride();
+      int offset = buffer.getOffset();
+      int[] data = ((DataBufferInt) buffer).getData();
+      int mask = type == BufferedImage.TYPE_INT_RGB ? 0x00ffffff : 0xffffffff;
+
+      int first = data[offset] & mask;
+      for (int y = 0; y < height; y++) {
+        int rowStart = offset + y * scanlineStride;
+        for (int x = rowStart; x < rowStart + width; x++) {
+          if ((data[x] & mask) != first) {
+            return null;
+          }
+        }
+      }
+      return toRgbArray(im.getRGB(0, 0));
+    }
+
+    // Any other image type: compare the RGB values row by row.
+    int[] row = new int[width];
+    int first = im.getRGB(0, 0);
+    for (int y = 0; y < height; y++) {
+      im.getRGB(0, y, width, 1, row, 0, width);
+      for (int x = 0; x < width; x++) {
+        if (row[x] != first) {
           return null;
         }
-        lastRgb = rgb;
       }
     }
+    return toRgbArray(first);
+  }
 
-    if (lastRgb == Integer.MAX_VALUE) {
-      return null;
+  // ==============================================================================================
+
+  /**
+   * Checks if the given image has a mask (a soft mask, a stencil mask or a color key mask).
+   * 
+   * @param image The image to check.
+   * 
+   * @return True, if the given image has a mask; false otherwise.
+   */
+  protected static boolean hasMask(PDImage image) {
+    COSBase base = image.getCOSObject();
+    if (!(base instanceof COSDictionary)) {
+      return true;
     }
+    COSDictionary dict = (COSDictionary) base;
+    return dict.containsKey(COSName.SMASK) || dict.containsKey(COSName.MASK);
+  }
 
-    return toRgbArray(lastRgb);
+  /**
+   * Checks if the /Decode array of the given image maps all samples of each color component to
+   * the same value, that is: if Dmin == Dmax for each color component.
+   * 
+   * @param image The image to check.
+   * 
+   * @return True, if the /Decode array maps all samples to the same color; false otherwise.
+   * @throws IOException If the color space of the image couldn't be read.
+   */
+  protected static boolean hasConstantDecode(PDImage image) throws IOException {
+    COSArray decode = image.getDecode();
+    if (decode == null || decode.size() == 0) {
+      return false;
+    }
+    PDColorSpace colorSpace = image.getColorSpace();
+    if (colorSpace == null || decode.size() < 2 * colorSpace.getNumberOfComponents()) {
+      return false;
+    }
+    for (int i = 0; i + 1 < decode.size(); i += 2) {
+      COSBase min = decode.getObject(i);
+      COSBase max = decode.getObject(i + 1);
+      if (!(min instanceof COSNumber) || !(max instanceof COSNumber)) {
+        return false;
+      }
+      if (((COSNumber) min).floatValue() != ((COSNumber) max).floatValue()) {
+        return false;
+      }
+    }
+    return true;
   }
 }
@@ -1,8 +1,10 @@
 package ad.freiburg.pdfparser.utils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.pdfbox.pdmodel.graphics.color.PDColor;
@@ -10,7 +12,9 @@ import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
 import ad.freiburg.pdfparser.model.PdfColor;
 
 /**
- * A class to manage the colors of a PDF document.
+ * A class to manage the colors of a PDF document. The manager assigns the ids of the colors in the
+ * order in which the colors are registered. It can be used by multiple threads concurrently; the
+ * lookup of an already known color is lock-free.
  * 
  * @author Claudius Korzen
  */
@@ -21,9 +25,25 @@ public class PdfColorManager {
   protected static Logger LOG = LogManager.getLogger(PdfColorManager.class);
 
   /**
-   * A map of the already known colors, per name.
+   * A map of the already known colors, per packed RGB value (see {@link #computeColorKey(int[])}).
    */
-  protected static Map<String, PdfColor> knownColors = new HashMap<>();
+  protected Map<Long, PdfColor> knownColors;
+
+  /**
+   * The already known colors, in the order of their registration.
+   */
+  protected List<PdfColor> colorsInOrder;
+
+  // ==============================================================================================
+  // Constructors.
+
+  /**
+   * Creates a new color manager, without any known colors.
+   */
+  public PdfColorManager() {
+    this.knownColors = new ConcurrentHashMap<>();
+    this.colorsInOrder = new ArrayList<>();
+  }
 
   // ==============================================================================================
 
@@ -36,7 +56,7 @@ public class PdfColorManager {
    * 
    * @return The {@link PdfColor} object corresponding to the given color.
    */
-  public static PdfColor getOrCreatePdfColor(PDColor color, PDColorSpace colorSpace) {
+  public PdfColor getOrCreatePdfColor(PDColor color, PDColorSpace colorSpace) {
     return getOrCreatePdfColor(toRGB(color, colorSpace));
   }
 
@@ -48,30 +68,54 @@ public class PdfColorManager {
    * 
    * @return The {@link PdfColor} object corresponding to the given color.
    */
-  public static PdfColor getOrCreatePdfColor(int[] rgb) {
+  public PdfColor getOrCreatePdfColor(int[] rgb) {
     if (rgb == null) {
       return null;
     }
 
-    // Check if the color is already known.
-    PdfColor knownColor = getKnownPdfColor(rgb);
+    // Check if the color is already known (without any locking).
+    Long key = computeColorKey(rgb);
+    PdfColor knownColor = this.knownColors.get(key);
     if (knownColor != null) {
       return knownColor;
     }
 
-    // The color is not known. Create a new color.
+    // The color is (probably) not known. Create a new color, if no other thread did it meanwhile.
+    return this.knownColors.computeIfAbsent(key, k -> createPdfColor(rgb));
+  }
+
+  /**
+   * Creates a new {@link PdfColor} object for the given color and assigns the next free id.
+   * 
+   * @param rgb The color, given as an array of RGB values.
+   * 
+   * @return The created {@link PdfColor} object.
+   */
+  protected PdfColor createPdfColor(int[] rgb) {
     PdfColor newColor = new PdfColor();
-    newColor.setId("color-" + knownColors.size());
     newColor.setName(computeColorName(rgb));
     newColor.setRGB(rgb);
 
-    // Add the new color to the map of known colors.
-    knownColors.put(newColor.getName(), newColor);
+    synchronized (this.colorsInOrder) {
+      newColor.setId("color-" + this.colorsInOrder.size());
+      this.colorsInOrder.add(newColor);
+    }
     LOG.debug("A new color was registered: " + newColor);
 
     return newColor;
   }
 
+  /**
+   * Returns the already known colors, in the order of their registration.
+   * 
+   * @return The already known colors.
+   */
+  public List<PdfColor> getPdfColors() {
+    synchronized (this.colorsInOrder) {
+      return new ArrayList<>(this.colorsInOrder);
+    }
+  }
+
   // ==============================================================================================
 
   /**
@@ -82,7 +126,7 @@ public class PdfColorManager {
    * @return True, if an {@link PdfColor} object has already been created for the given color, false
    *         otherwise.
    */
-  protected static boolean isKnownPdfColor(int[] rgb) {
+  protected boolean isKnownPdfColor(int[] rgb) {
     return getKnownPdfColor(rgb) != null;
   }
 
@@ -94,11 +138,27 @@ public class PdfColorManager {
    * @return the {@link PdfColor} object corresponding to the given color, if such an object exists.
    *         Returns null otherwise.
    */
-  protected static PdfColor getKnownPdfColor(int[] rgb) {
+  protected PdfColor getKnownPdfColor(int[] rgb) {
     if (rgb == null) {
       return null;
     }
-    return knownColors.get(computeColorName(rgb));
+    return this.knownColors.get(computeColorKey(rgb));
+  }
+
+  /**
+   * Computes the key of the given color in the map of known colors, by packing the RGB values into
+   * a single long value (21 bits per value, which is more than enough for values between 0 and
+   * 255).
+   * 
+   * @param rgb The color to process.
+   * 
+   * @return The key of the given color.
+   */
+  protected static long computeColorKey(int[] rgb) {
+    long r = rgb.length > 0 ? rgb[0] & 0x1FFFFF : 0;
+    long g = rgb.length > 1 ? rgb[1] & 0x1FFFFF : 0;
+    long b = rgb.length > 2 ? rgb[2] & 0x1FFFFF : 0;
+    return (r << 42) | (g << 21) | b;
   }
 
   /**
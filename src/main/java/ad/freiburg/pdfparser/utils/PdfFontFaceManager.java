@@ -1,14 +1,15 @@
 package ad.freiburg.pdfparser.utils;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import ad.freiburg.pdfparser.model.PdfFont;
 import ad.freiburg.pdfparser.model.PdfFontFace;
 
 /**
- * A class to manage the font faces of a PDF document.
+ * A class to manage the font faces of a PDF document. It can be used by multiple threads
+ * concurrently; the lookup of an already known font face is lock-free.
  * 
  * @author Claudius Korzen
  */
@@ -19,9 +20,19 @@ public class PdfFontFaceManager {
   protected static Logger LOG = LogManager.getLogger(PdfFontFaceManager.class);
 
   /**
-   * A map of the already known font faces, per name.
+   * A map of the already known font faces, per font id and font size.
    */
-  protected static Map<String, PdfFontFace> knownFontFaces = new HashMap<>();
+  protected Map<String, Map<Float, PdfFontFace>> knownFontFaces;
+
+  // ==============================================================================================
+  // Constructors.
+
+  /**
+   * Creates a new font face manager, without any known font faces.
+   */
+  public PdfFontFaceManager() {
+    this.knownFontFaces = new ConcurrentHashMap<>();
+  }
 
   // ==============================================================================================
 
@@ -35,25 +46,29 @@ public class PdfFontFaceManager {
    * 
    * @return The {@link PdfFontFace} object corresponding to the given font.
    */
-  public static PdfFontFace getOrCreatePdfFontFace(PdfFont font, float fontSize) {
+  public PdfFontFace getOrCreatePdfFontFace(PdfFont font, float fontSize) {
     if (font == null) {
       return null;
     }
 
-    // Check if the font face is already known.
-    PdfFontFace knownFontFace = getKnownPdfFontFace(font, fontSize);
+    // Check if the font face is already known (without any locking).
+    Map<Float, PdfFontFace> fontFaces = this.knownFontFaces.get(font.getId());
+    if (fontFaces == null) {
+      fontFaces = this.knownFontFaces.computeIfAbsent(font.getId(),
+              id -> new ConcurrentHashMap<>());
+    }
+    PdfFontFace knownFontFace = fontFaces.get(fontSize);
     if (knownFontFace != null) {
       return knownFontFace;
     }
 
-    // The font face is not known. Create a new font face.
-    PdfFontFace newFontFace = new PdfFontFace(font, fontSize);
-
-    // Add the new font face to the map of known font faces.
-    knownFontFaces.put(font.getId() + ":" + fontSize, newFontFace);
-    LOG.debug("A new font face was registered: " + newFontFace);
-
-    return newFontFace;
+    // The font face is (probably) not known. Create a new font face, if no other thread did it
+    // meanwhile.
+    return fontFaces.computeIfAbsent(fontSize, size -> {
+      PdfFontFace newFontFace = new PdfFontFace(font, size);
+      LOG.debug("A new font face was registered: " + newFontFace);
+      return newFontFace;
+    });
   }
 
   /**
@@ -66,7 +81,8 @@ public class PdfFontFaceManager {
    * @return the {@link PdfFontFace} object corresponding to the given font and font size, if such
    *         an object exists. Returns null otherwise.
    */
-  protected static PdfFontFace getKnownPdfFontFace(PdfFont font, float fontSize) {
-    return knownFontFaces.get(font.getId() + ":" + fontSize);
+  protected PdfFontFace getKnownPdfFontFace(PdfFont font, float fontSize) {
+    Map<Float, PdfFontFace> fontFaces = this.knownFontFaces.get(font.getId());
+    return fontFaces != null ? fontFaces.get(fontSize) : null;
   }
 }
@@ -3,8 +3,10 @@ package ad.freiburg.pdfparser.utils;
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.pdfbox.pdmodel.font.PDFont;
@@ -13,7 +15,9 @@ import ad.freiburg.pdfparser.model.PdfFont;
 
 
 /**
- * A class to manage the fonts of a PDF document.
+ * A class to manage the fonts of a PDF document. The manager assigns the ids of the fonts in the
+ * order in which the fonts are registered. It can be used by multiple threads concurrently; the
+ * lookup of an already known font is lock-free.
  * 
  * @author Claudius Korzen
  */
@@ -30,8 +34,32 @@ public class PdfFontManager {
   /**
    * A map of the already known fonts, per name.
    */
-  // protected static Map<String, PdfFont> knownFonts = readWellKnownFontsFromFile();
-  protected static Map<String, PdfFont> knownFonts = new HashMap<>();
+  // protected Map<String, PdfFont> knownFonts = readWellKnownFontsFromFile();
+  protected Map<String, PdfFont> knownFonts;
+
+  /**
+   * A cache of the already known fonts, per PDFont. This cache avoids to compute the normalized
+   * name of a PDFont on each lookup. It keeps references to the PDFonts of a document, so it should
+   * be cleared after the document was processed, see {@link #clearCache()}.
+   */
+  protected Map<PDFont, PdfFont> fontCache;
+
+  /**
+   * The already known fonts, in the order of their registration.
+   */
+  protected List<PdfFont> fontsInOrder;
+
+  // ==============================================================================================
+  // Constructors.
+
+  /**
+   * Creates a new font manager, without any known fonts.
+   */
+  public PdfFontManager() {
+    this.knownFonts = new ConcurrentHashMap<>();
+    this.fontCache = new ConcurrentHashMap<>();
+    this.fontsInOrder = new ArrayList<>();
+  }
 
   // ==============================================================================================
 
@@ -43,33 +71,95 @@ public class PdfFontManager {
    * 
    * @return The {@link PdfFont} object corresponding to the given font.
    */
-  public static PdfFont getOrCreatePdfFont(PDFont font) {
+  public PdfFont getOrCreatePdfFont(PDFont font) {
     if (font == null) {
       return null;
     }
 
-    // Check if the font is already known.
-    PdfFont knownFont = getKnownPdfFont(font);
-    if (knownFont != null) {
-      return knownFont;
+    // Check if the font was already looked up (without any locking).
+    PdfFont cachedFont = this.fontCache.get(font);
+    if (cachedFont != null) {
+      return cachedFont;
     }
 
-    // The font is not known. Create a new font.
-    PdfFont newFont = new PdfFont();
-    newFont.setId("font-" + knownFonts.size());
-    newFont.setNormalizedName(computeNormalizedName(font));
-    newFont.setBasename(computeBasename(newFont));
-    newFont.setIsBold(computeIsBold(newFont));
-    newFont.setIsItalic(computeIsItalic(newFont));
-    newFont.setIsType3Font(computeIsType3Font(font));
-
-    // Add the new font to the map of known fonts.
-    knownFonts.put(newFont.getNormalizedName(), newFont);
-    LOG.debug("A new font was registered: " + newFont);
+    // Check if the font is already known. If not, create a new font, if no other thread did it
+    // meanwhile.
+    String normalizedName = computeNormalizedName(font);
+    PdfFont pdfFont = this.knownFonts.computeIfAbsent(normalizedName, name -> {
+      PdfFont newFont = new PdfFont();
+      newFont.setNormalizedName(name);
+      newFont.setBasename(computeBasename(newFont));
+      newFont.setIsBold(computeIsBold(newFont));
+      newFont.setIsItalic(computeIsItalic(newFont));
+      newFont.setIsType3Font(computeIsType3Font(font));
+      return registerPdfFont(newFont);
+    });
+    this.fontCache.put(font, pdfFont);
+
+    return pdfFont;
+  }
 
+  /**
+   * Checks if an {@link PdfFont} object with the same normalized name as the given font (which
+   * may be managed by another font manager) is already known by this manager. If so, returns the
+   * known object. Otherwise, registers a copy of the given font (with a new id) and returns it.
+   * 
+   * @param font The font to check.
+   * 
+   * @return The {@link PdfFont} object of this manager corresponding to the given font.
+   */
+  public PdfFont getOrCreatePdfFont(PdfFont font) {
+    if (font == null) {
+      return null;
+    }
+
+    return this.knownFonts.computeIfAbsent(font.getNormalizedName(), name -> {
+      PdfFont newFont = new PdfFont();
+      newFont.setNormalizedName(name);
+      newFont.setBasename(font.getBaseName());
+      newFont.setFontFamilyName(font.getFontFamilyName());
+      newFont.setIsBold(font.isBold());
+      newFont.setIsItalic(font.isItalic());
+      newFont.setIsType3Font(font.isType3Font());
+      return registerPdfFont(newFont);
+    });
+  }
+
+  /**
+   * Assigns the next free id to the given new font and appends it to the list of known fonts.
+   * 
+   * @param newFont The new font.
+   * 
+   * @return The given font.
+   */
+  protected PdfFont registerPdfFont(PdfFont newFont) {
+    synchronized (this.fontsInOrder) {
+      newFont.setId("font-" + this.fontsInOrder.size());
+      this.fontsInOrder.add(newFont);
+    }
+    LOG.debug("A new font was registered: " + newFont);
     return newFont;
   }
 
+  /**
+   * Returns the already known fonts, in the order of their registration.
+   * 
+   * @return The already known fonts.
+   */
+  public List<PdfFont> getPdfFonts() {
+    synchronized (this.fontsInOrder) {
+      return new ArrayList<>(this.fontsInOrder);
+    }
+  }
+
+  /**
+   * Clears the cache of fonts per PDFont, to release the references to the PDFonts. The known fonts
+   * (and their ids) are kept.
+   */
+  public void clearCache() {
+    this.fontCache.clear();
+  }
+
   // ==============================================================================================
 
   // /**
@@ -133,7 +223,7 @@ public class PdfFontManager {
    * @return True, if an {@link PdfFont} object has already been created for the given color, false
    *         otherwise.
    */
-  protected static boolean isKnownPdfFont(PDFont font) {
+  protected boolean isKnownPdfFont(PDFont font) {
     return getKnownPdfFont(font) != null;
   }
 
@@ -145,11 +235,11 @@ public class PdfFontManager {
    * @return The {@link PdfFont} object corresponding to the given font, if such an object exists.
    *         Returns null otherwise.
    */
-  protected static PdfFont getKnownPdfFont(PDFont font) {
+  protected PdfFont getKnownPdfFont(PDFont font) {
     if (font == null) {
       return null;
     }
-    return knownFonts.get(computeNormalizedName(font));
+    return this.knownFonts.get(computeNormalizedName(font));
   }
 
   // ==============================================================================================
@@ -0,0 +1,339 @@
+package ad.freiburg.pdfparser.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColor;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.state.PDGraphicsState;
+import org.apache.pdfbox.pdmodel.graphics.state.PDTextState;
+import org.apache.pdfbox.util.Matrix;
+import ad.freiburg.pdfparser.model.PdfElement;
+
+/**
+ * A cache of the elements extracted from form XObjects, used to replay the elements of a form that
+ * is drawn multiple times (for example, a running header drawn on each page) instead of parsing
+ * the content stream of the form again. The same applies to the glyph descriptions of Type3 fonts,
+ * see {@link #computeGlyphKey(COSBase, PDGraphicsState)}.
+ *
+ * <p>
+ * The recordings are keyed by the stream of the form and by a fingerprint of the graphics state
+ * inherited by the form (the colors and the text state), since the extracted elements may depend
+ * on this state. A form drawn with another inherited state is parsed again. The cache holds the
+ * streams of a single PDF document; it must be cleared when the document is closed. The cache
+ * isn't thread-safe.
+ * </p>
+ *
+ * <p>
+ * To not retain the elements of forms that are drawn only once (which would amount to retaining
+ * the elements of the whole document when most of the content is wrapped in forms), a form is
+ * recorded only when it is drawn the second time, see {@link #registerUse(List)}. In addition, the
+ * total number of recorded elements is bounded; if exceeded, the least recently used recordings
+ * are evicted.
+ * </p>
+ *
+ * @author Claudius Korzen
+ */
+public class PdfFormCache {
+  /**
+   * The default maximum total number of elements of the recordings held by the cache.
+   */
+  public static final int DEFAULT_MAX_NUM_RECORDED_ELEMENTS = 100000;
+
+  /**
+   * The maximum number of keys of forms drawn once that are remembered.
+   */
+  protected static final int MAX_NUM_USED_KEYS = 4096;
+
+  /**
+   * The recordings, per key (see {@link #computeKey(COSBase, PDGraphicsState)}), in the order of
+   * their last access.
+   */
+  protected Map<List<Object>, Recording> recordings;
+
+  /**
+   * The keys of the forms that were drawn (at least) once, in the order of their last use.
+   */
+  protected Set<List<Object>> usedKeys;
+
+  /**
+   * The maximum total number of elements of the recordings held by the cache.
+   */
+  protected int maxNumRecordedElements;
+
+  /**
+   * The total number of elements of the recordings held by the cache.
+   */
+  protected int numRecordedElements;
+
+  /**
+   * The number of lookups that were answered from the cache.
+   */
+  protected long numHits;
+
+  /**
+   * The number of lookups that couldn't be answered from the cache.
+   */
+  protected long numMisses;
+
+  // ==============================================================================================
+  // Constructors.
+
+  /**
+   * Creates a new, empty cache, holding at most {@link #DEFAULT_MAX_NUM_RECORDED_ELEMENTS}
+   * recorded elements.
+   */
+  public PdfFormCache() {
+    this(DEFAULT_MAX_NUM_RECORDED_ELEMENTS);
+  }
+
+  /**
+   * Creates a new, empty cache.
+   *
+   * @param maxNumRecordedElements The maximum total number of elements of the recordings held by
+   *                               the cache.
+   */
+  public PdfFormCache(int maxNumRecordedElements) {
+    this.recordings = new LinkedHashMap<>(16, 0.75f, true);
+    this.usedKeys = Collections.newSetFromMap(new LinkedHashMap<List<Object>, Boolean>(16, 0.75f,
+            true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<List<Object>, Boolean> eldest) {
+        return size() > MAX_NUM_USED_KEYS;
+      }
+    });
+    this.maxNumRecordedElements = maxNumRecordedElements;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the recording stored for the given key.
+   *
+   * @param key The key, see {@link #computeKey(COSBase, PDGraphicsState)}.
+   *
+   * @return The recording, or null if there is no recording for the given key.
+   */
+  public Recording getRecording(List<Object> key) {
+    Recording recording = this.recordings.get(key);
+    if (recording != null) {
+      this.numHits++;
+    } else {
+      this.numMisses++;
+    }
+    return recording;
+  }
+
+  /**
+   * Registers a use of the form with the given key and checks if the form was used before with the
+   * same key, that is: if it is worth recording the form.
+   *
+   * @param key The key, see {@link #computeKey(COSBase, PDGraphicsState)}.
+   *
+   * @return True, if the form was used before with the same key; false otherwise.
+   */
+  public boolean registerUse(List<Object> key) {
+    return !this.usedKeys.add(key);
+  }
+
+  /**
+   * Stores the given recording for the given key. Evicts the least recently used recordings if the
+   * total number of recorded elements would exceed the maximum otherwise. A recording with more
+   * elements than the maximum isn't stored at all.
+   *
+   * @param key       The key, see {@link #computeKey(COSBase, PDGraphicsState)}.
+   * @param recording The recording to store.
+   */
+  public void putRecording(List<Object> key, Recording recording) {
+    int numElements = recording.getElements().size();
+    if (numElements > this.maxNumRecordedElements) {
+      return;
+    }
+
+    Recording previous = this.recordings.put(key, recording);
+    if (previous != null) {
+      this.numRecordedElements -= previous.getElements().size();
+    }
+    this.numRecordedElements += numElements;
+
+    Iterator<Recording> itr = this.recordings.values().iterator();
+    while (this.numRecordedElements > this.maxNumRecordedElements && itr.hasNext()) {
+      this.numRecordedElements -= itr.next().getElements().size();
+      itr.remove();
+    }
+  }
+
+  /**
+   * Removes all recordings and used keys (and with it all references to the streams). The hit and
+   * miss counters are kept.
+   */
+  public void clear() {
+    this.recordings.clear();
+    this.usedKeys.clear();
+    this.numRecordedElements = 0;
+  }
+
+  /**
+   * Returns the number of lookups that were answered from the cache.
+   *
+   * @return The number of cache hits.
+   */
+  public long getNumHits() {
+    return this.numHits;
+  }
+
+  /**
+   * Returns the number of lookups that couldn't be answered from the cache.
+   *
+   * @return The number of cache misses.
+   */
+  public long getNumMisses() {
+    return this.numMisses;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Computes the key of a form in the cache, consisting of the stream of the form (compared by
+   * identity) and the parts of the given graphics state the elements of the form may depend on.
+   * The color spaces are compared by their COS objects, since two color spaces of the same family
+   * (e.g., two ICCBased color spaces) may map the same components to different colors.
+   *
+   * @param stream The stream of the form.
+   * @param state  The graphics state inherited by the form.
+   *
+   * @return The key of the form.
+   */
+  public static List<Object> computeKey(COSBase stream, PDGraphicsState state) {
+    List<Object> key = new ArrayList<>();
+    key.add(stream);
+    addColor(key, state.getStrokingColor(), state.getStrokingColorSpace());
+    addColor(key, state.getNonStrokingColor(), state.getNonStrokingColorSpace());
+
+    PDTextState textState = state.getTextState();
+    key.add(textState.getFont());
+    key.add(textState.getFontSize());
+    key.add(textState.getCharacterSpacing());
+    key.add(textState.getWordSpacing());
+    key.add(textState.getHorizontalScaling());
+    key.add(textState.getLeading());
+    key.add(textState.getRise());
+    key.add(textState.getRenderingMode());
+    return key;
+  }
+
+  /**
+   * Computes the key of a Type3 glyph description in the cache, consisting of the stream of the
+   * glyph description (compared by identity) and the colors of the given graphics state. Unlike
+   * for forms, the text state is not part of the key, since the shapes and figures painted by a
+   * glyph description don't depend on it (the font size is part of the text rendering matrix the
+   * recording is mapped with). Recordings of glyph descriptions that show text themselves must
+   * therefore not be stored.
+   *
+   * @param stream The stream of the glyph description.
+   * @param state  The graphics state inherited by the glyph description.
+   *
+   * @return The key of the glyph description.
+   */
+  public static List<Object> computeGlyphKey(COSBase stream, PDGraphicsState state) {
+    List<Object> key = new ArrayList<>();
+    key.add(stream);
+    addColor(key, state.getStrokingColor(), state.getStrokingColorSpace());
+    addColor(key, state.getNonStrokingColor(), state.getNonStrokingColorSpace());
+    return key;
+  }
+
+  /**
+   * Adds the given color to the given key.
+   *
+   * @param key        The key to which the color should be added.
+   * @param color      The color to add.
+   * @param colorSpace The color space of the color.
+   */
+  protected static void addColor(List<Object> key, PDColor color, PDColorSpace colorSpace) {
+    key.add(colorSpace != null ? colorSpace.getCOSObject() : null);
+    key.add(color != null ? Arrays.toString(color.getComponents()) : null);
+    key.add(color != null ? color.getPatternName() : null);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * The elements extracted from a form, together with the CTM that was active when the form was
+   * drawn.
+   */
+  public static class Recording {
+    /**
+     * The CTM that was active when the form was drawn.
+     */
+    protected Matrix ctm;
+
+    /**
+     * The elements extracted from the form, in the order of their extraction.
+     */
+    protected List<PdfElement> elements;
+
+    /**
+     * Creates a new recording.
+     *
+     * @param ctm      The CTM that was active when the form was drawn.
+     * @param elements The elements extracted from the form, in the order of their extraction.
+     */
+    public Recording(Matrix ctm, List<PdfElement> elements) {
+      this.ctm = ctm;
+      this.elements = elements;
+    }
+
+    /**
+     * Returns the CTM that was active when the form was drawn.
+     *
+     * @return The CTM.
+     */
+    public Matrix getCtm() {
+      return this.ctm;
+    }
+
+    /**
+     * Returns the elements extracted from the form, in the order of their extraction.
+     *
+     * @return The elements.
+     */
+    public List<PdfElement> getElements() {
+      return this.elements;
+    }
+
+    /**
+     * Checks if the elements of this recording can be replayed with the given CTM. This is the
+     * case if both, the recorded and the given CTM, are axis-preserving (without any shearing,
+     * rotation or mirroring), since the bounding boxes of the elements can then be mapped
+     * exactly.
+     *
+     * @param ctm The CTM to check.
+     *
+     * @return True, if the elements can be replayed with the given CTM; false otherwise.
+     */
+    public boolean isReplayableWith(Matrix ctm) {
+      return isAxisPreserving(this.ctm) && isAxisPreserving(ctm);
+    }
+
+    /**
+     * Checks if the given matrix is axis-preserving, that is: if it doesn't shear, rotate or mirror
+     * and doesn't scale to zero.
+     *
+     * @param m The matrix to check.
+     *
+     * @return True, if the given matrix is axis-preserving; false otherwise.
+     */
+    protected static boolean isAxisPreserving(Matrix m) {
+      return m.getShearX() == 0 && m.getShearY() == 0 && m.getScaleX() > 0 && m.getScaleY() > 0;
+    }
+  }
+}
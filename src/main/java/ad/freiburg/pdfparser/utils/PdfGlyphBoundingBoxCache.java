@@ -0,0 +1,178 @@
+package ad.freiburg.pdfparser.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+/**
+ * A cache of the bounding boxes of glyphs, per font and character code. The cache holds the fonts
+ * of a single PDF document; it must be cleared when the document is closed.
+ *
+ * <p>
+ * The space of a bounding box depends on the type of the font:
+ * </p>
+ * <ul>
+ * <li>For a Type3 font, the bounding box is given in glyph space, as given by the d1 operator in
+ * the glyph description. Both, the font matrix and the text rendering matrix, need to be applied
+ * per occurrence of the glyph.</li>
+ * <li>For any other font, the bounding box is given in text space (that is, the font matrix is
+ * already applied), such that only the text rendering matrix needs to be applied per occurrence of
+ * the glyph.</li>
+ * </ul>
+ *
+ * <p>
+ * The number of cached bounding boxes is bounded: as soon as the maximum number of entries is
+ * reached, no further bounding boxes are added. The cache isn't thread-safe.
+ * </p>
+ *
+ * @author Claudius Korzen
+ */
+public class PdfGlyphBoundingBoxCache {
+  /**
+   * The default maximum number of cached bounding boxes.
+   */
+  public static final int DEFAULT_MAX_NUM_ENTRIES = 100_000;
+
+  /**
+   * The value cached for glyphs for which no bounding box could be computed.
+   */
+  public static final float[] NO_BOUNDING_BOX = new float[0];
+
+  /**
+   * The cached bounding boxes, per font and character code. Each bounding box is given by an array
+   * [minX, minY, maxX, maxY], in glyph space for Type3 fonts and in text space otherwise.
+   */
+  protected Map<PDFont, TIntObjectMap<float[]>> boundingBoxes;
+
+  /**
+   * The maximum number of cached bounding boxes.
+   */
+  protected int maxNumEntries;
+
+  /**
+   * The number of cached bounding boxes.
+   */
+  protected int numEntries;
+
+  /**
+   * The number of lookups that were answered from the cache.
+   */
+  protected long numHits;
+
+  /**
+   * The number of lookups that couldn't be answered from the cache.
+   */
+  protected long numMisses;
+
+  // ==============================================================================================
+  // Constructors.
+
+  /**
+   * Creates a new, empty cache with the default maximum number of entries.
+   */
+  public PdfGlyphBoundingBoxCache() {
+    this(DEFAULT_MAX_NUM_ENTRIES);
+  }
+
+  /**
+   * Creates a new, empty cache.
+   *
+   * @param maxNumEntries The maximum number of bounding boxes to cache.
+   */
+  public PdfGlyphBoundingBoxCache(int maxNumEntries) {
+    this.boundingBoxes = new HashMap<>();
+    this.maxNumEntries = maxNumEntries;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the cached bounding box of the glyph with the given code in the given font.
+   *
+   * @param font The font of the glyph.
+   * @param code The character code of the glyph.
+   *
+   * @return The cached bounding box, {@link #NO_BOUNDING_BOX} if it is known that there is no
+   *         bounding box for the glyph, or null if the glyph isn't cached.
+   */
+  public float[] getBoundingBox(PDFont font, int code) {
+    TIntObjectMap<float[]> boxes = this.boundingBoxes.get(font);
+    float[] box = boxes != null ? boxes.get(code) : null;
+    if (box != null) {
+      this.numHits++;
+    } else {
+      this.numMisses++;
+    }
+    return box;
+  }
+
+  /**
+   * Caches the bounding box of the glyph with the given code in the given font, if the maximum
+   * number of entries isn't reached yet.
+   *
+   * @param font The font of the glyph.
+   * @param code The character code of the glyph.
+   * @param box  The bounding box to cache, given by an array [minX, minY, maxX, maxY] (in glyph
+   *             space for Type3 fonts and in text space otherwise), or null if there is no bounding
+   *             box for the glyph.
+   */
+  public void putBoundingBox(PDFont font, int code, float[] box) {
+    if (this.numEntries >= this.maxNumEntries) {
+      return;
+    }
+    TIntObjectMap<float[]> boxes = this.boundingBoxes.computeIfAbsent(font,
+            f -> new TIntObjectHashMap<>());
+    if (boxes.put(code, box != null ? box : NO_BOUNDING_BOX) == null) {
+      this.numEntries++;
+    }
+  }
+
+  /**
+   * Removes all cached bounding boxes (and with it all references to the fonts). The hit and miss
+   * counters are kept.
+   */
+  public void clear() {
+    this.boundingBoxes.clear();
+    this.numEntries = 0;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the maximum number of cached bounding boxes.
+   *
+   * @return The maximum number of cached bounding boxes.
+   */
+  public int getMaxNumEntries() {
+    return this.maxNumEntries;
+  }
+
+  /**
+   * Returns the number of cached bounding boxes.
+   *
+   * @return The number of cached bounding boxes.
+   */
+  public int getNumEntries() {
+    return this.numEntries;
+  }
+
+  /**
+   * Returns the number of lookups that were answered from the cache.
+   *
+   * @return The number of cache hits.
+   */
+  public long getNumHits() {
+    return this.numHits;
+  }
+
+  /**
+   * Returns the number of lookups that couldn't be answered from the cache.
+   *
+   * @return The number of cache misses.
+   */
+  public long getNumMisses() {
+    return this.numMisses;
+  }
+}
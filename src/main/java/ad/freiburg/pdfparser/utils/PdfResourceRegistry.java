@@ -0,0 +1,153 @@
+package ad.freiburg.pdfparser.utils;
+
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColor;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import ad.freiburg.pdfparser.model.PdfColor;
+import ad.freiburg.pdfparser.model.PdfFont;
+import ad.freiburg.pdfparser.model.PdfFontFace;
+
+/**
+ * A registry of the resources (fonts, font faces, colors and texts) of a parse session. By
+ * default, a {@link ad.freiburg.pdfparser.parser.PdfParser} creates a new registry for each parsed
+ * document, such that the ids of the resources depend on the document only. A registry can also be
+ * shared explicitly between multiple documents (and threads), since all managers are thread-safe.
+ *
+ * @author Claudius Korzen
+ */
+public class PdfResourceRegistry {
+  /**
+   * The manager of the fonts.
+   */
+  protected PdfFontManager fontManager;
+
+  /**
+   * The manager of the font faces.
+   */
+  protected PdfFontFaceManager fontFaceManager;
+
+  /**
+   * The manager of the colors.
+   */
+  protected PdfColorManager colorManager;
+
+  /**
+   * The manager of the texts of the characters.
+   */
+  protected PdfTextManager textManager;
+
+  // ==============================================================================================
+  // Constructors.
+
+  /**
+   * Creates a new, empty registry.
+   */
+  public PdfResourceRegistry() {
+    this.fontManager = new PdfFontManager();
+    this.fontFaceManager = new PdfFontFaceManager();
+    this.colorManager = new PdfColorManager();
+    this.textManager = new PdfTextManager();
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the {@link PdfFont} object corresponding to the given font, see
+   * {@link PdfFontManager#getOrCreatePdfFont(PDFont)}.
+   *
+   * @param font The font to process.
+   *
+   * @return The {@link PdfFont} object corresponding to the given font.
+   */
+  public PdfFont getOrCreatePdfFont(PDFont font) {
+    return this.fontManager.getOrCreatePdfFont(font);
+  }
+
+  /**
+   * Returns the {@link PdfFontFace} object corresponding to the given font and font size, see
+   * {@link PdfFontFaceManager#getOrCreatePdfFontFace(PdfFont, float)}.
+   *
+   * @param font     The font to process.
+   * @param fontSize The font size to process.
+   *
+   * @return The {@link PdfFontFace} object corresponding to the given font and font size.
+   */
+  public PdfFontFace getOrCreatePdfFontFace(PdfFont font, float fontSize) {
+    return this.fontFaceManager.getOrCreatePdfFontFace(font, fontSize);
+  }
+
+  /**
+   * Returns the {@link PdfColor} object corresponding to the given color, see
+   * {@link PdfColorManager#getOrCreatePdfColor(PDColor, PDColorSpace)}.
+   *
+   * @param color      The color to process.
+   * @param colorSpace The belonging color space.
+   *
+   * @return The {@link PdfColor} object corresponding to the given color.
+   */
+  public PdfColor getOrCreatePdfColor(PDColor color, PDColorSpace colorSpace) {
+    return this.colorManager.getOrCreatePdfColor(color, colorSpace);
+  }
+
+  /**
+   * Returns the {@link PdfColor} object corresponding to the given color, see
+   * {@link PdfColorManager#getOrCreatePdfColor(int[])}.
+   *
+   * @param rgb The color to process, given as an array of RGB values.
+   *
+   * @return The {@link PdfColor} object corresponding to the given color.
+   */
+  public PdfColor getOrCreatePdfColor(int[] rgb) {
+    return this.colorManager.getOrCreatePdfColor(rgb);
+  }
+
+  /**
+   * Returns the shared string instance that is equal to the given text, see
+   * {@link PdfTextManager#getOrCreateText(String)}.
+   *
+   * @param text The text to process.
+   *
+   * @return The shared string instance.
+   */
+  public String getOrCreateText(String text) {
+    return this.textManager.getOrCreateText(text);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the manager of the fonts.
+   *
+   * @return The manager of the fonts.
+   */
+  public PdfFontManager getFontManager() {
+    return this.fontManager;
+  }
+
+  /**
+   * Returns the manager of the font faces.
+   *
+   * @return The manager of the font faces.
+   */
+  public PdfFontFaceManager getFontFaceManager() {
+    return this.fontFaceManager;
+  }
+
+  /**
+   * Returns the manager of the colors.
+   *
+   * @return The manager of the colors.
+   */
+  public PdfColorManager getColorManager() {
+    return this.colorManager;
+  }
+
+  /**
+   * Returns the manager of the texts.
+   *
+   * @return The manager of the texts.
+   */
+  public PdfTextManager getTextManager() {
+    return this.textManager;
+  }
+}
@@ -0,0 +1,90 @@
+package ad.freiburg.pdfparser.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A class to manage the texts of the characters of a PDF document, such that characters with the
+ * same text share a single string instance instead of each holding its own copy. Almost all
+ * characters consist of a single UTF-16 unit; the strings of these texts are taken from a table
+ * shared between all documents. Longer texts (for example, ligatures like "ffi" or characters
+ * outside the Basic Multilingual Plane) are interned per manager. It can be used by multiple
+ * threads concurrently.
+ *
+ * @author Claudius Korzen
+ */
+public class PdfTextManager {
+  /**
+   * The shared strings of the texts consisting of a single UTF-16 unit, per unit (filled lazily).
+   */
+  protected static final AtomicReferenceArray<String> SINGLE_CHAR_TEXTS =
+          new AtomicReferenceArray<>(Character.MAX_VALUE + 1);
+
+  /**
+   * The already known texts consisting of more than a single UTF-16 unit.
+   */
+  protected Map<String, String> knownTexts;
+
+  // ==============================================================================================
+  // Constructors.
+
+  /**
+   * Creates a new text manager, without any known texts.
+   */
+  public PdfTextManager() {
+    this.knownTexts = new ConcurrentHashMap<>();
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the shared string instance that is equal to the given text.
+   *
+   * @param text The text to process.
+   *
+   * @return The shared string instance, or null if the given text is null.
+   */
+  public String getOrCreateText(String text) {
+    if (text == null) {
+      return null;
+    }
+    if (text.length() == 1) {
+      return getText(text.charAt(0));
+    }
+
+    // Check if the text is already known (without any locking).
+    String knownText = this.knownTexts.get(text);
+    if (knownText != null) {
+      return knownText;
+    }
+    return this.knownTexts.computeIfAbsent(text, t -> t);
+  }
+
+  /**
+   * Returns the shared string consisting of the given character.
+   *
+   * @param c The character.
+   *
+   * @return The shared string consisting of the given character.
+   */
+  public static String getText(char c) {
+    String text = SINGLE_CHAR_TEXTS.get(c);
+    if (text == null) {
+      text = String.valueOf(c);
+      if (!SINGLE_CHAR_TEXTS.compareAndSet(c, null, text)) {
+        text = SINGLE_CHAR_TEXTS.get(c);
+      }
+    }
+    return text;
+  }
+
+  /**
+   * Returns the number of known texts consisting of more than a single UTF-16 unit.
+   *
+   * @return The number of known texts.
+   */
+  public int getNumKnownTexts() {
+    return this.knownTexts.size();
+  }
+}
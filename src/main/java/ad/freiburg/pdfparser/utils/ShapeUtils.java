@@ -0,0 +1,272 @@
+package ad.freiburg.pdfparser.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import ad.freiburg.pdfparser.model.PdfPosition;
+import ad.freiburg.pdfparser.model.PdfShape;
+import ad.freiburg.pdfparser.model.Rectangle;
+
+/**
+ * A collection of some common useful methods dealing with shapes.
+ *
+ * @author Claudius Korzen
+ */
+public class ShapeUtils {
+  /**
+   * The maximum gap between two collinear rulings that are considered as touching, and the maximum
+   * difference between the extents of two rulings across their orientation that are considered as
+   * equal (in pt), to tolerate the rounding noise of the coordinates.
+   */
+  protected static final float RULING_GAP_TOLERANCE = 0.1f;
+
+  /**
+   * The maximum thickness of a ruling (in pt).
+   */
+  protected static final float MAX_RULING_THICKNESS = 1.5f;
+
+  /**
+   * Merges the collinear rulings of the same color that touch or overlap each other into a single
+   * shape. A ruling is a shape with a bounding box that is not higher (a horizontal ruling) or not
+   * wider (a vertical ruling) than {@link #MAX_RULING_THICKNESS}, like the segments of the lines of
+   * a table drawn cell by cell, or thin filled rectangles (e.g., drawn by "x y w 0.5 re f"). Two
+   * rulings are collinear if they have the same orientation and the same extent across their
+   * orientation, up to {@link #RULING_GAP_TOLERANCE}. All other shapes are kept as they are.
+   *
+   * <p>
+   * The merged shapes are new objects (the given shapes are not modified) and are placed at the
+   * position of the first shape of the respective group in the list; the order of all other shapes
+   * is kept. Merging the result again doesn't change it anymore.
+   * </p>
+   *
+   * @param shapes The shapes to process.
+   *
+   * @return The shapes with the touching rulings merged.
+   */
+  public static List<PdfShape> mergeRulings(List<PdfShape> shapes) {
+    // Group the rulings by their orientation and their color.
+    Map<List<Object>, List<Integer>> groups = new LinkedHashMap<>();
+    for (int i = 0; i < shapes.size(); i++) {
+      Rectangle rect = getRectangle(shapes.get(i));
+      if (rect == null) {
+        continue;
+      }
+      float width = Math.abs(rect.getMaxX() - rect.getMinX());
+      float height = Math.abs(rect.getMaxY() - rect.getMinY());
+      List<Object> key = null;
+      if (height <= MAX_RULING_THICKNESS && height <= width) {
+        key = Arrays.asList(Boolean.TRUE, shapes.get(i).getColor());
+      } else if (width <= MAX_RULING_THICKNESS) {
+        key = Arrays.asList(Boolean.FALSE, shapes.get(i).getColor());
+      }
+      if (key != null) {
+        groups.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+      }
+    }
+
+    PdfShape[] result = shapes.toArray(new PdfShape[0]);
+    boolean isMerged = false;
+    for (Map.Entry<List<Object>, List<Integer>> group : groups.entrySet()) {
+      List<Integer> indexes = group.getValue();
+      if (indexes.size() < 2) {
+        continue;
+      }
+      boolean isHorizontal = (Boolean) group.getKey().get(0);
+
+      // Split the group into the collinear rulings, first by their start across the orientation
+      // and then by their end across the orientation.
+      ToDoubleFunction<Integer> crossStart = i -> getCrossStart(shapes.get(i), isHorizontal);
+      ToDoubleFunction<Integer> crossEnd = i -> getCrossEnd(shapes.get(i), isHorizontal);
+      for (List<Integer> byStart : cluster(indexes, crossStart)) {
+        for (List<Integer> line : cluster(byStart, crossEnd)) {
+          isMerged |= mergeTouchingRulings(shapes, line, isHorizontal, result);
+        }
+      }
+    }
+
+    if (!isMerged) {
+      return shapes;
+    }
+    List<PdfShape> merged = new ArrayList<>(shapes.size());
+    for (PdfShape shape : result) {
+      if (shape != null) {
+        merged.add(shape);
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * Sorts the given indexes of rulings by the given coordinate and splits them into clusters of
+   * rulings whose coordinates differ by at most {@link #RULING_GAP_TOLERANCE} from the coordinate
+   * of the first ruling of the cluster.
+   *
+   * @param indexes    The indexes of the rulings.
+   * @param coordinate The function that returns the coordinate of the ruling with a given index.
+   *
+   * @return The clusters, each sorted by the coordinate.
+   */
+  protected static List<List<Integer>> cluster(List<Integer> indexes,
+          ToDoubleFunction<Integer> coordinate) {
+    List<Integer> sorted = new ArrayList<>(indexes);
+    sorted.sort(Comparator.comparingDouble(coordinate));
+
+    List<List<Integer>> clusters = new ArrayList<>();
+    int clusterStart = 0;
+    for (int j = 1; j <= sorted.size(); j++) {
+      if (j < sorted.size() && coordinate.applyAsDouble(sorted.get(j))
+              <= coordinate.applyAsDouble(sorted.get(clusterStart)) + RULING_GAP_TOLERANCE) {
+        continue;
+      }
+      clusters.add(sorted.subList(clusterStart, j));
+      clusterStart = j;
+    }
+    return clusters;
+  }
+
+  /**
+   * Merges each run of touching rulings of the given collinear rulings into a single shape, see
+   * {@link #mergeRun(List, List, PdfShape[])}.
+   *
+   * @param shapes       The shapes.
+   * @param indexes      The indexes of the collinear rulings.
+   * @param isHorizontal True, if the rulings are horizontal; false if they are vertical.
+   * @param result       The result array.
+   *
+   * @return True, if at least one run was merged; false otherwise.
+   */
+  protected static boolean mergeTouchingRulings(List<PdfShape> shapes, List<Integer> indexes,
+          boolean isHorizontal, PdfShape[] result) {
+    if (indexes.size() < 2) {
+      return false;
+    }
+
+    // Sort the rulings by their start and merge each run of touching rulings.
+    List<Integer> sorted = new ArrayList<>(indexes);
+    sorted.sort(Comparator.comparingDouble(i -> getStart(shapes.get(i), isHorizontal)));
+    boolean isMerged = false;
+    int runStart = 0;
+    float runEnd = getEnd(shapes.get(sorted.get(0)), isHorizontal);
+    for (int j = 1; j <= sorted.size(); j++) {
+      if (j < sorted.size()) {
+        PdfShape shape = shapes.get(sorted.get(j));
+        if (getStart(shape, isHorizontal) <= runEnd + RULING_GAP_TOLERANCE) {
+          runEnd = Math.max(runEnd, getEnd(shape, isHorizontal));
+          continue;
+        }
+      }
+      if (j - runStart > 1) {
+        mergeRun(shapes, sorted.subList(runStart, j), result);
+        isMerged = true;
+      }
+      if (j < sorted.size()) {
+        runStart = j;
+        runEnd = getEnd(shapes.get(sorted.get(j)), isHorizontal);
+      }
+    }
+    return isMerged;
+  }
+
+  /**
+   * Merges the given run of touching rulings into a single shape, which replaces the first shape
+   * of the run in the given result array; the other shapes of the run are removed from the array.
+   *
+   * @param shapes The shapes.
+   * @param run    The indexes of the shapes of the run.
+   * @param result The result array.
+   */
+  protected static void mergeRun(List<PdfShape> shapes, List<Integer> run, PdfShape[] result) {
+    int firstIndex = Integer.MAX_VALUE;
+    float minX = Float.POSITIVE_INFINITY;
+    float minY = Float.POSITIVE_INFINITY;
+    float maxX = Float.NEGATIVE_INFINITY;
+    float maxY = Float.NEGATIVE_INFINITY;
+    for (int index : run) {
+      Rectangle rect = getRectangle(shapes.get(index));
+      minX = Math.min(minX, Math.min(rect.getMinX(), rect.getMaxX()));
+      minY = Math.min(minY, Math.min(rect.getMinY(), rect.getMaxY()));
+      maxX = Math.max(maxX, Math.max(rect.getMinX(), rect.getMaxX()));
+      maxY = Math.max(maxY, Math.max(rect.getMinY(), rect.getMaxY()));
+      firstIndex = Math.min(firstIndex, index);
+      result[index] = null;
+    }
+
+    PdfShape first = shapes.get(firstIndex);
+    PdfShape shape = new PdfShape();
+    shape.setPosition(new PdfPosition(first.getPosition().getPage(), minX, minY, maxX, maxY));
+    shape.setColor(first.getColor());
+    result[firstIndex] = shape;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the bounding box of the given shape.
+   *
+   * @param shape The shape.
+   *
+   * @return The bounding box, or null if the shape has no position.
+   */
+  protected static Rectangle getRectangle(PdfShape shape) {
+    PdfPosition position = shape.getPosition();
+    return position != null ? position.getRectangle() : null;
+  }
+
+  /**
+   * Returns the smaller coordinate of the given ruling along its orientation. The coordinates of a
+   * ruling are not necessarily ordered, since the position of a path segment is given by its start
+   * and end point.
+   *
+   * @param shape        The ruling.
+   * @param isHorizontal True, if the ruling is horizontal; false if it is vertical.
+   *
+   * @return The start coordinate of the ruling.
+   */
+  protected static float getStart(PdfShape shape, boolean isHorizontal) {
+    Rectangle rect = getRectangle(shape);
+    return isHorizontal ? Math.min(rect.getMinX(), rect.getMaxX())
+            : Math.min(rect.getMinY(), rect.getMaxY());
+  }
+
+  /**
+   * Returns the larger coordinate of the given ruling along its orientation.
+   *
+   * @param shape        The ruling.
+   * @param isHorizontal True, if the ruling is horizontal; false if it is vertical.
+   *
+   * @return The end coordinate of the ruling.
+   */
+  protected static float getEnd(PdfShape shape, boolean isHorizontal) {
+    Rectangle rect = getRectangle(shape);
+    return isHorizontal ? Math.max(rect.getMinX(), rect.getMaxX())
+            : Math.max(rect.getMinY(), rect.getMaxY());
+  }
+
+  /**
+   * Returns the smaller coordinate of the given ruling across its orientation.
+   *
+   * @param shape        The ruling.
+   * @param isHorizontal True, if the ruling is horizontal; false if it is vertical.
+   *
+   * @return The start coordinate of the ruling across its orientation.
+   */
+  protected static float getCrossStart(PdfShape shape, boolean isHorizontal) {
+    return getStart(shape, !isHorizontal);
+  }
+
+  /**
+   * Returns the larger coordinate of the given ruling across its orientation.
+   *
+   * @param shape        The ruling.
+   * @param isHorizontal True, if the ruling is horizontal; false if it is vertical.
+   *
+   * @return The end coordinate of the ruling across its orientation.
+   */
+  protected static float getCrossEnd(PdfShape shape, boolean isHorizontal) {
+    return getEnd(shape, !isHorizontal);
+  }
+}
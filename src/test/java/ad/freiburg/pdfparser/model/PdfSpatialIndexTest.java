@@ -0,0 +1,66 @@
+package ad.freiburg.pdfparser.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link PdfSpatialIndex}.
+ *
+ * @author Claudius Korzen
+ */
+public class PdfSpatialIndexTest {
+  /**
+   * The page of the positions of the elements.
+   */
+  protected static final PdfPage PAGE = new PdfPage(1);
+
+  /**
+   * Tests that shapes whose positions are given by a reversed segment (with min > max) are found.
+   */
+  @Test
+  public void testReversedSegment() {
+    PdfShape forward = createShape(10, 50, 100, 50);
+    PdfShape reversed = createShape(100, 50, 10, 50);
+    PdfShape reversedVertical = createShape(55, 200, 55, 45);
+    PdfShape other = createShape(300, 300, 310, 310);
+
+    PdfSpatialIndex index = new PdfSpatialIndex(
+            Arrays.asList(forward, reversed, reversedVertical, other), 2);
+
+    List<PdfElement> result = index.getOverlappingElements(new Rectangle(50, 40, 60, 60));
+    assertEquals(3, result.size());
+    assertTrue(result.contains(forward));
+    assertTrue(result.contains(reversed));
+    assertTrue(result.contains(reversedVertical));
+
+    List<PdfShape> sameLine = index.getElementsOnSameLine(reversedVertical, PdfShape.class);
+    assertEquals(3, sameLine.size());
+    assertTrue(!sameLine.contains(other));
+
+    Rectangle box = index.getBoundingBox();
+    assertEquals(10, box.getMinX(), 0);
+    assertEquals(45, box.getMinY(), 0);
+    assertEquals(310, box.getMaxX(), 0);
+    assertEquals(310, box.getMaxY(), 0);
+  }
+
+  /**
+   * Creates a shape with the given position.
+   *
+   * @param x1 The first x-coordinate of the position.
+   * @param y1 The first y-coordinate of the position.
+   * @param x2 The second x-coordinate of the position.
+   * @param y2 The second y-coordinate of the position.
+   *
+   * @return The created shape.
+   */
+  protected static PdfShape createShape(float x1, float y1, float x2, float y2) {
+    PdfShape shape = new PdfShape();
+    shape.setPosition(new PdfPosition(PAGE, x1, y1, x2, y2));
+    return shape;
+  }
+}
@@ -0,0 +1,154 @@
+package ad.freiburg.pdfparser.parser.operators.text;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDType3Font;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ad.freiburg.pdfparser.exception.PdfParserException;
+import ad.freiburg.pdfparser.model.PdfDocument;
+import ad.freiburg.pdfparser.model.PdfShape;
+import ad.freiburg.pdfparser.model.Rectangle;
+import ad.freiburg.pdfparser.parser.PdfParser;
+
+/**
+ * Tests for the {@link ShowText} operator.
+ *
+ * @author Claudius Korzen
+ */
+public class ShowTextTest {
+  /**
+   * The folder for the PDF files created by the tests.
+   */
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Tests that the elements painted by the glyph description of a Type3 glyph (here: a filled
+   * rectangle) are replayed from the Type3 glyph cache on the further occurrences of the glyph,
+   * at the positions of these occurrences.
+   *
+   * @throws IOException        If the PDF file couldn't be created.
+   * @throws PdfParserException If the PDF file couldn't be parsed.
+   */
+  @Test
+  public void testReplayType3Glyph() throws IOException, PdfParserException {
+    File file = this.folder.newFile("type3.pdf");
+    createType3Pdf(file, "BT /F1 10 Tf 100 700 Td (aaa) Tj 0 -100 Td (a) Tj ET");
+
+    PdfParser parser = new PdfParser();
+    PdfDocument pdf = parser.parse(file.toPath());
+
+    // The glyph description is processed on the first occurrence and replayed on the other three.
+    assertEquals(3, parser.getType3GlyphCache().getNumHits());
+    assertEquals(0, parser.getType3GlyphCache().getNumMisses());
+
+    // The "re" of the glyph description results in a shape per segment (4 per glyph).
+    List<PdfShape> shapes = pdf.getPages().get(0).getShapes();
+    assertEquals(16, shapes.size());
+    assertPosition(shapes.get(0), 100, 700, 105, 700);
+    assertPosition(shapes.get(4), 110, 700, 115, 700);
+    assertPosition(shapes.get(8), 120, 700, 125, 700);
+    assertPosition(shapes.get(12), 100, 600, 105, 600);
+    assertPosition(shapes.get(14), 105, 607, 100, 607);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Creates a PDF file with a single page, a Type3 font "F1" with a single glyph "a" (with a width
+   * of 1000 glyph space units, painting a filled rectangle of 500 x 700 units) and the given
+   * content stream.
+   *
+   * @param file    The file to create.
+   * @param content The content stream of the page.
+   *
+   * @throws IOException If the PDF file couldn't be created.
+   */
+  protected static void createType3Pdf(File file, String content) throws IOException {
+    try (PDDocument doc = new PDDocument()) {
+      COSStream charProc = doc.getDocument().createCOSStream();
+      try (OutputStream out = charProc.createOutputStream()) {
+        out.write("1000 0 0 0 500 700 d1 0 0 500 700 re f".getBytes(StandardCharsets.US_ASCII));
+      }
+      COSDictionary charProcs = new COSDictionary();
+      charProcs.setItem(COSName.A, charProc);
+
+      COSArray differences = new COSArray();
+      differences.add(COSInteger.get(97));
+      differences.add(COSName.A);
+      COSDictionary encoding = new COSDictionary();
+      encoding.setItem(COSName.TYPE, COSName.ENCODING);
+      encoding.setItem(COSName.DIFFERENCES, differences);
+
+      COSArray fontMatrix = new COSArray();
+      for (float value : new float[] {0.001f, 0, 0, 0.001f, 0, 0}) {
+        fontMatrix.add(new COSFloat(value));
+      }
+      COSArray fontBBox = new COSArray();
+      for (int value : new int[] {0, 0, 1000, 1000}) {
+        fontBBox.add(COSInteger.get(value));
+      }
+      COSArray widths = new COSArray();
+      widths.add(COSInteger.get(1000));
+
+      COSDictionary font = new COSDictionary();
+      font.setItem(COSName.TYPE, COSName.FONT);
+      font.setItem(COSName.SUBTYPE, COSName.TYPE3);
+      font.setItem(COSName.FONT_MATRIX, fontMatrix);
+      font.setItem(COSName.FONT_BBOX, fontBBox);
+      font.setItem(COSName.CHAR_PROCS, charProcs);
+      font.setItem(COSName.ENCODING, encoding);
+      font.setInt(COSName.FIRST_CHAR, 97);
+      font.setInt(COSName.LAST_CHAR, 97);
+      font.setItem(COSName.WIDTHS, widths);
+
+      PDPage page = new PDPage();
+      PDResources resources = new PDResources();
+      resources.put(COSName.getPDFName("F1"), new PDType3Font(font));
+      page.setResources(resources);
+
+      PDStream contents = new PDStream(doc);
+      try (OutputStream out = contents.createOutputStream()) {
+        out.write(content.getBytes(StandardCharsets.US_ASCII));
+      }
+      page.setContents(contents);
+      doc.addPage(page);
+      doc.save(file);
+    }
+  }
+
+  /**
+   * Asserts that the given shape has the given position.
+   *
+   * @param shape The shape to check.
+   * @param minX  The expected minX value.
+   * @param minY  The expected minY value.
+   * @param maxX  The expected maxX value.
+   * @param maxY  The expected maxY value.
+   */
+  protected static void assertPosition(PdfShape shape, float minX, float minY, float maxX,
+          float maxY) {
+    Rectangle rect = shape.getPosition().getRectangle();
+    assertEquals(minX, rect.getMinX(), 0.0001f);
+    assertEquals(minY, rect.getMinY(), 0.0001f);
+    assertEquals(maxX, rect.getMaxX(), 0.0001f);
+    assertEquals(maxY, rect.getMaxY(), 0.0001f);
+  }
+}
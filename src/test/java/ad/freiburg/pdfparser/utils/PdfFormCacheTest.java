@@ -0,0 +1,83 @@
+package ad.freiburg.pdfparser.utils;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.pdfbox.util.Matrix;
+import org.junit.Test;
+import ad.freiburg.pdfparser.model.PdfElement;
+import ad.freiburg.pdfparser.model.PdfShape;
+
+/**
+ * Tests for the {@link PdfFormCache}.
+ *
+ * @author Claudius Korzen
+ */
+public class PdfFormCacheTest {
+  /**
+   * Tests that a form is worth recording only when it is used the second time with the same key.
+   */
+  @Test
+  public void testRegisterUse() {
+    PdfFormCache cache = new PdfFormCache();
+    List<Object> key1 = Arrays.asList("form1", 1f);
+    List<Object> key2 = Arrays.asList("form1", 2f);
+
+    assertFalse(cache.registerUse(key1));
+    assertFalse(cache.registerUse(key2));
+    assertTrue(cache.registerUse(key1));
+    assertTrue(cache.registerUse(key2));
+
+    cache.clear();
+    assertFalse(cache.registerUse(key1));
+  }
+
+  /**
+   * Tests that the least recently used recordings are evicted when the total number of recorded
+   * elements exceeds the maximum, and that a recording exceeding the maximum isn't stored.
+   */
+  @Test
+  public void testEviction() {
+    PdfFormCache cache = new PdfFormCache(5);
+    List<Object> key1 = Arrays.asList("form1");
+    List<Object> key2 = Arrays.asList("form2");
+    List<Object> key3 = Arrays.asList("form3");
+    List<Object> key4 = Arrays.asList("form4");
+
+    cache.putRecording(key1, createRecording(2));
+    cache.putRecording(key2, createRecording(2));
+    // Access the first recording, so that the second recording is the least recently used one.
+    assertNotNull(cache.getRecording(key1));
+    cache.putRecording(key3, createRecording(2));
+
+    assertNotNull(cache.getRecording(key1));
+    assertNull(cache.getRecording(key2));
+    assertNotNull(cache.getRecording(key3));
+
+    cache.putRecording(key4, createRecording(6));
+    assertNull(cache.getRecording(key4));
+    assertNotNull(cache.getRecording(key1));
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Creates a recording with the given number of elements.
+   *
+   * @param numElements The number of elements.
+   *
+   * @return The created recording.
+   */
+  protected static PdfFormCache.Recording createRecording(int numElements) {
+    List<PdfElement> elements = new ArrayList<>();
+    for (int i = 0; i < numElements; i++) {
+      elements.add(new PdfShape());
+    }
+    return new PdfFormCache.Recording(new Matrix(), elements);
+  }
+}
@@ -0,0 +1,103 @@
+package ad.freiburg.pdfparser.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import ad.freiburg.pdfparser.model.PdfPage;
+import ad.freiburg.pdfparser.model.PdfPosition;
+import ad.freiburg.pdfparser.model.PdfShape;
+import ad.freiburg.pdfparser.model.Rectangle;
+
+/**
+ * Tests for the {@link ShapeUtils}.
+ *
+ * @author Claudius Korzen
+ */
+public class ShapeUtilsTest {
+  /**
+   * The page of the positions of the shapes.
+   */
+  protected static final PdfPage PAGE = new PdfPage(1);
+
+  /**
+   * Tests that touching thin filled rectangles (like "x y w 0.5 re f") and touching (reversed)
+   * segments are merged, while other shapes are kept.
+   */
+  @Test
+  public void testMergeRulings() {
+    PdfShape rule1 = createShape(100, 700, 150, 700.5f);
+    PdfShape rule2 = createShape(150, 700, 200, 700.5f);
+    PdfShape box = createShape(300, 300, 340, 320);
+    PdfShape line1 = createShape(100, 400, 100, 450);
+    PdfShape line2 = createShape(100, 500, 100, 450);
+
+    List<PdfShape> merged = ShapeUtils.mergeRulings(Arrays.asList(rule1, rule2, box, line1, line2));
+    assertEquals(3, merged.size());
+    assertRectangle(merged.get(0), 100, 700, 200, 700.5f);
+    assertSame(box, merged.get(1));
+    assertRectangle(merged.get(2), 100, 400, 100, 500);
+
+    // Merging the result again doesn't change it.
+    assertEquals(merged, ShapeUtils.mergeRulings(merged));
+  }
+
+  /**
+   * Tests that collinear rulings whose coordinates across their orientation differ only by rounding
+   * noise are merged, while parallel rulings farther apart are kept.
+   */
+  @Test
+  public void testMergeSlightlyMisalignedRulings() {
+    PdfShape rule1 = createShape(50, 100, 80, 100);
+    PdfShape rule2 = createShape(80, 100.00001f, 120, 100.00001f);
+    PdfShape rule3 = createShape(120, 100.5f, 150, 100.5f);
+    PdfShape line1 = createShape(300.00002f, 200, 300.00002f, 250);
+    PdfShape line2 = createShape(300, 250, 300, 300);
+
+    List<PdfShape> merged = ShapeUtils.mergeRulings(
+            Arrays.asList(rule1, rule2, rule3, line1, line2));
+    assertEquals(3, merged.size());
+    assertRectangle(merged.get(0), 50, 100, 120, 100.00001f);
+    assertSame(rule3, merged.get(1));
+    assertRectangle(merged.get(2), 300, 200, 300.00002f, 300);
+
+    // Merging the result again doesn't change it.
+    assertEquals(merged, ShapeUtils.mergeRulings(merged));
+  }
+
+  /**
+   * Creates a shape with the given position.
+   *
+   * @param x1 The first x-coordinate of the position.
+   * @param y1 The first y-coordinate of the position.
+   * @param x2 The second x-coordinate of the position.
+   * @param y2 The second y-coordinate of the position.
+   *
+   * @return The created shape.
+   */
+  protected static PdfShape createShape(float x1, float y1, float x2, float y2) {
+    PdfShape shape = new PdfShape();
+    shape.setPosition(new PdfPosition(PAGE, x1, y1, x2, y2));
+    return shape;
+  }
+
+  /**
+   * Asserts that the bounding box of the given shape has the given coordinates.
+   *
+   * @param shape The shape.
+   * @param minX  The expected minimum x-coordinate.
+   * @param minY  The expected minimum y-coordinate.
+   * @param maxX  The expected maximum x-coordinate.
+   * @param maxY  The expected maximum y-coordinate.
+   */
+  protected static void assertRectangle(PdfShape shape, float minX, float minY, float maxX,
+          float maxY) {
+    Rectangle rect = shape.getPosition().getRectangle();
+    assertEquals(minX, rect.getMinX(), 0);
+    assertEquals(minY, rect.getMinY(), 0);
+    assertEquals(maxX, rect.getMaxX(), 0);
+    assertEquals(maxY, rect.getMaxY(), 0);
+  }
+}